@@ -0,0 +1,38 @@
+package com.example.pizza.benchmark;
+
+import com.example.pizza.PizzaApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application for a benchmark trial against its own in-memory H2 database.
+ * The remaining H2 settings come from the test {@code application.properties}.
+ */
+final class BenchmarkContext {
+
+    private static final String H2_OPTIONS =
+            "MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        return start(databaseName, context -> { }, properties);
+    }
+
+    static ConfigurableApplicationContext start(String databaseName,
+                                                ApplicationContextInitializer<ConfigurableApplicationContext> initializer,
+                                                String... properties) {
+        return new SpringApplicationBuilder(PizzaApplication.class)
+                .initializers(initializer)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";" + H2_OPTIONS,
+                        "pizza.reactive.r2dbc.url=r2dbc:h2:mem:///" + databaseName + "?options=" + H2_OPTIONS)
+                .properties(properties)
+                .run();
+    }
+}
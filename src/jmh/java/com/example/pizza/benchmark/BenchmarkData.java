@@ -0,0 +1,58 @@
+package com.example.pizza.benchmark;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates cafes and pizzas that satisfy the entity constraints.
+ * Names and addresses may only contain letters, so sequence numbers are spelled in base 26.
+ */
+final class BenchmarkData {
+
+    static final String CHAIN_NAME = "Benchmark Chain";
+
+    static final int CHAIN_SIZE = 10;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates {@code count} cafes, the first {@link #CHAIN_SIZE} of which form the chain
+     * {@link #CHAIN_NAME}; the others are single cafes.
+     */
+    static List<Cafe> cafes(int count) {
+        List<Cafe> cafes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = i < CHAIN_SIZE ? CHAIN_NAME : "Cafe " + letters(i);
+            cafes.add(new Cafe(name, "Kyiv", "cafe" + i + "@example.com", "+380" + (1_000_000 + i),
+                    "Street " + letters(i)));
+        }
+        return cafes;
+    }
+
+    static List<Pizza> pizzas(int count, Cafe cafe) {
+        List<Pizza> pizzas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Pizza pizza = new Pizza("Pizza " + letters(i), 5 + i % 45, i % 3 == 0 ? "Large" : "Medium",
+                    "Tomato, Mozzarella, Basil, Olive oil");
+            pizza.setId(i + 1);
+            pizza.setCafe(cafe);
+            pizzas.add(pizza);
+        }
+        return pizzas;
+    }
+
+    static String letters(int value) {
+        StringBuilder builder = new StringBuilder();
+        int remaining = value;
+        do {
+            builder.append((char) ('a' + remaining % 26));
+            remaining /= 26;
+        } while (remaining > 0);
+        builder.setCharAt(builder.length() - 1, Character.toUpperCase(builder.charAt(builder.length() - 1)));
+        return builder.reverse().toString();
+    }
+}
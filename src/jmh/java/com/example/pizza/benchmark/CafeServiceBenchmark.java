@@ -0,0 +1,50 @@
+package com.example.pizza.benchmark;
+
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.service.interfaces.CafeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cafe read paths over an H2 database holding an increasing number of cafes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CafeServiceBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int cafeCount;
+
+    private ConfigurableApplicationContext context;
+
+    private CafeService cafeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("cafes" + cafeCount);
+        context.getBean(CafeRepository.class).saveAll(BenchmarkData.cafes(cafeCount));
+        cafeService = context.getBean(CafeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CafeDTO> getAllCafes() {
+        return cafeService.getAllCafes();
+    }
+
+    @Benchmark
+    public List<CafeDTO> getCafeChain() {
+        return cafeService.getCafeChain(BenchmarkData.CHAIN_NAME);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pizza.benchmark;
+
+import com.example.pizza.repository.CafeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the platform-thread and virtual-thread execution modes under a burst of concurrent
+ * requests to {@code GET /cafe/all}, whose query is delayed by {@link LatencyDataSource}.
+ * Both modes get the same connection pool, larger than Tomcat's 200 platform threads, so the
+ * difference measured is the request thread limit.
+ * The virtual mode needs a Java 21 build: {@code mvn -Pjava21,benchmark verify -DskipTests}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ExecutionModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"1000"})
+    public int concurrency;
+
+    @Param({"20"})
+    public long queryLatencyMillis;
+
+    @Param({"300"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(mode);
+        context = BenchmarkContext.start("executionmode" + mode,
+                applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                                ? new LatencyDataSource(dataSource, queryLatencyMillis)
+                                : bean;
+                    }
+                }),
+                "pizza.threads.virtual.enabled=" + virtual,
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "server.tomcat.accept-count=" + concurrency);
+        if (virtual && !context.containsBean("virtualThreadConfig")) {
+            context.close();
+            throw new IllegalStateException("The virtual-thread mode is only available in a -Pjava21 build");
+        }
+        context.getBean(CafeRepository.class).saveAll(BenchmarkData.cafes(20));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/cafe/all")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Sends {@code concurrency} requests at once and waits for all of them.
+     */
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != concurrency) {
+            throw new IllegalStateException((concurrency - ok) + " of " + concurrency + " requests failed");
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pizza.benchmark;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Data source that delays every statement execution by a fixed time, standing in for the
+ * network round trip to MySQL that an in-memory H2 database does not have.
+ * The delay is a sleep while the connection is held, so a virtual thread unmounts during it
+ * and a platform thread stays blocked, as they would on a socket read.
+ */
+final class LatencyDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeBatch", "executeLargeUpdate", "executeLargeBatch");
+
+    private final long latencyMillis;
+
+    LatencyDataSource(DataSource target, long latencyMillis) {
+        super(target);
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password));
+    }
+
+    private <T> T proxy(Class<T> type, T target) {
+        Object proxy = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                Thread.sleep(latencyMillis);
+            }
+            try {
+                Object result = method.invoke(target, args);
+                if (result instanceof PreparedStatement statement && method.getName().startsWith("prepare")) {
+                    return proxy(PreparedStatement.class, statement);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.pizza.benchmark;
+
+import com.example.pizza.cache.AuthenticationCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a full BCrypt verification, as run by HTTP Basic on every request, with a hit in
+ * the {@link AuthenticationCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PasswordEncoderBenchmark {
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+
+    private final AuthenticationCache authenticationCache = new AuthenticationCache(1000, Duration.ofMinutes(5));
+
+    private String encodedPassword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encodedPassword = encoder.encode("benchmark-password");
+        authenticationCache.put("admin", "benchmark-password",
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return encoder.matches("benchmark-password", encodedPassword);
+    }
+
+    @Benchmark
+    public AuthenticationCache.VerifiedUser authenticationCacheHit() {
+        return authenticationCache.get("admin", "benchmark-password");
+    }
+}
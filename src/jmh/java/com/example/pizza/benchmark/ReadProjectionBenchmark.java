@@ -0,0 +1,101 @@
+package com.example.pizza.benchmark;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading and serializing the cafe list and a cafe menu as managed entities, as the read
+ * endpoints used to, with reading them through the read-only DTO projections they use now.
+ * Each operation runs in its own read-only transaction and writes the JSON response body.
+ * Run with {@code -prof gc} to compare the allocation per operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReadProjectionBenchmark {
+
+    private static final String MENU_ENTITIES = "SELECT p FROM Pizza p JOIN FETCH p.cafe c"
+            + " WHERE c.name = :cafeName AND c.address = :cafeAddress ORDER BY p.id";
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    private ConfigurableApplicationContext context;
+
+    private CafeRepository cafeRepository;
+
+    private PizzaRepository pizzaRepository;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate readOnly;
+
+    private ObjectMapper objectMapper;
+
+    private Cafe menuCafe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("projections" + rowCount);
+        cafeRepository = context.getBean(CafeRepository.class);
+        pizzaRepository = context.getBean(PizzaRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        menuCafe = cafeRepository.saveAll(BenchmarkData.cafes(rowCount)).get(0);
+        pizzaRepository.insertAll(BenchmarkData.pizzas(rowCount, menuCafe));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] cafesAsEntities() {
+        return readOnly.execute(status -> write(cafeRepository.findAll()));
+    }
+
+    @Benchmark
+    public byte[] cafesAsProjections() {
+        return readOnly.execute(status -> write(cafeRepository.findAllDtos()));
+    }
+
+    @Benchmark
+    public byte[] menuAsEntities() {
+        return readOnly.execute(status -> write(entityManager.createQuery(MENU_ENTITIES, Pizza.class)
+                .setParameter("cafeName", menuCafe.getName())
+                .setParameter("cafeAddress", menuCafe.getAddress())
+                .getResultList()));
+    }
+
+    @Benchmark
+    public byte[] menuAsProjections() {
+        return readOnly.execute(status -> write(
+                pizzaRepository.findMenuDtos(menuCafe.getName(), menuCafe.getAddress())));
+    }
+
+    private byte[] write(List<?> body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.pizza.benchmark;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of the cafe and pizza lists returned by the read endpoints, in each
+ * of the formats they can be negotiated in, and their deserialization by a client. The payload sizes
+ * are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    public enum Format {
+        JSON,
+        CBOR,
+        SMILE
+    }
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public Format format;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectReader cafesReader;
+
+    private ObjectReader pizzasReader;
+
+    private List<CafeDTO> cafes;
+
+    private List<PizzaDTO> pizzas;
+
+    private byte[] cafesPayload;
+
+    private byte[] pizzasPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case JSON -> new ObjectMapper();
+            case CBOR -> new CBORMapper();
+            case SMILE -> new SmileMapper();
+        };
+        cafesReader = objectMapper.readerForListOf(CafeDTO.class);
+        pizzasReader = objectMapper.readerForListOf(PizzaDTO.class);
+        List<Cafe> entities = BenchmarkData.cafes(size);
+        cafes = entities.stream().map(CafeDTO::of).toList();
+        pizzas = BenchmarkData.pizzas(size, entities.get(0)).stream().map(PizzaDTO::of).toList();
+        cafesPayload = objectMapper.writeValueAsBytes(cafes);
+        pizzasPayload = objectMapper.writeValueAsBytes(pizzas);
+        System.out.printf("%n%s, %d rows: cafes %d bytes, pizzas %d bytes%n",
+                format, size, cafesPayload.length, pizzasPayload.length);
+    }
+
+    @Benchmark
+    public byte[] serializeCafes() throws IOException {
+        return objectMapper.writeValueAsBytes(cafes);
+    }
+
+    @Benchmark
+    public byte[] serializePizzas() throws IOException {
+        return objectMapper.writeValueAsBytes(pizzas);
+    }
+
+    @Benchmark
+    public List<CafeDTO> deserializeCafes() throws IOException {
+        return cafesReader.readValue(cafesPayload);
+    }
+
+    @Benchmark
+    public List<PizzaDTO> deserializePizzas() throws IOException {
+        return pizzasReader.readValue(pizzasPayload);
+    }
+}
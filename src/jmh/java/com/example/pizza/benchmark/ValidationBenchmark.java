@@ -0,0 +1,88 @@
+package com.example.pizza.benchmark;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.validation.FieldConstraints;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures Bean Validation of the entities, for valid and invalid input, and compares the
+ * hand-written checks of the cafe fields with the regular expressions they replace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private final Cafe validCafe = new Cafe("Pizza House", "Kyiv", "house@example.com", "+380441234567", "Main Street");
+
+    private final Cafe invalidCafe = new Cafe("pizza house", "K", "not an email", "0441234567", "main street 1");
+
+    private final Pizza validPizza = new Pizza("Margherita", 12.5, "Large", "Tomato, Mozzarella, Basil");
+
+    private final Pattern capitalizedWords = Pattern.compile(FieldConstraints.CAPITALIZED_WORDS);
+
+    private final Pattern cityName = Pattern.compile(FieldConstraints.CITY_NAME);
+
+    private final Pattern emailAddress = Pattern.compile(FieldConstraints.EMAIL_ADDRESS);
+
+    private final Pattern phoneNumber = Pattern.compile(FieldConstraints.PHONE_NUMBER);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Cafe>> validateValidCafe() {
+        return validator.validate(validCafe);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Cafe>> validateInvalidCafe() {
+        return validator.validate(invalidCafe);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Pizza>> validateValidPizza() {
+        return validator.validate(validPizza);
+    }
+
+    @Benchmark
+    public boolean regexCafeFields() {
+        return capitalizedWords.matcher(validCafe.getName()).matches()
+                & cityName.matcher(validCafe.getCity()).matches()
+                & capitalizedWords.matcher(validCafe.getAddress()).matches()
+                & emailAddress.matcher(validCafe.getEmail()).matches()
+                & phoneNumber.matcher(validCafe.getPhone()).matches();
+    }
+
+    @Benchmark
+    public boolean handWrittenCafeFields() {
+        return FieldConstraints.isCapitalizedWords(validCafe.getName())
+                & FieldConstraints.isCityName(validCafe.getCity())
+                & FieldConstraints.isCapitalizedWords(validCafe.getAddress())
+                & FieldConstraints.isEmailAddress(validCafe.getEmail())
+                & FieldConstraints.isPhoneNumber(validCafe.getPhone());
+    }
+}
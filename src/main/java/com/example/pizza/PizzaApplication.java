@@ -2,8 +2,10 @@ package com.example.pizza;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC is set up by ReactiveDatabaseConfig, next to the JDBC DataSource rather than instead of it
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class PizzaApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,130 @@
+package com.example.pizza.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bounded, expiring cache of successfully verified credentials.
+ * Entries are keyed by an HMAC-SHA256 of the username and password under a random key that
+ * is generated at startup and never leaves the process, so neither the password nor a
+ * reusable hash of it is kept in memory. A hit means the same username and password have
+ * already passed BCrypt verification within the configured time to live.
+ * <p>
+ * Only the verified principal and its authorities are kept, never the authentication object
+ * itself, so the details and credentials of one request are not shared with the next.
+ */
+@Component
+public class AuthenticationCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * The outcome of a successful verification.
+     *
+     * @param username    The name of the verified user.
+     * @param principal   The principal the verification produced.
+     * @param authorities The authorities granted to the principal.
+     */
+    public record VerifiedUser(String username, Object principal, Collection<? extends GrantedAuthority> authorities) {
+    }
+
+    /**
+     * Verified users keyed by the keyed hash of their credentials.
+     */
+    private final Cache<String, VerifiedUser> cache;
+
+    /**
+     * Process-local secret used to key the credential hashes.
+     */
+    private final SecretKeySpec secretKey;
+
+    public AuthenticationCache(@Value("${pizza.security.auth-cache.max-size:10000}") long maxSize,
+                               @Value("${pizza.security.auth-cache.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.secretKey = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    /**
+     * Get the user verified earlier with the given credentials.
+     *
+     * @param username The username presented by the client.
+     * @param password The raw password presented by the client.
+     * @return The user verified earlier with these credentials, or null if there is none.
+     */
+    public VerifiedUser get(String username, String password) {
+        return cache.getIfPresent(key(username, password));
+    }
+
+    /**
+     * Store the principal and authorities of a successfully verified authentication for the given credentials.
+     *
+     * @param username       The username presented by the client.
+     * @param password       The raw password presented by the client.
+     * @param authentication The authentication produced by the verification.
+     */
+    public void put(String username, String password, Authentication authentication) {
+        cache.put(key(username, password), new VerifiedUser(authentication.getName(), authentication.getPrincipal(),
+                List.copyOf(authentication.getAuthorities())));
+    }
+
+    /**
+     * Remove every cached authentication of the given user.
+     *
+     * @param username The username whose authentications are to be removed.
+     */
+    public void invalidate(String username) {
+        cache.asMap().values().removeIf(user -> username.equals(user.username()));
+    }
+
+    /**
+     * Get the hit and miss counters of the cache.
+     *
+     * @return A snapshot of the cache statistics.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Get the approximate number of cached authentications.
+     *
+     * @return The number of entries in the cache.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private String key(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            // Separator so that ("ab", "c") and ("a", "bc") never share a key
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.pizza.cache;
+
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.event.CafeDeletedEvent;
+import com.example.pizza.event.CafeSavedEvent;
+import com.example.pizza.event.PizzaDeletedEvent;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.event.PizzaUpdatedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache of cafe menus keyed by cafe name and address.
+ * A cached menu is an unmodifiable list of read-only pizza views. Entries are invalidated after
+ * commit by the pizza and cafe events, so a menu is dropped exactly when one of its pizzas
+ * changes or when its cafe is renamed, moved or deleted.
+ * A menu is loaded on the thread that missed it, outside of any cache lock, while concurrent
+ * requests for the same cafe wait on its future instead of repeating the query. No monitor is
+ * held across the database call, so a virtual thread waiting for it is never pinned.
+ */
+@Component
+public class MenuCache {
+
+    /**
+     * Identifies the menu of one cafe.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     */
+    private record MenuKey(String cafeName, String cafeAddress) {
+    }
+
+    /**
+     * A cached menu together with the ID of the cafe it was loaded for.
+     * The ID is {@code 0} when the menu is empty, as it is not known then.
+     */
+    private record Menu(long cafeId, List<PizzaDTO> pizzas) {
+    }
+
+    private final AsyncCache<MenuKey, Menu> asyncCache;
+
+    private final Cache<MenuKey, Menu> cache;
+
+    public MenuCache(@Value("${pizza.cache.menu.max-size:1000}") long maxSize) {
+        this.asyncCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+        this.cache = asyncCache.synchronous();
+    }
+
+    /**
+     * Get the menu of a cafe, loading it on a miss.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     * @param loader      Loads the menu from the database.
+     * @return An unmodifiable list of the pizzas in the cafe.
+     */
+    public List<PizzaDTO> getMenu(String cafeName, String cafeAddress, Supplier<List<PizzaDTO>> loader) {
+        CompletableFuture<Menu> loading = new CompletableFuture<>();
+        CompletableFuture<Menu> menu = asyncCache.get(new MenuKey(cafeName, cafeAddress), (key, executor) -> loading);
+        if (menu == loading) {
+            try {
+                loading.complete(load(loader));
+            } catch (RuntimeException | Error e) {
+                // Failed futures are dropped from the cache, so the next request loads again
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return menu.join().pizzas();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Menu load(Supplier<List<PizzaDTO>> loader) {
+        List<PizzaDTO> pizzas = List.copyOf(loader.get());
+        long cafeId = pizzas.isEmpty() ? 0 : pizzas.get(0).cafeId();
+        return new Menu(cafeId, pizzas);
+    }
+
+    /**
+     * Remove the cached menu of a cafe.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     */
+    public void invalidate(String cafeName, String cafeAddress) {
+        cache.invalidate(new MenuKey(cafeName, cafeAddress));
+    }
+
+    /**
+     * Get the hit and miss counters of the cache.
+     *
+     * @return A snapshot of the cache statistics.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Get the approximate number of cached menus.
+     *
+     * @return The number of entries in the cache.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Drops the menu cached under the new name and address of a saved cafe, and any menu still
+     * cached under its previous name and address.
+     *
+     * @param event The event describing the saved cafe.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeSaved(CafeSavedEvent event) {
+        long cafeId = event.cafe().getId();
+        invalidate(event.cafe().getName(), event.cafe().getAddress());
+        cache.asMap().values().removeIf(menu -> menu.cafeId() == cafeId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeDeleted(CafeDeletedEvent event) {
+        invalidate(event.name(), event.address());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaSaved(PizzaSavedEvent event) {
+        invalidate(event.cafeName(), event.cafeAddress());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaUpdated(PizzaUpdatedEvent event) {
+        invalidate(event.cafeName(), event.cafeAddress());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaDeleted(PizzaDeletedEvent event) {
+        invalidate(event.cafeName(), event.cafeAddress());
+    }
+}
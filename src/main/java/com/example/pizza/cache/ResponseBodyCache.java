@@ -0,0 +1,357 @@
+package com.example.pizza.cache;
+
+import com.example.pizza.datasource.PrimaryPinning;
+import com.example.pizza.event.CafeDeletedEvent;
+import com.example.pizza.event.CafeSavedEvent;
+import com.example.pizza.event.PizzaDeletedEvent;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.event.PizzaUpdatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the serialized bodies of the hot read endpoints, keyed by endpoint, arguments and
+ * response format. A cached body holds the bytes of the response as JSON, CBOR or Smile and,
+ * when it is smaller, their gzip compression, so a hit is written to the response as is, with
+ * no serialization or compression per request.
+ * <p>
+ * Each body is stored with the ETag it was built for and only served under that ETag, which is
+ * computed by the database for every request anyway; a body can therefore never outlive the
+ * data it was serialized from. Entries are also dropped after commit by the pizza and cafe
+ * events, so their memory is released as soon as a write makes them stale. A body built while
+ * one of those events was handled is not stored, as it may have been read from a cache that was
+ * not yet invalidated. Bodies are loaded from the primary, so that with read replicas a body is
+ * never older than the ETag it is stored under. The cache is bounded by the total size of the
+ * bodies it holds.
+ */
+@Component
+public class ResponseBodyCache {
+
+    /**
+     * The key of the cafe list.
+     */
+    public static final String CAFES = "cafes";
+
+    /**
+     * The key of the menu of a cafe, with its name and address as arguments.
+     */
+    public static final String MENU = "menu";
+
+    /**
+     * The formats a body is cached in, with the media type each is served as.
+     * A request accepting any type gets JSON, as it does from the message converters.
+     */
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON),
+        CBOR(MediaType.APPLICATION_CBOR),
+        SMILE(MediaType.parseMediaType("application/x-jackson-smile"));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+    }
+
+    /**
+     * Identifies one cached body.
+     *
+     * @param endpoint The endpoint the body is returned by.
+     * @param args     The arguments of the endpoint.
+     * @param format   The format of the body.
+     */
+    private record Key(String endpoint, List<String> args, Format format) {
+    }
+
+    /**
+     * A serialized body and the ETag it was built for.
+     *
+     * @param etag The ETag of the data the body was serialized from.
+     * @param raw  The body.
+     * @param gzip The gzip compression of the body, or null if it is not smaller.
+     */
+    private record Body(String etag, byte[] raw, byte[] gzip) {
+
+        private int weight() {
+            return raw.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    private static final HeaderContentNegotiationStrategy NEGOTIATION = new HeaderContentNegotiationStrategy();
+
+    private final ObjectMapper[] mappers = new ObjectMapper[Format.values().length];
+
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+
+    private final Cache<Key, Body> cache;
+
+    /**
+     * Counts the invalidations, so that a body built across one is not stored.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ResponseBodyCache(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder objectMapperBuilder,
+                             @Value("${pizza.cache.response.max-bytes:67108864}") long maxBytes) {
+        mappers[Format.JSON.ordinal()] = objectMapper;
+        mappers[Format.CBOR.ordinal()] = objectMapperBuilder.factory(new CBORFactory()).build();
+        mappers[Format.SMILE.ordinal()] = objectMapperBuilder.factory(new SmileFactory()).build();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<Key, Body>weigher((key, body) -> body.weight())
+                .recordStats(() -> stats)
+                .build();
+    }
+
+    /**
+     * Answer a conditional GET from the cache: with 304 if the client has the current version,
+     * else with the cached body in the negotiated format, compressed if the client accepts gzip.
+     * On a miss the body is loaded, serialized and compressed once, and cached.
+     * A request accepting none of the cached formats gets the loaded body unserialized, for the
+     * message converters to handle.
+     * <p>
+     * The ETag is suffixed with the negotiated format, such as {@code -cbor}, and for a client
+     * accepting gzip with {@code -gzip}, as every format and encoding of a body is a different
+     * representation and must not share a strong ETag with the others.
+     *
+     * @param request  The request.
+     * @param endpoint The endpoint the body is returned by.
+     * @param args     The arguments of the endpoint.
+     * @param etag     Computes the current ETag of the body.
+     * @param loader   Loads the body.
+     * @return The response.
+     */
+    public ResponseEntity<?> respond(NativeWebRequest request, String endpoint, List<String> args,
+                                     Supplier<String> etag, Supplier<?> loader) {
+        long generation = invalidations.get();
+        String currentEtag = etag.get();
+        Format format = negotiate(request);
+        boolean gzip = format != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String responseEtag = currentEtag;
+        if (format != null) {
+            responseEtag = withSuffix(responseEtag, format.name().toLowerCase(Locale.ROOT));
+        }
+        if (gzip) {
+            responseEtag = withSuffix(responseEtag, "gzip");
+        }
+        if (request.checkNotModified(responseEtag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(responseEtag).cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(responseEtag).cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (format == null) {
+            return response.body(loader.get());
+        }
+
+        Key key = new Key(endpoint, args, format);
+        Body body = cache.policy().getIfPresentQuietly(key);
+        if (body != null && body.etag().equals(currentEtag)) {
+            stats.recordHits(1);
+        } else {
+            stats.recordMisses(1);
+            body = serialize(currentEtag, format, PrimaryPinning.pinned(loader));
+            if (invalidations.get() == generation) {
+                cache.put(key, body);
+            }
+        }
+
+        response.contentType(format.mediaType);
+        if (gzip && body.gzip() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.raw());
+    }
+
+    /**
+     * Check whether an {@code Accept-Encoding} header accepts gzip, that is, lists {@code gzip} or
+     * {@code x-gzip} with a nonzero quality or, if it lists neither, lists {@code *} with one.
+     * A quality that cannot be parsed counts as zero.
+     *
+     * @param acceptEncoding The header, or null if the request has none.
+     * @return True if the response may be compressed with gzip, false otherwise.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+                        && parameter.charAt(1) == '=') {
+                    quality = parseQuality(parameter.substring(2));
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = Math.max(any, quality);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    private static double parseQuality(String value) {
+        try {
+            double quality = Double.parseDouble(value.trim());
+            return quality >= 0 && quality <= 1 ? quality : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Append a suffix to the opaque tag of an ETag, inside its quotes.
+     */
+    private static String withSuffix(String etag, String suffix) {
+        return etag.endsWith("\"")
+                ? etag.substring(0, etag.length() - 1) + "-" + suffix + "\""
+                : etag + "-" + suffix;
+    }
+
+    /**
+     * Pick the first cached format the request accepts, in the order of its {@code Accept} header.
+     */
+    private static Format negotiate(NativeWebRequest request) {
+        List<MediaType> accepted;
+        try {
+            accepted = NEGOTIATION.resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return null;
+        }
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (Format format : Format.values()) {
+                if (mediaType.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Body serialize(String etag, Format format, Object value) {
+        byte[] raw;
+        try {
+            raw = mappers[format.ordinal()].writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write " + format + ": " + e.getOriginalMessage(), e);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Body(etag, raw, compressed.size() < raw.length ? compressed.toByteArray() : null);
+    }
+
+    /**
+     * Remove the cached bodies of an endpoint in every format.
+     *
+     * @param endpoint The endpoint the bodies are returned by.
+     * @param args     The arguments of the endpoint.
+     */
+    public void invalidate(String endpoint, List<String> args) {
+        invalidations.incrementAndGet();
+        for (Format format : Format.values()) {
+            cache.invalidate(new Key(endpoint, args, format));
+        }
+    }
+
+    /**
+     * Get the hit and miss counters of the cache. A body cached for another ETag counts as a miss.
+     *
+     * @return A snapshot of the cache statistics.
+     */
+    public CacheStats stats() {
+        return stats.snapshot();
+    }
+
+    /**
+     * Get the approximate number of cached bodies.
+     *
+     * @return The number of entries in the cache.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Drops the cafe list, and the menus cached under the new name and address of a saved cafe.
+     * Menus cached under its previous name and address are no longer served, as their ETag has
+     * changed, and are left to be evicted.
+     *
+     * @param event The event describing the saved cafe.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeSaved(CafeSavedEvent event) {
+        invalidate(CAFES, List.of());
+        invalidate(MENU, menu(event.cafe().getName(), event.cafe().getAddress()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeDeleted(CafeDeletedEvent event) {
+        invalidate(CAFES, List.of());
+        invalidate(MENU, menu(event.name(), event.address()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaSaved(PizzaSavedEvent event) {
+        invalidate(MENU, menu(event.cafeName(), event.cafeAddress()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaUpdated(PizzaUpdatedEvent event) {
+        invalidate(MENU, menu(event.cafeName(), event.cafeAddress()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaDeleted(PizzaDeletedEvent event) {
+        invalidate(MENU, menu(event.cafeName(), event.cafeAddress()));
+    }
+
+    /**
+     * The arguments of the menu of a cafe, whose address may be missing.
+     */
+    private static List<String> menu(String cafeName, String cafeAddress) {
+        return Arrays.asList(cafeName, cafeAddress);
+    }
+}
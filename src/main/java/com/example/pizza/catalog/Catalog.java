@@ -0,0 +1,147 @@
+package com.example.pizza.catalog;
+
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.event.CafeDeletedEvent;
+import com.example.pizza.event.CafeSavedEvent;
+import com.example.pizza.event.PizzaDeletedEvent;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.event.PizzaUpdatedEvent;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holder of the current {@link CatalogSnapshot}, from which the cafe and pizza reads are served
+ * when {@code pizza.catalog.read-mode=snapshot}.
+ * The snapshot is loaded once when the application is ready and then replaced after every
+ * committed write, as announced by the cafe and pizza events. Readers get it with a single
+ * volatile read and never wait; writers derive the next snapshot from the current one under a
+ * lock, so concurrent writes are applied one after the other.
+ * Until it is loaded, and always in the default {@code database} mode, {@link #snapshot()}
+ * returns {@code null} and callers query the database.
+ */
+@Component
+public class Catalog {
+
+    /**
+     * Where the read paths of the services take their data from.
+     */
+    public enum ReadMode {
+        DATABASE,
+        SNAPSHOT
+    }
+
+    private final boolean enabled;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile CatalogSnapshot snapshot;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public Catalog(@Value("${pizza.catalog.read-mode:database}") ReadMode readMode) {
+        this.enabled = readMode == ReadMode.SNAPSHOT;
+    }
+
+    /**
+     * Get the current snapshot.
+     *
+     * @return The snapshot to serve reads from, or null if reads are to go to the database.
+     */
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Loads the snapshot from the database once the application has started, if the snapshot
+     * read mode is selected. All cafes and pizzas are read as views in one read-only transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        writeLock.lock();
+        try {
+            snapshot = transaction.execute(status ->
+                    CatalogSnapshot.of(cafeRepository.findAllDtos(), pizzaRepository.findAllDtos()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeSaved(CafeSavedEvent event) {
+        CafeDTO cafe = CafeDTO.of(event.cafe());
+        update(current -> current.withCafe(cafe));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeDeleted(CafeDeletedEvent event) {
+        update(current -> current.withoutCafe(event.cafeId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaSaved(PizzaSavedEvent event) {
+        PizzaDTO pizza = PizzaDTO.of(event.pizza());
+        update(current -> current.withPizza(pizza));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaUpdated(PizzaUpdatedEvent event) {
+        Pizza pizza = event.pizza();
+        update(current -> {
+            CafeDTO cafe = current.getCafeByNameAndAddress(event.cafeName(), event.cafeAddress());
+            return cafe == null ? current : current.withPizza(new PizzaDTO(pizza.getId(), pizza.getName(),
+                    pizza.getPrice(), pizza.getSize(), pizza.getIngredients(), pizza.getVersion(), cafe.id()));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaDeleted(PizzaDeletedEvent event) {
+        update(current -> {
+            CafeDTO cafe = current.getCafeByNameAndAddress(event.cafeName(), event.cafeAddress());
+            return cafe == null ? current : current.withoutPizza(cafe.id(), event.pizzaId());
+        });
+    }
+
+    /**
+     * Replaces the snapshot with the result of applying a write to it. Writes arriving before the
+     * snapshot is loaded are skipped, as the load reads them from the database.
+     */
+    private void update(UnaryOperator<CatalogSnapshot> write) {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            CatalogSnapshot current = snapshot;
+            if (current != null) {
+                snapshot = write.apply(current);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
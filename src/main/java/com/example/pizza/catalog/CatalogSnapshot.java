@@ -0,0 +1,351 @@
+package com.example.pizza.catalog;
+
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.dto.VersionStamp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of all cafes and their menus, indexed for every read the services serve.
+ * A snapshot is never modified: each write produces a new snapshot through one of the
+ * {@code with}/{@code without} methods, which rebuild only the indexes the write touches and
+ * share the rest with the previous snapshot. Cafe writes update the entries of the one cafe in
+ * copies of the cafe indexes, without sorting them again, while pizza writes copy the map of
+ * menus and the one menu that changed.
+ * <p>
+ * The cafes and pizzas held here are immutable read-only views, unrelated to any persistence
+ * context, and are handed out to readers as they are.
+ */
+public final class CatalogSnapshot {
+
+    /**
+     * Identifies a cafe by its name and address.
+     */
+    private record CafeKey(String name, String address) {
+    }
+
+    private static final Comparator<CafeDTO> BY_CAFE_ID = Comparator.comparingLong(CafeDTO::id);
+
+    private static final Comparator<PizzaDTO> BY_PIZZA_ID = Comparator.comparingLong(PizzaDTO::id);
+
+    /**
+     * All cafes ordered by ID, with their IDs in a parallel array for binary search.
+     */
+    private final List<CafeDTO> cafes;
+
+    private final long[] cafeIds;
+
+    private final Map<Long, CafeDTO> cafesById;
+
+    private final Map<CafeKey, CafeDTO> cafesByNameAndAddress;
+
+    private final Map<String, List<CafeDTO>> chainsByName;
+
+    /**
+     * The pizzas of each cafe ordered by ID, keyed by cafe ID. Cafes without pizzas have no entry.
+     */
+    private final Map<Long, List<PizzaDTO>> menusByCafeId;
+
+    private final VersionStamp cafesVersion;
+
+    private CatalogSnapshot(Map<Long, CafeDTO> cafesById, Map<Long, List<PizzaDTO>> menusByCafeId) {
+        this.cafesById = cafesById;
+        this.menusByCafeId = menusByCafeId;
+
+        List<CafeDTO> sorted = new ArrayList<>(cafesById.values());
+        sorted.sort(BY_CAFE_ID);
+        this.cafes = List.copyOf(sorted);
+        this.cafeIds = new long[sorted.size()];
+
+        Map<CafeKey, CafeDTO> byNameAndAddress = new HashMap<>();
+        Map<String, List<CafeDTO>> chains = new HashMap<>();
+        long idSum = 0;
+        long versionSum = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            CafeDTO cafe = sorted.get(i);
+            cafeIds[i] = cafe.id();
+            idSum += cafe.id();
+            versionSum += cafe.version();
+            byNameAndAddress.put(new CafeKey(cafe.name(), cafe.address()), cafe);
+            chains.computeIfAbsent(cafe.name(), name -> new ArrayList<>()).add(cafe);
+        }
+        chains.replaceAll((name, chain) -> List.copyOf(chain));
+        this.cafesByNameAndAddress = Map.copyOf(byNameAndAddress);
+        this.chainsByName = Map.copyOf(chains);
+        long maxId = cafeIds.length == 0 ? 0 : cafeIds[cafeIds.length - 1];
+        this.cafesVersion = new VersionStamp(cafeIds.length, maxId, idSum, versionSum);
+    }
+
+    /**
+     * Build a snapshot from the full contents of the database.
+     *
+     * @param cafes  All cafes.
+     * @param pizzas All pizzas.
+     * @return A snapshot holding the given cafes and pizzas.
+     */
+    static CatalogSnapshot of(Collection<CafeDTO> cafes, Collection<PizzaDTO> pizzas) {
+        Map<Long, CafeDTO> cafesById = new HashMap<>();
+        for (CafeDTO cafe : cafes) {
+            cafesById.put(cafe.id(), cafe);
+        }
+        Map<Long, List<PizzaDTO>> menus = new HashMap<>();
+        for (PizzaDTO pizza : pizzas) {
+            menus.computeIfAbsent(pizza.cafeId(), id -> new ArrayList<>()).add(pizza);
+        }
+        menus.replaceAll((id, menu) -> sortedCopy(menu));
+        return new CatalogSnapshot(Map.copyOf(cafesById), Map.copyOf(menus));
+    }
+
+    /**
+     * Get a snapshot in which the given cafe is added or replaced, keeping its menu.
+     * Only the entries of the cafe are updated: its slot in the ordered cafes, its name and
+     * address, its chain and its share of the version stamp; nothing is sorted again.
+     *
+     * @param cafe The created or updated cafe.
+     * @return The new snapshot.
+     */
+    CatalogSnapshot withCafe(CafeDTO cafe) {
+        CafeDTO previous = cafesById.get(cafe.id());
+        Map<Long, CafeDTO> cafesById = new HashMap<>(this.cafesById);
+        cafesById.put(cafe.id(), cafe);
+
+        int index = Arrays.binarySearch(cafeIds, cafe.id());
+        List<CafeDTO> cafes = new ArrayList<>(this.cafes);
+        long[] cafeIds;
+        if (index >= 0) {
+            cafes.set(index, cafe);
+            cafeIds = this.cafeIds;
+        } else {
+            index = -index - 1;
+            cafes.add(index, cafe);
+            cafeIds = new long[this.cafeIds.length + 1];
+            System.arraycopy(this.cafeIds, 0, cafeIds, 0, index);
+            System.arraycopy(this.cafeIds, index, cafeIds, index + 1, this.cafeIds.length - index);
+            cafeIds[index] = cafe.id();
+        }
+
+        Map<CafeKey, CafeDTO> byNameAndAddress = new HashMap<>(cafesByNameAndAddress);
+        Map<String, List<CafeDTO>> chains = new HashMap<>(chainsByName);
+        if (previous != null) {
+            byNameAndAddress.remove(new CafeKey(previous.name(), previous.address()), previous);
+            removeFromChain(chains, previous);
+        }
+        byNameAndAddress.merge(new CafeKey(cafe.name(), cafe.address()), cafe, CatalogSnapshot::higherId);
+        List<CafeDTO> chain = new ArrayList<>(chains.getOrDefault(cafe.name(), List.of()));
+        int position = 0;
+        while (position < chain.size() && chain.get(position).id() < cafe.id()) {
+            position++;
+        }
+        chain.add(position, cafe);
+        chains.put(cafe.name(), List.copyOf(chain));
+
+        VersionStamp version = previous == null
+                ? new VersionStamp(cafesVersion.count() + 1, Math.max(cafesVersion.maxId(), cafe.id()),
+                cafesVersion.idSum() + cafe.id(), cafesVersion.versionSum() + cafe.version())
+                : new VersionStamp(cafesVersion.count(), cafesVersion.maxId(), cafesVersion.idSum(),
+                cafesVersion.versionSum() - previous.version() + cafe.version());
+        return new CatalogSnapshot(Map.copyOf(cafesById), List.copyOf(cafes), cafeIds,
+                Map.copyOf(byNameAndAddress), Map.copyOf(chains), menusByCafeId, version);
+    }
+
+    /**
+     * Get a snapshot without the given cafe and its menu. As in {@link #withCafe}, only the
+     * entries of the cafe are removed.
+     *
+     * @param cafeId The ID of the deleted cafe.
+     * @return The new snapshot, or this snapshot if it does not hold the cafe.
+     */
+    CatalogSnapshot withoutCafe(long cafeId) {
+        CafeDTO previous = cafesById.get(cafeId);
+        if (previous == null) {
+            return this;
+        }
+        Map<Long, CafeDTO> cafesById = new HashMap<>(this.cafesById);
+        cafesById.remove(cafeId);
+        Map<Long, List<PizzaDTO>> menus = new HashMap<>(menusByCafeId);
+        menus.remove(cafeId);
+
+        int index = Arrays.binarySearch(cafeIds, cafeId);
+        List<CafeDTO> cafes = new ArrayList<>(this.cafes);
+        cafes.remove(index);
+        long[] cafeIds = new long[this.cafeIds.length - 1];
+        System.arraycopy(this.cafeIds, 0, cafeIds, 0, index);
+        System.arraycopy(this.cafeIds, index + 1, cafeIds, index, cafeIds.length - index);
+
+        Map<CafeKey, CafeDTO> byNameAndAddress = new HashMap<>(cafesByNameAndAddress);
+        byNameAndAddress.remove(new CafeKey(previous.name(), previous.address()), previous);
+        Map<String, List<CafeDTO>> chains = new HashMap<>(chainsByName);
+        removeFromChain(chains, previous);
+
+        long maxId = cafeIds.length == 0 ? 0 : cafeIds[cafeIds.length - 1];
+        VersionStamp version = new VersionStamp(cafesVersion.count() - 1, maxId, cafesVersion.idSum() - cafeId,
+                cafesVersion.versionSum() - previous.version());
+        return new CatalogSnapshot(Map.copyOf(cafesById), List.copyOf(cafes), cafeIds,
+                Map.copyOf(byNameAndAddress), Map.copyOf(chains), Map.copyOf(menus), version);
+    }
+
+    private static void removeFromChain(Map<String, List<CafeDTO>> chains, CafeDTO cafe) {
+        List<CafeDTO> chain = new ArrayList<>(chains.getOrDefault(cafe.name(), List.of()));
+        chain.removeIf(existing -> existing.id() == cafe.id());
+        if (chain.isEmpty()) {
+            chains.remove(cafe.name());
+        } else {
+            chains.put(cafe.name(), List.copyOf(chain));
+        }
+    }
+
+    /**
+     * Of two cafes with the same name and address, the one indexed is the one with the higher ID.
+     */
+    private static CafeDTO higherId(CafeDTO existing, CafeDTO added) {
+        return existing.id() > added.id() ? existing : added;
+    }
+
+    /**
+     * Get a snapshot in which the given pizza is added to or replaced in the menu of a cafe.
+     * The cafe indexes are shared with this snapshot.
+     *
+     * @param pizza The created or updated pizza.
+     * @return The new snapshot.
+     */
+    CatalogSnapshot withPizza(PizzaDTO pizza) {
+        List<PizzaDTO> menu = new ArrayList<>(menu(pizza.cafeId()));
+        menu.removeIf(existing -> existing.id() == pizza.id());
+        menu.add(pizza);
+        return withMenu(pizza.cafeId(), sortedCopy(menu));
+    }
+
+    /**
+     * Get a snapshot in which the given pizza is removed from the menu of a cafe.
+     *
+     * @param cafeId  The ID of the cafe of the pizza.
+     * @param pizzaId The ID of the deleted pizza.
+     * @return The new snapshot.
+     */
+    CatalogSnapshot withoutPizza(long cafeId, long pizzaId) {
+        List<PizzaDTO> menu = new ArrayList<>(menu(cafeId));
+        if (!menu.removeIf(existing -> existing.id() == pizzaId)) {
+            return this;
+        }
+        return withMenu(cafeId, List.copyOf(menu));
+    }
+
+    private CatalogSnapshot withMenu(long cafeId, List<PizzaDTO> menu) {
+        Map<Long, List<PizzaDTO>> menus = new HashMap<>(menusByCafeId);
+        if (menu.isEmpty()) {
+            menus.remove(cafeId);
+        } else {
+            menus.put(cafeId, menu);
+        }
+        return new CatalogSnapshot(cafesById, cafes, cafeIds, cafesByNameAndAddress, chainsByName,
+                Map.copyOf(menus), cafesVersion);
+    }
+
+    private CatalogSnapshot(Map<Long, CafeDTO> cafesById, List<CafeDTO> cafes, long[] cafeIds,
+                            Map<CafeKey, CafeDTO> cafesByNameAndAddress, Map<String, List<CafeDTO>> chainsByName,
+                            Map<Long, List<PizzaDTO>> menusByCafeId, VersionStamp cafesVersion) {
+        this.cafesById = cafesById;
+        this.cafes = cafes;
+        this.cafeIds = cafeIds;
+        this.cafesByNameAndAddress = cafesByNameAndAddress;
+        this.chainsByName = chainsByName;
+        this.menusByCafeId = menusByCafeId;
+        this.cafesVersion = cafesVersion;
+    }
+
+    /**
+     * Get all cafes.
+     *
+     * @return An unmodifiable list of all cafes, ordered by ID.
+     */
+    public List<CafeDTO> getAllCafes() {
+        return cafes;
+    }
+
+    /**
+     * Get the next page of cafes after the given ID.
+     *
+     * @param afterId The ID of the last cafe already seen.
+     * @param limit   The maximum number of cafes to return.
+     * @return An unmodifiable list of at most {@code limit} cafes with an ID greater than {@code afterId}.
+     */
+    public List<CafeDTO> getCafesAfter(long afterId, int limit) {
+        int from = Arrays.binarySearch(cafeIds, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        return cafes.subList(from, Math.min(from + limit, cafes.size()));
+    }
+
+    public CafeDTO getCafeById(long id) {
+        return cafesById.get(id);
+    }
+
+    public CafeDTO getCafeByNameAndAddress(String name, String address) {
+        return cafesByNameAndAddress.get(new CafeKey(name, address));
+    }
+
+    /**
+     * Get the cafes forming a chain.
+     *
+     * @param name The name of the cafe chain.
+     * @return An unmodifiable list of the cafes in the chain ordered by ID, or an empty list.
+     */
+    public List<CafeDTO> getCafeChain(String name) {
+        return chainsByName.getOrDefault(name, List.of());
+    }
+
+    /**
+     * Get the menu of a cafe.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     * @return An unmodifiable list of the pizzas of the cafe ordered by ID, or an empty list.
+     */
+    public List<PizzaDTO> getMenu(String cafeName, String cafeAddress) {
+        CafeDTO cafe = getCafeByNameAndAddress(cafeName, cafeAddress);
+        return cafe == null ? List.of() : menu(cafe.id());
+    }
+
+    /**
+     * Get the version stamp of all cafes, matching the one computed by the database.
+     *
+     * @return The version stamp of the cafe list.
+     */
+    public VersionStamp getCafesVersion() {
+        return cafesVersion;
+    }
+
+    /**
+     * Get the version stamp of the menu of a cafe, matching the one computed by the database.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     * @return The version stamp of the menu.
+     */
+    public VersionStamp getMenuVersion(String cafeName, String cafeAddress) {
+        List<PizzaDTO> menu = getMenu(cafeName, cafeAddress);
+        long idSum = 0;
+        long versionSum = 0;
+        for (PizzaDTO pizza : menu) {
+            idSum += pizza.id();
+            versionSum += pizza.version();
+        }
+        long maxId = menu.isEmpty() ? 0 : menu.get(menu.size() - 1).id();
+        return new VersionStamp(menu.size(), maxId, idSum, versionSum);
+    }
+
+    private List<PizzaDTO> menu(long cafeId) {
+        return menusByCafeId.getOrDefault(cafeId, List.of());
+    }
+
+    private static List<PizzaDTO> sortedCopy(List<PizzaDTO> menu) {
+        menu.sort(BY_PIZZA_ID);
+        return List.copyOf(menu);
+    }
+}
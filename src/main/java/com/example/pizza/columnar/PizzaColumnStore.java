@@ -0,0 +1,609 @@
+package com.example.pizza.columnar;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.CafeCityEntry;
+import com.example.pizza.dto.PizzaColumnsEntry;
+import com.example.pizza.dto.PizzaPriceStatsDTO;
+import com.example.pizza.event.CafeDeletedEvent;
+import com.example.pizza.event.CafeSavedEvent;
+import com.example.pizza.event.PizzaDeletedEvent;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.event.PizzaUpdatedEvent;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory columnar projection of all pizzas for filtering, sorting and aggregating by price,
+ * size and cafe city without loading any entity.
+ * Every pizza is a row spread over primitive columns: its ID, price and cafe ID, its size as a
+ * {@code short} code and the city of its cafe as an {@code int} code into small dictionaries.
+ * That is 30 bytes per pizza plus a bit of the live set, instead of an entity with its strings.
+ * <p>
+ * Rows are kept sorted by pizza ID, so a write finds its row by binary search. New pizzas
+ * normally have the largest ID and are appended; a deleted pizza only clears its live bit, and
+ * deleted rows are compacted away once they outnumber the live ones.
+ * <p>
+ * The store is loaded once when the application is ready and then kept current by the pizza
+ * and cafe events. It is enabled by default and switched off with
+ * {@code pizza.search.column-store.enabled=false}. Until it is loaded, {@link #isReady()}
+ * returns {@code false}.
+ */
+@Component
+public class PizzaColumnStore {
+
+    /**
+     * The order in which filtered pizzas are returned.
+     */
+    public enum Sort {
+        ID,
+        PRICE_ASC,
+        PRICE_DESC
+    }
+
+    /**
+     * The column price statistics are grouped by.
+     */
+    public enum GroupBy {
+        NONE,
+        SIZE,
+        CITY
+    }
+
+    /**
+     * Conditions a pizza must meet; null fields are not checked. Size and city are compared
+     * ignoring case, and the price range is inclusive.
+     *
+     * @param size     The size of the pizza.
+     * @param city     The city of the cafe of the pizza.
+     * @param minPrice The lowest price.
+     * @param maxPrice The highest price.
+     */
+    public record Filter(String size, String city, Double minPrice, Double maxPrice) {
+    }
+
+    /**
+     * The result of a filter.
+     *
+     * @param total    The number of matching pizzas.
+     * @param pizzaIds The IDs of the first matching pizzas in the requested order, at most as many as requested.
+     */
+    public record Rows(int total, List<Long> pizzaIds) {
+
+        static final Rows NONE = new Rows(0, List.of());
+    }
+
+    /**
+     * Filter value of a dictionary column that accepts every code.
+     */
+    private static final int ANY_CODE = -1;
+
+    /**
+     * Filter value of a dictionary column that accepts no code, used for unknown sizes and cities.
+     */
+    private static final int NO_CODE = -2;
+
+    private static final int MIN_COMPACTION = 1024;
+
+    private long[] ids = new long[1024];
+
+    private double[] prices = new double[1024];
+
+    private long[] cafeIds = new long[1024];
+
+    private short[] sizeCodes = new short[1024];
+
+    private int[] cityCodes = new int[1024];
+
+    /**
+     * The number of rows, live or deleted.
+     */
+    private int rows;
+
+    private final BitSet live = new BitSet();
+
+    private int liveCount;
+
+    private final Dictionary sizes = new Dictionary(Short.MAX_VALUE);
+
+    private final Dictionary cities = new Dictionary(Integer.MAX_VALUE);
+
+    private final Map<Long, Integer> cityCodeByCafeId = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final boolean enabled;
+
+    private volatile boolean ready;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public PizzaColumnStore(@Value("${pizza.search.column-store.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check whether the store is enabled and has been loaded.
+     *
+     * @return True if filters and statistics can be served from the store, false otherwise.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Find the pizzas meeting a filter.
+     * For a price order only the first {@code limit} rows are kept while scanning, in a bounded
+     * heap, so the matching rows are never sorted as a whole.
+     *
+     * @param filter The conditions the pizzas must meet.
+     * @param sort   The order of the returned IDs; equal prices are ordered by ID.
+     * @param limit  The maximum number of pizza IDs to return.
+     * @return The number of matching pizzas and the IDs of the first {@code limit} of them.
+     */
+    public Rows filter(Filter filter, Sort sort, int limit) {
+        lock.readLock().lock();
+        try {
+            int sizeCode = sizes.find(filter.size());
+            int cityCode = cities.find(filter.city());
+            if (sizeCode == NO_CODE || cityCode == NO_CODE) {
+                return Rows.NONE;
+            }
+            double minPrice = filter.minPrice() == null ? Double.NEGATIVE_INFINITY : filter.minPrice();
+            double maxPrice = filter.maxPrice() == null ? Double.POSITIVE_INFINITY : filter.maxPrice();
+
+            int total = 0;
+            TopRows top = sort == Sort.ID ? null : new TopRows(limit, sort == Sort.PRICE_DESC);
+            List<Long> firstIds = new ArrayList<>();
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                if (matches(row, sizeCode, cityCode, minPrice, maxPrice)) {
+                    total++;
+                    if (top != null) {
+                        top.offer(row);
+                    } else if (firstIds.size() < limit) {
+                        firstIds.add(ids[row]);
+                    }
+                }
+            }
+            return new Rows(total, top == null ? List.copyOf(firstIds) : top.sortedIds());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compute the price statistics of the pizzas meeting a filter in a single scan.
+     *
+     * @param filter  The conditions the pizzas must meet.
+     * @param groupBy The column to group the statistics by.
+     * @return One entry per group with at least one pizza, ordered by group, or a single entry
+     * with the group {@code "all"} when not grouping.
+     */
+    public List<PizzaPriceStatsDTO> priceStats(Filter filter, GroupBy groupBy) {
+        lock.readLock().lock();
+        try {
+            Dictionary groups = switch (groupBy) {
+                case NONE -> null;
+                case SIZE -> sizes;
+                case CITY -> cities;
+            };
+            int groupCount = groups == null ? 1 : groups.size();
+            long[] counts = new long[groupCount];
+            double[] sums = new double[groupCount];
+            double[] mins = new double[groupCount];
+            double[] maxs = new double[groupCount];
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+
+            int sizeCode = sizes.find(filter.size());
+            int cityCode = cities.find(filter.city());
+            if (sizeCode != NO_CODE && cityCode != NO_CODE) {
+                double minPrice = filter.minPrice() == null ? Double.NEGATIVE_INFINITY : filter.minPrice();
+                double maxPrice = filter.maxPrice() == null ? Double.POSITIVE_INFINITY : filter.maxPrice();
+                for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                    if (matches(row, sizeCode, cityCode, minPrice, maxPrice)) {
+                        int group = groups == null ? 0 : groups == sizes ? sizeCodes[row] : cityCodes[row];
+                        if (group < 0) {
+                            // A pizza of a cafe whose city is not known
+                            continue;
+                        }
+                        double price = prices[row];
+                        counts[group]++;
+                        sums[group] += price;
+                        mins[group] = Math.min(mins[group], price);
+                        maxs[group] = Math.max(maxs[group], price);
+                    }
+                }
+            }
+
+            if (groups == null) {
+                return List.of(stats("all", counts[0], sums[0], mins[0], maxs[0]));
+            }
+            List<PizzaPriceStatsDTO> result = new ArrayList<>();
+            for (int group = 0; group < groupCount; group++) {
+                if (counts[group] > 0) {
+                    result.add(stats(groups.value(group), counts[group], sums[group], mins[group], maxs[group]));
+                }
+            }
+            result.sort((a, b) -> a.group().compareToIgnoreCase(b.group()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the store from the database once the application has started, if it is enabled.
+     * Only the columns themselves are read, the pizzas from a forward-only cursor in one
+     * read-only transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        lock.writeLock().lock();
+        try {
+            transaction.executeWithoutResult(status -> {
+                for (CafeCityEntry cafe : cafeRepository.findCitiesBy()) {
+                    putCafe(cafe.getId(), cafe.getCity());
+                }
+                try (Stream<PizzaColumnsEntry> pizzas = pizzaRepository.streamColumnEntries()) {
+                    pizzas.forEach(pizza -> put(pizza.getId(), pizza.getPrice(), pizza.getSize(), pizza.getCafeId()));
+                }
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeSaved(CafeSavedEvent event) {
+        Cafe cafe = event.cafe();
+        update(() -> putCafe(cafe.getId(), cafe.getCity()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeDeleted(CafeDeletedEvent event) {
+        update(() -> removeCafe(event.cafeId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaSaved(PizzaSavedEvent event) {
+        Pizza pizza = event.pizza();
+        update(() -> put(pizza.getId(), pizza.getPrice(), pizza.getSize(), pizza.getCafe().getId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaUpdated(PizzaUpdatedEvent event) {
+        Pizza pizza = event.pizza();
+        update(() -> putValues(pizza.getId(), pizza.getPrice(), pizza.getSize()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaDeleted(PizzaDeletedEvent event) {
+        update(() -> remove(event.pizzaId()));
+    }
+
+    /**
+     * Applies a write under the write lock. A write arriving while the store is being loaded
+     * waits for the load and is applied after it. A write that takes the lock before the load
+     * is skipped, as it was committed before the load's transaction began and is read by it.
+     */
+    private void update(Runnable write) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                write.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the row of a pizza, inserting it at its position by ID if it is new.
+     */
+    void put(long pizzaId, double price, String size, long cafeId) {
+        int row = Arrays.binarySearch(ids, 0, rows, pizzaId);
+        if (row < 0) {
+            row = -row - 1;
+            insertRow(row);
+            ids[row] = pizzaId;
+        }
+        if (!live.get(row)) {
+            live.set(row);
+            liveCount++;
+        }
+        prices[row] = price;
+        cafeIds[row] = cafeId;
+        sizeCodes[row] = (short) sizes.encode(size);
+        cityCodes[row] = cityCodeByCafeId.getOrDefault(cafeId, ANY_CODE);
+    }
+
+    /**
+     * Records the new price and size of a pizza updated in place, keeping its cafe.
+     * A pizza that is not stored is skipped.
+     */
+    void putValues(long pizzaId, double price, String size) {
+        int row = Arrays.binarySearch(ids, 0, rows, pizzaId);
+        if (row >= 0 && live.get(row)) {
+            prices[row] = price;
+            sizeCodes[row] = (short) sizes.encode(size);
+        }
+    }
+
+    void remove(long pizzaId) {
+        int row = Arrays.binarySearch(ids, 0, rows, pizzaId);
+        if (row >= 0) {
+            retire(row);
+            compactIfSparse();
+        }
+    }
+
+    /**
+     * Records the city of a created or updated cafe and moves its pizzas to it.
+     */
+    void putCafe(long cafeId, String city) {
+        int cityCode = cities.encode(city);
+        Integer previous = cityCodeByCafeId.put(cafeId, cityCode);
+        if (previous != null && previous != cityCode) {
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                if (cafeIds[row] == cafeId) {
+                    cityCodes[row] = cityCode;
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes every pizza of a deleted cafe.
+     */
+    void removeCafe(long cafeId) {
+        cityCodeByCafeId.remove(cafeId);
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            if (cafeIds[row] == cafeId) {
+                retire(row);
+            }
+        }
+        compactIfSparse();
+    }
+
+    private boolean matches(int row, int sizeCode, int cityCode, double minPrice, double maxPrice) {
+        double price = prices[row];
+        return price >= minPrice && price <= maxPrice
+                && (sizeCode == ANY_CODE || sizeCodes[row] == sizeCode)
+                && (cityCode == ANY_CODE || cityCodes[row] == cityCode);
+    }
+
+    private void retire(int row) {
+        if (live.get(row)) {
+            live.clear(row);
+            liveCount--;
+        }
+    }
+
+    private void insertRow(int row) {
+        if (rows == ids.length) {
+            int capacity = rows * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            cafeIds = Arrays.copyOf(cafeIds, capacity);
+            sizeCodes = Arrays.copyOf(sizeCodes, capacity);
+            cityCodes = Arrays.copyOf(cityCodes, capacity);
+        }
+        if (row < rows) {
+            // A pizza committed after one with a larger ID; shift the rows after it
+            int moved = rows - row;
+            System.arraycopy(ids, row, ids, row + 1, moved);
+            System.arraycopy(prices, row, prices, row + 1, moved);
+            System.arraycopy(cafeIds, row, cafeIds, row + 1, moved);
+            System.arraycopy(sizeCodes, row, sizeCodes, row + 1, moved);
+            System.arraycopy(cityCodes, row, cityCodes, row + 1, moved);
+            BitSet after = live.get(row, rows);
+            live.clear(row, rows + 1);
+            for (int bit = after.nextSetBit(0); bit >= 0; bit = after.nextSetBit(bit + 1)) {
+                live.set(row + 1 + bit);
+            }
+        }
+        rows++;
+    }
+
+    /**
+     * Drops the deleted rows once they outnumber the live ones, keeping the rows sorted by ID.
+     */
+    private void compactIfSparse() {
+        int deleted = rows - liveCount;
+        if (deleted < MIN_COMPACTION || deleted < liveCount) {
+            return;
+        }
+        int next = 0;
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            ids[next] = ids[row];
+            prices[next] = prices[row];
+            cafeIds[next] = cafeIds[row];
+            sizeCodes[next] = sizeCodes[row];
+            cityCodes[next] = cityCodes[row];
+            next++;
+        }
+        live.clear();
+        live.set(0, next);
+        rows = next;
+    }
+
+    private static PizzaPriceStatsDTO stats(String group, long count, double sum, double min, double max) {
+        return count == 0
+                ? new PizzaPriceStatsDTO(group, 0, null, null, null)
+                : new PizzaPriceStatsDTO(group, count, min, sum / count, max);
+    }
+
+    /**
+     * Bounded heap keeping the {@code limit} first rows in price order seen so far. The root is
+     * the last of the kept rows, so a new row either replaces it or is dropped.
+     */
+    private final class TopRows {
+
+        private final int[] heap;
+
+        private final boolean descending;
+
+        private int size;
+
+        TopRows(int limit, boolean descending) {
+            this.heap = new int[limit];
+            this.descending = descending;
+        }
+
+        void offer(int row) {
+            if (size < heap.length) {
+                heap[size] = row;
+                siftUp(size++);
+            } else if (heap.length > 0 && before(row, heap[0])) {
+                heap[0] = row;
+                siftDown(0);
+            }
+        }
+
+        List<Long> sortedIds() {
+            int count = size;
+            // Heap sort: each step moves the last of the remaining rows behind them
+            for (int end = count - 1; end > 0; end--) {
+                swap(0, end);
+                size = end;
+                siftDown(0);
+            }
+            List<Long> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(ids[heap[i]]);
+            }
+            return List.copyOf(result);
+        }
+
+        /**
+         * Check whether one row comes before another in the requested order.
+         */
+        private boolean before(int a, int b) {
+            int byPrice = Double.compare(prices[a], prices[b]);
+            if (byPrice != 0) {
+                return descending ? byPrice > 0 : byPrice < 0;
+            }
+            return ids[a] < ids[b];
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!before(heap[parent], heap[index])) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int child = left + 1 < size && before(heap[left], heap[left + 1]) ? left + 1 : left;
+                if (!before(heap[index], heap[child])) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int row = heap[i];
+            heap[i] = heap[j];
+            heap[j] = row;
+        }
+    }
+
+    /**
+     * Dictionary encoding strings as dense codes, looked up ignoring case. The first spelling
+     * seen is the one reported back.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        private final int maxCodes;
+
+        Dictionary(int maxCodes) {
+            this.maxCodes = maxCodes;
+        }
+
+        int encode(String value) {
+            String key = key(value);
+            Integer code = codes.get(key);
+            if (code == null) {
+                if (values.size() == maxCodes) {
+                    throw new IllegalStateException("Too many distinct values to encode: " + value);
+                }
+                code = values.size();
+                codes.put(key, code);
+                values.add(value == null ? "" : value);
+            }
+            return code;
+        }
+
+        /**
+         * Get the code to filter by, {@code ANY_CODE} for no filter and {@code NO_CODE} for an unknown value.
+         */
+        int find(String value) {
+            if (value == null || value.isBlank()) {
+                return ANY_CODE;
+            }
+            return codes.getOrDefault(key(value), NO_CODE);
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        private static String key(String value) {
+            return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
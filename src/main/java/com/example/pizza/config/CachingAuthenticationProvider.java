@@ -0,0 +1,61 @@
+package com.example.pizza.config;
+
+import com.example.pizza.cache.AuthenticationCache;
+import com.example.pizza.service.implementation.UserServiceImpl;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authentication provider that puts an {@link AuthenticationCache} in front of the usual
+ * user lookup and BCrypt verification. On a cache hit neither the user and role queries nor
+ * the password hash check are run; on a miss the request is verified by a
+ * {@link DaoAuthenticationProvider} and only a successful result is cached.
+ * A hit is answered with a new token for the cached principal and authorities, carrying the
+ * details of the request at hand.
+ */
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final DaoAuthenticationProvider delegate;
+
+    private final AuthenticationCache authenticationCache;
+
+    public CachingAuthenticationProvider(UserServiceImpl userService, PasswordEncoder passwordEncoder,
+                                         AuthenticationCache authenticationCache) {
+        this.delegate = new DaoAuthenticationProvider();
+        this.delegate.setUserDetailsService(userService);
+        this.delegate.setPasswordEncoder(passwordEncoder);
+        this.authenticationCache = authenticationCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+        String password = credentials.toString();
+
+        AuthenticationCache.VerifiedUser cached = authenticationCache.get(username, password);
+        if (cached != null) {
+            UsernamePasswordAuthenticationToken result =
+                    UsernamePasswordAuthenticationToken.authenticated(cached.principal(), null, cached.authorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+        Authentication result = delegate.authenticate(authentication);
+        authenticationCache.put(username, password, result);
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pizza.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configuration of the Hibernate second-level cache for the {@code Cafe}, {@code Pizza} and
+ * {@code Role} entities, and of the query cache for the natural-key lookups of the repositories.
+ * <p>
+ * The regions live in an in-process Caffeine JCache manager created here, each bounded in size
+ * and expiring after write. Hibernate is set to fail on a region that is not declared below, so a
+ * newly cached entity cannot silently get an unbounded region. The update timestamps region,
+ * which tells whether a cached query result is still current, is neither bounded nor expired:
+ * losing an entry would make stale results look current.
+ * <p>
+ * Bulk statements run through Hibernate evict the affected entity regions and invalidate the
+ * query results on their tables when the transaction completes; statements bypassing Hibernate
+ * must register their tables the same way (see {@code PizzaBatchRepositoryImpl}).
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String[] ENTITY_REGIONS = {"cafe", "pizza", "role"};
+
+    private final long entityMaxSize;
+
+    private final Duration entityTtl;
+
+    private final long queryMaxSize;
+
+    private final Duration queryTtl;
+
+    public HibernateCacheConfig(@Value("${pizza.cache.entity.max-size:10000}") long entityMaxSize,
+                                @Value("${pizza.cache.entity.ttl:PT10M}") Duration entityTtl,
+                                @Value("${pizza.cache.query.max-size:10000}") long queryMaxSize,
+                                @Value("${pizza.cache.query.ttl:PT5M}") Duration queryTtl) {
+        this.entityMaxSize = entityMaxSize;
+        this.entityTtl = entityTtl;
+        this.queryMaxSize = queryMaxSize;
+        this.queryTtl = queryTtl;
+    }
+
+    /**
+     * Creates the cache manager holding every region. Each application context gets its own
+     * manager, so contexts running side by side in one JVM do not share cached rows.
+     *
+     * @return The JCache manager of the Hibernate regions.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:uuid:" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : ENTITY_REGIONS) {
+            cacheManager.createCache(region, region(entityMaxSize, entityTtl));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queryMaxSize, queryTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>().setNativeStatisticsEnabled(true));
+        return cacheManager;
+    }
+
+    /**
+     * Enables the second-level and query caches on the session factory, backed by
+     * {@link #hibernateCacheManager()}.
+     *
+     * @param hibernateCacheManager The cache manager holding the regions.
+     * @return A customizer setting the cache properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maxSize))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                .setNativeStatisticsEnabled(true);
+    }
+}
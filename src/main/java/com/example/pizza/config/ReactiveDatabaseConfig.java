@@ -0,0 +1,57 @@
+package com.example.pizza.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the non-blocking database access used by the reactive read API.
+ * Queries run over an R2DBC connection pool whose I/O is done by a small, fixed set of driver
+ * event-loop threads, so a waiting query does not hold a thread.
+ * <p>
+ * The pool is not exposed as a {@code ConnectionFactory} bean, and the R2DBC auto-configuration
+ * is excluded in {@code PizzaApplication}: either would make Spring Boot back off from the JDBC
+ * {@code DataSource} that JPA and the write paths keep using.
+ */
+@Configuration
+public class ReactiveDatabaseConfig implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveDatabaseConfig(@Value("${pizza.reactive.r2dbc.url}") String url,
+                                  @Value("${pizza.reactive.r2dbc.username:}") String username,
+                                  @Value("${pizza.reactive.r2dbc.password:}") String password,
+                                  @Value("${pizza.reactive.r2dbc.pool.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .initialSize(0)
+                .maxSize(maxSize)
+                .build());
+    }
+
+    /**
+     * Provides the client the reactive repositories run their queries with.
+     *
+     * @return A {@code DatabaseClient} over the R2DBC connection pool.
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.pizza.config;
+
+import com.example.pizza.datasource.ReadWriteRoutingDataSource;
+import com.example.pizza.datasource.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the read replicas, active when {@code pizza.datasource.replica.urls} lists at
+ * least one JDBC URL. Read-only transactions, which every read repository call and every
+ * {@code GET} endpoint runs in, then go to a replica, and the transactions of the write
+ * service methods to the primary configured by {@code spring.datasource.*}.
+ * <p>
+ * Spring Boot's own data source backs off in favour of the beans below: the primary pool, bound
+ * to {@code spring.datasource.hikari.*} like Boot's, the routing data source over the primary
+ * and one pool per replica, and the lazy proxy in front of it that JPA and JDBC use. Replicas
+ * share the credentials and driver of the primary.
+ * <p>
+ * The in-process caches that writes invalidate, the menu cache, the response body cache and the
+ * query cache of the natural-key lookups, load their misses from the primary (see
+ * {@code PrimaryPinning}), so a write is never followed by a refill from a replica that has not
+ * caught up. Entities read from a lagging replica can still enter the second-level cache; the
+ * read endpoints load views rather than entities, and such entries are bounded by its
+ * time-to-live like any other.
+ */
+@Configuration
+@ConditionalOnProperty("pizza.datasource.replica.urls")
+public class ReadReplicaConfig {
+
+    /**
+     * Creates the connection pool of the primary database.
+     *
+     * @param properties The {@code spring.datasource.*} properties.
+     * @return The primary pool.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates the replica pools and the data source routing between them and the primary.
+     *
+     * @param primaryDataSource The primary pool.
+     * @param properties        The {@code spring.datasource.*} properties the replicas share.
+     * @param urls              The JDBC URLs of the replicas.
+     * @param maxSize           The maximum number of connections of each replica pool.
+     * @param selection         How a replica is chosen for a read-only transaction.
+     * @param meterRegistry     The registry the pool metrics of the replicas are published in, if any.
+     * @return The routing data source.
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource, DataSourceProperties properties,
+            @Value("${pizza.datasource.replica.urls}") List<String> urls,
+            @Value("${pizza.datasource.replica.pool.max-size:10}") int maxSize,
+            @Value("${pizza.datasource.replica.selection:round-robin}") ReadWriteRoutingDataSource.ReplicaSelection selection,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(maxSize);
+            meterRegistry.ifAvailable(registry ->
+                    replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, selection);
+    }
+
+    /**
+     * Exposes the routing data source behind a lazy connection proxy, so the route of a
+     * transaction is chosen once its read-only flag is known.
+     *
+     * @param routingDataSource The routing data source.
+     * @return The data source used by JPA and JDBC.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Makes Hibernate release its connection at the end of every transaction. By default a session
+     * holds the connection it first acquired until it closes, which with the session kept open for
+     * the whole request would send every later transaction of a request to the database of its
+     * first one, and a load pinned to the primary after a replica read to the replica.
+     *
+     * @return A customizer setting the connection handling mode.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Registers the {@link ReadYourWritesFilter} ahead of the security filters, so the queries
+     * run to authenticate a pinned request use the primary as well.
+     *
+     * @param window How long a client stays pinned to the primary after a write.
+     * @return The filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${pizza.datasource.read-your-writes:PT2S}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(window, Clock.systemUTC()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -44,18 +44,22 @@ public class SecurityConfig {
      * This method defines the security rules for various endpoints, specifying the required roles
      * or permissions for access. Additionally, it disables CSRF protection for simplicity.
      * The configuration covers specific HTTP methods for different endpoints, allowing or restricting
-     * access based on user roles.
+     * access based on user roles. HTTP Basic credentials are verified by the
+     * {@code CachingAuthenticationProvider}, so repeated requests skip BCrypt.
      *
-     * @param http The {@code HttpSecurity} object to configure the security settings.
+     * @param http                   The {@code HttpSecurity} object to configure the security settings.
+     * @param authenticationProvider The provider verifying credentials through the authentication cache.
      * @return A {@code SecurityFilterChain} configured with the specified security rules.
      * @throws Exception If an error occurs during the configuration process.
      * @see HttpSecurity
      * @see SecurityFilterChain
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CachingAuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(x -> x.disable())
+                .authenticationProvider(authenticationProvider)
                 .authorizeHttpRequests(
                         x -> x
                                 // Permit all for specific GET endpoints
@@ -63,11 +67,24 @@ public class SecurityConfig {
                                 .permitAll()
                                 .requestMatchers(HttpMethod.GET, "/pizza/all")
                                 .permitAll()
+                                .requestMatchers(HttpMethod.GET, "/reactive/cafe/all")
+                                .permitAll()
+                                .requestMatchers(HttpMethod.GET, "/actuator/health")
+                                .permitAll()
+                                // Metrics are scraped with admin credentials
+                                .requestMatchers(HttpMethod.GET, "/actuator/prometheus")
+                                .hasRole("ADMIN")
                                 // Admin-only access for specific POST, PUT, and DELETE endpoints
                                 .requestMatchers(HttpMethod.POST, "/cafe/create")
                                 .hasRole("ADMIN")
+                                .requestMatchers(HttpMethod.POST, "/cafe/import")
+                                .hasRole("ADMIN")
                                 .requestMatchers(HttpMethod.POST, "/pizza/create")
                                 .hasRole("ADMIN")
+                                .requestMatchers(HttpMethod.POST, "/pizza/batch/**")
+                                .hasRole("ADMIN")
+                                .requestMatchers("/pizza/queue/**")
+                                .hasRole("ADMIN")
                                 .requestMatchers(HttpMethod.DELETE, "/pizza/delete-pizza-by-name")
                                 .hasRole("ADMIN")
                                 .requestMatchers(HttpMethod.PUT, "/pizza/update")
@@ -85,12 +102,20 @@ public class SecurityConfig {
                                 .hasAnyRole("ADMIN", "USER")
                                 .requestMatchers(HttpMethod.GET, "/pizza/name")
                                 .hasAnyRole("ADMIN", "USER")
+                                .requestMatchers(HttpMethod.GET, "/pizza/search")
+                                .hasAnyRole("ADMIN", "USER")
+                                .requestMatchers(HttpMethod.GET, "/pizza/filter")
+                                .hasAnyRole("ADMIN", "USER")
+                                .requestMatchers(HttpMethod.GET, "/pizza/price-stats")
+                                .hasAnyRole("ADMIN", "USER")
                                 .requestMatchers(HttpMethod.GET, "/cafe/chain")
                                 .hasAnyRole("ADMIN", "USER")
                                 .requestMatchers(HttpMethod.GET, "/cafe/name-address")
                                 .hasAnyRole("ADMIN", "USER")
                                 .requestMatchers(HttpMethod.GET, "/cafe/id")
                                 .hasAnyRole("ADMIN", "USER")
+                                .requestMatchers(HttpMethod.GET, "/export")
+                                .hasAnyRole("ADMIN", "USER")
                                 .anyRequest().authenticated()
                 ).httpBasic(Customizer.withDefaults());
         return http.build();
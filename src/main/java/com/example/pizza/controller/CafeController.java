@@ -1,42 +1,102 @@
 package com.example.pizza.controller;
 
+import com.example.pizza.cache.ResponseBodyCache;
 import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.CafeImportReportDTO;
+import com.example.pizza.dto.DeletedRowsDTO;
+import com.example.pizza.ingest.CafeImporter;
 import com.example.pizza.service.interfaces.CafeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/cafe")
 public class CafeController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private CafeService service;
 
-    //Works and tested
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CafeImporter importer;
+
+    @Autowired
+    private ResponseBodyCache responseCache;
+
+    // Conditional GET: If-None-Match is checked against a version stamp computed by the database,
+    // so an unchanged list is answered with 304 without loading or serializing any cafe; otherwise
+    // the body is written from the bytes serialized for this version, if it was served before
     @GetMapping("/all")
-    public List<Cafe> getAllCafes() {
-        return service.getAllCafes();
+    public ResponseEntity<?> getAllCafes(NativeWebRequest request) {
+        return responseCache.respond(request, ResponseBodyCache.CAFES, List.of(),
+                () -> service.getAllCafesVersion().toETag("cafes"), service::getAllCafes);
+    }
+
+    // Keyset page: pass the id of the last cafe received as "after" to get the next page
+    @GetMapping(value = "/all", params = "limit")
+    public List<CafeDTO> getCafesAfter(@RequestParam(defaultValue = "0") long after, @RequestParam int limit) {
+        return service.getCafesAfter(after, limit);
+    }
+
+    // Streams every cafe as newline-delimited JSON straight from a database cursor
+    @GetMapping(value = "/all", produces = NDJSON)
+    public void streamAllCafes(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            service.forEachCafe(cafe -> {
+                try {
+                    writer.write(cafe);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // Bulk import: the body is read, validated and inserted chunk by chunk, invalid rows are reported
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public CafeImportReportDTO importCsv(HttpServletRequest request) throws IOException {
+        return importer.importCafes(request.getInputStream(), CafeImporter.Format.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public CafeImportReportDTO importNdjson(HttpServletRequest request) throws IOException {
+        return importer.importCafes(request.getInputStream(), CafeImporter.Format.NDJSON);
     }
 
     //Works and tested
     @GetMapping("/chain/{name}")
-    public List<Cafe> getCafeChain(@PathVariable String name) {
+    public List<CafeDTO> getCafeChain(@PathVariable String name) {
         return service.getCafeChain(name);
     }
 
 
     @GetMapping("/id/{id}")
-    public Cafe getCafeById(@PathVariable long id){
+    public CafeDTO getCafeById(@PathVariable long id){
         return service.getCafeById(id);
     }
 
     //Works
     @GetMapping("/name-address/{cafeName}/{address}")
-    public Cafe getCafeByNameAndAddress(@PathVariable String cafeName, @PathVariable String address) {
+    public CafeDTO getCafeByNameAndAddress(@PathVariable String cafeName, @PathVariable String address) {
         return service.getCafeByNameAndAddress(cafeName, address);
     }
 
@@ -55,18 +115,18 @@ public class CafeController {
 
     //works
     @DeleteMapping("/delete-by-id/{cafeId}")
-    public void deleteCafeById(@PathVariable long cafeId) {
-        service.deleteCafeById(cafeId);
+    public DeletedRowsDTO deleteCafeById(@PathVariable long cafeId) {
+        return service.deleteCafeById(cafeId);
     }
 
     //works
     @DeleteMapping("/delete-chain/{name}")
-    public void deleteCafeChain(@PathVariable String name) {
-        service.deleteCafeChain(name);
+    public DeletedRowsDTO deleteCafeChain(@PathVariable String name) {
+        return service.deleteCafeChain(name);
     }
 
     @DeleteMapping("/delete-by-name-address/{name}/{address}")
-    public void deleteCafeByNameAndAddress(@PathVariable String name, @PathVariable String address) {
-        service.deleteCafeByNameAndAddress(name, address);
+    public DeletedRowsDTO deleteCafeByNameAndAddress(@PathVariable String name, @PathVariable String address) {
+        return service.deleteCafeByNameAndAddress(name, address);
     }
 }
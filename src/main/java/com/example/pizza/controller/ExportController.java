@@ -0,0 +1,123 @@
+package com.example.pizza.controller;
+
+import com.example.pizza.cache.ResponseBodyCache;
+import com.example.pizza.dto.CatalogExportRow;
+import com.example.pizza.service.interfaces.CafeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private static final String CSV = "text/csv;charset=UTF-8";
+
+    private static final String CSV_HEADER =
+            "cafe_id,cafe_name,city,address,email,phone,pizza_id,pizza_name,price,size,ingredients\n";
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    @Autowired
+    private CafeService service;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Streams every cafe joined with its pizzas straight from one database cursor, one row per pizza,
+    // gzip-compressed when the client accepts it
+    @GetMapping
+    public void export(@RequestParam(defaultValue = "NDJSON") Format format,
+                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+        response.setContentType(format == Format.CSV ? CSV : NDJSON);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        OutputStream out = response.getOutputStream();
+        if (ResponseBodyCache.acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        }
+        if (format == Format.CSV) {
+            writeCsv(out);
+        } else {
+            writeNdjson(out);
+        }
+    }
+
+    private void writeNdjson(OutputStream out) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            service.forEachExportRow(row -> {
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            service.forEachExportRow(row -> {
+                try {
+                    writeCsvRow(writer, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, CatalogExportRow row) throws IOException {
+        writer.write(Long.toString(row.cafeId()));
+        writeCsvField(writer, row.cafeName());
+        writeCsvField(writer, row.city());
+        writeCsvField(writer, row.address());
+        writeCsvField(writer, row.email());
+        writeCsvField(writer, row.phone());
+        writeCsvField(writer, row.pizzaId());
+        writeCsvField(writer, row.pizzaName());
+        writeCsvField(writer, row.price());
+        writeCsvField(writer, row.size());
+        writeCsvField(writer, row.ingredients());
+        writer.write('\n');
+    }
+
+    // Null is written as an empty field; text containing a separator, quote or line break is quoted (RFC 4180)
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
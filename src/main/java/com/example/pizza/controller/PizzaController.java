@@ -1,13 +1,24 @@
 package com.example.pizza.controller;
 
+import com.example.pizza.cache.ResponseBodyCache;
+import com.example.pizza.columnar.PizzaColumnStore;
 import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.DeletedRowsDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.dto.PizzaPriceStatsDTO;
+import com.example.pizza.dto.PizzaSearchResultDTO;
+import com.example.pizza.dto.WriteStatusDTO;
 import com.example.pizza.exception.exceptions.CafeNotFoundException;
+import com.example.pizza.index.IngredientIndex;
+import com.example.pizza.ingest.PizzaWriteBehindQueue;
 import com.example.pizza.service.interfaces.PizzaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -17,20 +28,60 @@ public class PizzaController {
     @Autowired
     private PizzaService service;
 
+    @Autowired
+    private PizzaWriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    private ResponseBodyCache responseCache;
+
+    // Conditional GET: an unchanged menu is answered with 304 after a single aggregate query, a changed one
+    // from the bytes serialized for its current version, if it was served before
     @GetMapping("/all/{cafeName}/{cafeAddress}")
-    public List<Pizza> getAllInCafe(@PathVariable String cafeName, @PathVariable String cafeAddress) {
-        return service.getAllInCafe(cafeName, cafeAddress);
+    public ResponseEntity<?> getAllInCafe(@PathVariable String cafeName, @PathVariable String cafeAddress,
+                                          NativeWebRequest request) {
+        return responseCache.respond(request, ResponseBodyCache.MENU, List.of(cafeName, cafeAddress),
+                () -> service.getMenuVersion(cafeName, cafeAddress).toETag("menu"),
+                () -> service.getAllInCafe(cafeName, cafeAddress));
+    }
+
+    // Answered from the in-memory ingredient index; only the returned page of pizzas is loaded
+    @GetMapping("/search")
+    public PizzaSearchResultDTO search(@RequestParam List<String> ingredient,
+                                       @RequestParam(required = false) String city,
+                                       @RequestParam(defaultValue = "ALL") IngredientIndex.Match match,
+                                       @RequestParam(defaultValue = "50") int limit) {
+        return service.searchByIngredients(ingredient, city, match, limit);
+    }
+
+    // Filtered, ordered and counted in the columnar pizza store; only the returned page is loaded
+    @GetMapping("/filter")
+    public PizzaSearchResultDTO filter(@RequestParam(required = false) String size,
+                                       @RequestParam(required = false) String city,
+                                       @RequestParam(required = false) Double minPrice,
+                                       @RequestParam(required = false) Double maxPrice,
+                                       @RequestParam(defaultValue = "ID") PizzaColumnStore.Sort sort,
+                                       @RequestParam(defaultValue = "50") int limit) {
+        return service.filterPizzas(new PizzaColumnStore.Filter(size, city, minPrice, maxPrice), sort, limit);
+    }
+
+    @GetMapping("/price-stats")
+    public List<PizzaPriceStatsDTO> getPriceStats(@RequestParam(required = false) String size,
+                                                  @RequestParam(required = false) String city,
+                                                  @RequestParam(required = false) Double minPrice,
+                                                  @RequestParam(required = false) Double maxPrice,
+                                                  @RequestParam(defaultValue = "NONE") PizzaColumnStore.GroupBy groupBy) {
+        return service.getPriceStats(new PizzaColumnStore.Filter(size, city, minPrice, maxPrice), groupBy);
     }
 
     @GetMapping("/name/{cafeName}/{cafeAddress}/{name}")
-    public Pizza getPizzaByName(@PathVariable String cafeName,
-                                @PathVariable String cafeAddress, @PathVariable String name) {
-        return service.getPizzaByName(cafeName, cafeAddress, name);
+    public PizzaDTO getPizzaByName(@PathVariable String cafeName,
+                                   @PathVariable String cafeAddress, @PathVariable String name) {
+        return service.getPizzaByName(name, cafeName, cafeAddress);
     }
 
     @GetMapping("/id/{cafeName}/{cafeAddress}/{id}")
-    public Pizza getPizzaById(@PathVariable String cafeName,
-                              @PathVariable String cafeAddress, @PathVariable long id){
+    public PizzaDTO getPizzaById(@PathVariable String cafeName,
+                                 @PathVariable String cafeAddress, @PathVariable long id){
         return service.getPizzaById(cafeName, cafeAddress, id);
     }
 
@@ -46,6 +97,17 @@ public class PizzaController {
 
     }
 
+    @PostMapping("/batch/{cafeName}/{cafeAddress}")
+    public ResponseEntity<String> addPizzas(@RequestBody List<Pizza> pizzas,
+                                            @PathVariable String cafeName, @PathVariable String cafeAddress) {
+        try {
+            int added = service.addPizzas(pizzas, cafeName, cafeAddress);
+            return new ResponseEntity<>(added + " pizzas added successfully", HttpStatus.CREATED);
+        } catch (CafeNotFoundException e) {
+            return new ResponseEntity<>("Cafe not found", HttpStatus.NOT_FOUND);
+        }
+    }
+
     @PutMapping("/update/{cafeName}/{cafeAddress}")
     public ResponseEntity<String> updatePizza(@RequestBody Pizza pizza,
                                            @PathVariable String cafeName, @PathVariable String cafeAddress){
@@ -57,10 +119,31 @@ public class PizzaController {
         }
     }
 
+    // Write-behind: the pizza is queued and written later in a batch, poll the returned tracking ID for the outcome
+    @PostMapping("/queue/create/{cafeName}/{cafeAddress}")
+    public ResponseEntity<WriteStatusDTO> queueAddPizza(@RequestBody Pizza pizza,
+                                                        @PathVariable String cafeName, @PathVariable String cafeAddress) {
+        return accepted(writeBehindQueue.submit(PizzaWriteBehindQueue.Operation.ADD, pizza, cafeName, cafeAddress));
+    }
+
+    @PutMapping("/queue/update/{cafeName}/{cafeAddress}")
+    public ResponseEntity<WriteStatusDTO> queueUpdatePizza(@RequestBody Pizza pizza,
+                                                           @PathVariable String cafeName, @PathVariable String cafeAddress) {
+        return accepted(writeBehindQueue.submit(PizzaWriteBehindQueue.Operation.UPDATE, pizza, cafeName, cafeAddress));
+    }
+
+    @GetMapping("/queue/status/{trackingId}")
+    public WriteStatusDTO getWriteStatus(@PathVariable String trackingId) {
+        return writeBehindQueue.getStatus(trackingId);
+    }
+
+    private static ResponseEntity<WriteStatusDTO> accepted(WriteStatusDTO status) {
+        return ResponseEntity.accepted().location(URI.create("/pizza/queue/status/" + status.trackingId())).body(status);
+    }
 
     @DeleteMapping("/delete-pizza-by-name/{cafeName}/{cafeAddress}/{name}")
-    public void deleteByName(@PathVariable String cafeName,
-                             @PathVariable String cafeAddress, @PathVariable String name) {
-        service.deleteByName(cafeName, cafeAddress, name);
+    public DeletedRowsDTO deleteByName(@PathVariable String cafeName,
+                                       @PathVariable String cafeAddress, @PathVariable String name) {
+        return service.deleteByName(cafeName, cafeAddress, name);
     }
 }
@@ -0,0 +1,40 @@
+package com.example.pizza.controller;
+
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.service.interfaces.ReactiveCafeService;
+import com.example.pizza.service.interfaces.ReactivePizzaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+// Non-blocking counterparts of the public read endpoints: the request thread is released while
+// the query runs, and the response is written when the Flux completes
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveCatalogController {
+
+    @Autowired
+    private ReactiveCafeService cafeService;
+
+    @Autowired
+    private ReactivePizzaService pizzaService;
+
+    @GetMapping("/cafe/all")
+    public Flux<CafeDTO> getAllCafes() {
+        return cafeService.getAllCafes();
+    }
+
+    @GetMapping("/cafe/chain/{name}")
+    public Flux<CafeDTO> getCafeChain(@PathVariable String name) {
+        return cafeService.getCafeChain(name);
+    }
+
+    @GetMapping("/pizza/all/{cafeName}/{cafeAddress}")
+    public Flux<PizzaDTO> getAllInCafe(@PathVariable String cafeName, @PathVariable String cafeAddress) {
+        return pizzaService.getAllInCafe(cafeName, cafeAddress);
+    }
+}
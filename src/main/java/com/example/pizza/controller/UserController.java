@@ -1,10 +1,14 @@
 package com.example.pizza.controller;
 
+import com.example.pizza.cache.AuthenticationCache;
+import com.example.pizza.dto.CacheStatsDTO;
 import com.example.pizza.dto.RoleDTO;
 import com.example.pizza.dto.UserDTO;
 import com.example.pizza.service.implementation.UserServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -20,6 +24,9 @@ public class UserController {
     @Autowired
     private final UserServiceImpl userService;
 
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
     public UserController(UserServiceImpl userService) {
         this.userService = userService;
     }
@@ -38,4 +45,10 @@ public class UserController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/auth-cache/stats")
+    public CacheStatsDTO getAuthenticationCacheStats() {
+        return CacheStatsDTO.of(authenticationCache.stats(), authenticationCache.size());
+    }
 }
@@ -0,0 +1,65 @@
+package com.example.pizza.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread flag sending every transaction of the current request to the primary database,
+ * read-only ones included. It is set by the {@link ReadYourWritesFilter} for the requests that
+ * write, and for the requests that follow a write of the same client, so that they read what
+ * was written instead of what a lagging replica still holds.
+ * <p>
+ * The in-process caches pin their loads as well, with {@link #pinned(Supplier)}: they are
+ * invalidated when a write commits, so a load that follows must not refill them from a replica
+ * that has not caught up yet. Only loads that miss reach the database, so hits cost nothing.
+ */
+public final class PrimaryPinning {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private PrimaryPinning() {
+    }
+
+    /**
+     * Pin the current thread to the primary until {@link #clear()}.
+     */
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Release the current thread, at the end of a request.
+     */
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    /**
+     * Run an action pinned to the primary, restoring the previous state of the thread afterwards.
+     * Only transactions started by the action are affected; a read-only transaction that is already
+     * running keeps its connection.
+     *
+     * @param action The action, typically a load filling a cache.
+     * @param <T>    The type of the result.
+     * @return The result of the action.
+     */
+    public static <T> T pinned(Supplier<T> action) {
+        if (isPinned()) {
+            return action.get();
+        }
+        pin();
+        try {
+            return action.get();
+        } finally {
+            clear();
+        }
+    }
+
+    /**
+     * Check whether the current thread is pinned to the primary.
+     *
+     * @return True if read-only transactions of this thread must use the primary.
+     */
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.pizza.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code DataSource} sending read-only transactions to a set of replica pools and everything
+ * else to the primary.
+ * <p>
+ * The route is chosen when a connection is requested, from the read-only flag of the current
+ * Spring transaction. Spring opens the connection of a transaction before it publishes that flag,
+ * so this data source has to be wrapped in a {@link LazyConnectionDataSourceProxy}, which defers
+ * the request to the first statement. Connections requested outside a transaction, in a
+ * read-write transaction, or on a thread pinned by {@link PrimaryPinning} come from the primary.
+ * <p>
+ * Every replica connection is counted until it is closed, so that {@link ReplicaSelection#LEAST_IN_FLIGHT}
+ * can send a read to the replica with the fewest connections in use.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    /**
+     * How a replica is chosen for a read-only transaction.
+     */
+    public enum ReplicaSelection {
+        /**
+         * The replicas take turns.
+         */
+        ROUND_ROBIN,
+        /**
+         * The replica with the fewest connections in use; ties are broken in turn.
+         */
+        LEAST_IN_FLIGHT
+    }
+
+    private final DataSource primary;
+
+    private final DataSource[] replicas;
+
+    private final AtomicInteger[] inFlight;
+
+    private final ReplicaSelection selection;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+                                      ReplicaSelection selection) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.primary = primary;
+        this.replicas = replicas.toArray(new DataSource[0]);
+        this.inFlight = new AtomicInteger[this.replicas.length];
+        for (int i = 0; i < inFlight.length; i++) {
+            inFlight[i] = new AtomicInteger();
+        }
+        this.selection = selection;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!routesToReplica()) {
+            return primary.getConnection();
+        }
+        int replica = selectReplica();
+        inFlight[replica].incrementAndGet();
+        try {
+            return tracked(replica, replicas[replica].getConnection());
+        } catch (SQLException | RuntimeException e) {
+            inFlight[replica].decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!routesToReplica()) {
+            return primary.getConnection(username, password);
+        }
+        int replica = selectReplica();
+        inFlight[replica].incrementAndGet();
+        try {
+            return tracked(replica, replicas[replica].getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            inFlight[replica].decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of connections of a replica currently in use.
+     *
+     * @param replica The index of the replica.
+     * @return The number of open connections obtained from the replica.
+     */
+    public int inFlight(int replica) {
+        return inFlight[replica].get();
+    }
+
+    /**
+     * Closes the replica pools. The primary is managed by its own bean and is left open.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static boolean routesToReplica() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PrimaryPinning.isPinned();
+    }
+
+    private int selectReplica() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.length);
+        if (selection == ReplicaSelection.ROUND_ROBIN) {
+            return start;
+        }
+        int best = start;
+        int bestInFlight = inFlight[start].get();
+        for (int i = 1; i < replicas.length && bestInFlight > 0; i++) {
+            int candidate = (start + i) % replicas.length;
+            int candidateInFlight = inFlight[candidate].get();
+            if (candidateInFlight < bestInFlight) {
+                best = candidate;
+                bestInFlight = candidateInFlight;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Wraps a replica connection so that closing it, once, releases its in-flight count.
+     */
+    private Connection tracked(int replica, Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        inFlight[replica].decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
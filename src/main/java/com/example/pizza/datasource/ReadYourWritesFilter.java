@@ -0,0 +1,79 @@
+package com.example.pizza.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Gives each client read-your-writes consistency on top of the replica routing.
+ * A request with a method that may write ({@code POST}, {@code PUT}, {@code PATCH},
+ * {@code DELETE}) runs pinned to the primary, so its reads and writes see each other, and
+ * answers with a cookie holding the time until which the client stays pinned. Later requests
+ * carrying an unexpired cookie are pinned too, which covers the replication lag after the write.
+ * <p>
+ * The cookie only ever moves a client's reads to the primary, so a forged one costs nothing
+ * but primary load. A zero window pins the writing requests themselves and sets no cookie.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "pizza-primary-until";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration window;
+
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = clock.millis();
+        boolean writes = !READ_METHODS.contains(request.getMethod());
+        if (writes && !window.isZero()) {
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie);
+        }
+        if (!writes && pinnedUntil(request) <= now) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        PrimaryPinning.pin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PrimaryPinning.clear();
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.pizza.domain.authorization;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.util.Objects;
@@ -10,8 +12,11 @@ import java.util.Set;
  * The Role class represents an authority (or role) entity with details such as ID and name.
  * It implements the GrantedAuthority interface, making it suitable for use in Spring Security.
  * It is annotated as an entity to be mapped to a database table named "authority".
+ * Roles are kept in the {@code role} region of the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "role")
 @Table(name = "authority")
 public class Role implements GrantedAuthority {
 
@@ -30,14 +35,10 @@ public class Role implements GrantedAuthority {
     private String name;
 
     /**
-     * The set of users associated with this authority.
+     * The set of users associated with this authority. It is the inverse side of
+     * {@link User#getRoles()} and is loaded lazily, as a role may be shared by any number of users.
      */
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(
-            name = "user_authority",
-            joinColumns = @JoinColumn(name = "authority_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
-    )
+    @ManyToMany(mappedBy = "roles", fetch = FetchType.LAZY)
     private Set<User> users;
 
     /**
@@ -39,9 +39,10 @@ public class User implements UserDetails {
     private String username;
 
     /**
-     * The set of roles associated with this user.
+     * The set of roles associated with this user. It is loaded lazily; authentication reads the
+     * role names with a dedicated query instead.
      */
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_authority",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -1,10 +1,15 @@
 package com.example.pizza.domain.entity;
 
+import com.example.pizza.validation.CapitalizedWords;
+import com.example.pizza.validation.CityName;
+import com.example.pizza.validation.EmailAddress;
+import com.example.pizza.validation.PhoneNumber;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -12,9 +17,12 @@ import java.util.List;
 /**
  * The Cafe class represents a cafe entity with details such as ID, name, city, address, email, phone, and pizzas.
  * It is annotated as an entity to be mapped to a database table named "cafe".
+ * Cafes are kept in the {@code cafe} region of the second-level cache.
  */
 @Entity
-@Table(name = "cafe")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cafe")
+@Table(name = "cafe", indexes = @Index(name = "idx_cafe_name", columnList = "name"))
 public class Cafe {
 
     /**
@@ -31,7 +39,7 @@ public class Cafe {
      */
     @Column(name = "name")
     @NotBlank(message = "Name is required")
-    @Pattern(regexp = "^[A-Z][a-zA-Z\\s]*$")
+    @CapitalizedWords
     private String name;
 
     /**
@@ -41,7 +49,7 @@ public class Cafe {
      */
     @Column(name = "city")
     @NotBlank(message = "Field can not be empty")
-    @Pattern(regexp = "[A-Z][a-z]{2,49}")
+    @CityName
     private String city;
 
 
@@ -50,7 +58,7 @@ public class Cafe {
      * only letters and spaces. It is a required field.
      */
     @Column(name = "address", unique = true)
-    @Pattern(regexp = "^[A-Z][a-zA-Z\\s]*$", message = "Invalid address format")
+    @CapitalizedWords(message = "Invalid address format")
     @Size(max = 255, message = "Address is too long")
     private String address;
 
@@ -61,16 +69,24 @@ public class Cafe {
      */
     @Column(name = "e-mail")
     @NotBlank
-    @Pattern(regexp = "[\\w.]+@[a-zA-Z]+[\\w.]*", message = "Invalid email address format.")
+    @EmailAddress(message = "Invalid email address format.")
     private String email;
 
     /**
      * The phone number of the cafe. It should start with '+' followed by digits.
      */
     @Column(name = "phone")
-    @Pattern(regexp = "\\+\\d+", message = "Phone must start with '+' followed by digits")
+    @PhoneNumber(message = "Phone must start with '+' followed by digits")
     private String phone;
 
+    /**
+     * The version of the cafe, incremented on every update. It guards concurrent updates
+     * and is part of the ETags of the lists the cafe appears in.
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
+
     /**
      * The list of pizzas offered by the cafe.
      */
@@ -161,4 +177,12 @@ public class Cafe {
     public void setPizzas(List<Pizza> pizzas) {
         this.pizzas = pizzas;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
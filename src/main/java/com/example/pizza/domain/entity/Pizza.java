@@ -1,14 +1,20 @@
 package com.example.pizza.domain.entity;
 
+import com.example.pizza.validation.CapitalizedWords;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * The Pizza class represents a pizza entity with details such as ID, name, price, size, ingredients, and the associated cafe.
  * It is annotated as an entity to be mapped to a database table named "pizza".
+ * Pizzas are kept in the {@code pizza} region of the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pizza")
 @Table(name = "pizza")
 public class Pizza {
 
@@ -26,7 +32,7 @@ public class Pizza {
      */
     @Column(name = "name", unique = true)
     @NotBlank(message = "Name is required")
-    @Pattern(regexp = "^[A-Z][a-zA-Z\\s]*$")
+    @CapitalizedWords
     private String name;
 
     /**
@@ -53,6 +59,14 @@ public class Pizza {
     @Size(max = 89)
     private String ingredients;
 
+    /**
+     * The version of the pizza, incremented on every update. It guards concurrent updates
+     * and is part of the ETags of the lists the pizza appears in.
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
+
     /**
      * The cafe associated with the pizza.
      */
@@ -142,4 +156,12 @@ public class Pizza {
     public void setCafe(Cafe cafe) {
         this.cafe = cafe;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.pizza.dto;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Hit and miss counters of an in-process cache.
+ *
+ * @param hitCount  The number of lookups that found a cached value.
+ * @param missCount The number of lookups that did not find a cached value.
+ * @param hitRate   The ratio of hits to lookups, or 1.0 if there have been no lookups.
+ * @param size      The approximate number of cached entries.
+ */
+public record CacheStatsDTO(long hitCount, long missCount, double hitRate, long size) {
+
+    public static CacheStatsDTO of(CacheStats stats, long size) {
+        return new CacheStatsDTO(stats.hitCount(), stats.missCount(), stats.hitRate(), size);
+    }
+}
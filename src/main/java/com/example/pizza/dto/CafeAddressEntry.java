@@ -0,0 +1,13 @@
+package com.example.pizza.dto;
+
+/**
+ * Projection of a cafe onto the fields identifying it, as needed to announce its deletion.
+ */
+public interface CafeAddressEntry {
+
+    long getId();
+
+    String getName();
+
+    String getAddress();
+}
@@ -0,0 +1,11 @@
+package com.example.pizza.dto;
+
+/**
+ * Projection of a cafe onto the fields needed to index it by chain name.
+ */
+public interface CafeChainEntry {
+
+    long getId();
+
+    String getName();
+}
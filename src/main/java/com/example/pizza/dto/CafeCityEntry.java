@@ -0,0 +1,11 @@
+package com.example.pizza.dto;
+
+/**
+ * Projection of a cafe onto the fields needed to filter pizza searches by city.
+ */
+public interface CafeCityEntry {
+
+    long getId();
+
+    String getCity();
+}
@@ -0,0 +1,31 @@
+package com.example.pizza.dto;
+
+import com.example.pizza.domain.entity.Cafe;
+
+/**
+ * Read-only view of a cafe, serialized by the GET endpoints in place of the {@link Cafe} entity.
+ * It is built directly by the projection queries of the {@code CafeRepository}, so reading it
+ * involves no managed entity, and serializes to the same JSON as the entity.
+ *
+ * @param id      The ID of the cafe.
+ * @param name    The name of the cafe.
+ * @param city    The city of the cafe.
+ * @param address The address of the cafe.
+ * @param email   The email of the cafe.
+ * @param phone   The phone number of the cafe.
+ * @param version The version of the cafe.
+ */
+public record CafeDTO(long id, String name, String city, String address, String email, String phone,
+                      long version) {
+
+    /**
+     * Copy the state of a cafe entity.
+     *
+     * @param cafe The cafe.
+     * @return The view of the cafe.
+     */
+    public static CafeDTO of(Cafe cafe) {
+        return new CafeDTO(cafe.getId(), cafe.getName(), cafe.getCity(), cafe.getAddress(), cafe.getEmail(),
+                cafe.getPhone(), cafe.getVersion());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.pizza.dto;
+
+import java.util.List;
+
+/**
+ * The outcome of a bulk cafe import.
+ *
+ * @param imported  The number of cafes inserted.
+ * @param rejected  The number of rows rejected.
+ * @param errors    Why rows were rejected, for at most the first {@code pizza.import.max-reported-errors} of them.
+ * @param truncated Whether more rows were rejected than are listed in {@code errors}.
+ */
+public record CafeImportReportDTO(int imported, int rejected, List<RowError> errors, boolean truncated) {
+
+    /**
+     * The problems found with one row of the import.
+     *
+     * @param row    The 1-based number of the row among the data rows of the input.
+     * @param errors The problems with the row.
+     */
+    public record RowError(long row, List<String> errors) {
+    }
+}
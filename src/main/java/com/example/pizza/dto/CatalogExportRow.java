@@ -0,0 +1,22 @@
+package com.example.pizza.dto;
+
+/**
+ * One row of the catalog export: a cafe joined with one of its pizzas, or with no pizza when the
+ * cafe has none, in which case the pizza fields are null. It is built directly by the export
+ * query of the {@code CafeRepository}.
+ *
+ * @param cafeId      The ID of the cafe.
+ * @param cafeName    The name of the cafe.
+ * @param city        The city of the cafe.
+ * @param address     The address of the cafe.
+ * @param email       The email of the cafe.
+ * @param phone       The phone number of the cafe.
+ * @param pizzaId     The ID of the pizza, or null.
+ * @param pizzaName   The name of the pizza, or null.
+ * @param price       The price of the pizza, or null.
+ * @param size        The size of the pizza, or null.
+ * @param ingredients The ingredients of the pizza, or null.
+ */
+public record CatalogExportRow(long cafeId, String cafeName, String city, String address, String email, String phone,
+                               Long pizzaId, String pizzaName, Double price, String size, String ingredients) {
+}
@@ -0,0 +1,12 @@
+package com.example.pizza.dto;
+
+/**
+ * The number of rows removed by a delete.
+ *
+ * @param cafes  The number of deleted cafes.
+ * @param pizzas The number of deleted pizzas, including those of the deleted cafes.
+ */
+public record DeletedRowsDTO(int cafes, int pizzas) {
+
+    public static final DeletedRowsDTO NONE = new DeletedRowsDTO(0, 0);
+}
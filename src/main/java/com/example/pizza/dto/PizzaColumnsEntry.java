@@ -0,0 +1,15 @@
+package com.example.pizza.dto;
+
+/**
+ * Projection of a pizza onto the fields held by the columnar pizza store.
+ */
+public interface PizzaColumnsEntry {
+
+    long getId();
+
+    double getPrice();
+
+    String getSize();
+
+    long getCafeId();
+}
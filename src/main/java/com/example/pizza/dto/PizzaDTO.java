@@ -0,0 +1,32 @@
+package com.example.pizza.dto;
+
+import com.example.pizza.domain.entity.Pizza;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Read-only view of a pizza, serialized by the GET endpoints in place of the {@link Pizza} entity.
+ * It is built directly by the projection queries of the {@code PizzaRepository}, so reading it
+ * involves no managed entity and no lazy cafe proxy, and serializes to the same JSON as the entity.
+ *
+ * @param id          The ID of the pizza.
+ * @param name        The name of the pizza.
+ * @param price       The price of the pizza.
+ * @param size        The size of the pizza.
+ * @param ingredients The ingredients of the pizza.
+ * @param version     The version of the pizza.
+ * @param cafeId      The ID of the cafe of the pizza, which is not serialized.
+ */
+public record PizzaDTO(long id, String name, double price, String size, String ingredients, long version,
+                       @JsonIgnore long cafeId) {
+
+    /**
+     * Copy the state of a pizza entity. The cafe of the pizza must be set.
+     *
+     * @param pizza The pizza.
+     * @return The view of the pizza.
+     */
+    public static PizzaDTO of(Pizza pizza) {
+        return new PizzaDTO(pizza.getId(), pizza.getName(), pizza.getPrice(), pizza.getSize(),
+                pizza.getIngredients(), pizza.getVersion(), pizza.getCafe().getId());
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pizza.dto;
+
+/**
+ * Projection of a pizza onto the fields needed to index it by ingredient.
+ */
+public interface PizzaIngredientsEntry {
+
+    long getId();
+
+    String getIngredients();
+
+    long getCafeId();
+}
@@ -0,0 +1,13 @@
+package com.example.pizza.dto;
+
+/**
+ * Price statistics of a group of pizzas.
+ *
+ * @param group The size or city the statistics are for, or {@code "all"} when they are not grouped.
+ * @param count The number of pizzas in the group.
+ * @param min   The lowest price, or null if the group is empty.
+ * @param avg   The average price, or null if the group is empty.
+ * @param max   The highest price, or null if the group is empty.
+ */
+public record PizzaPriceStatsDTO(String group, long count, Double min, Double avg, Double max) {
+}
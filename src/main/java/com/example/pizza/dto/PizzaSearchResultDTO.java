@@ -0,0 +1,12 @@
+package com.example.pizza.dto;
+
+import java.util.List;
+
+/**
+ * The result of an ingredient search.
+ *
+ * @param total  The number of pizzas matching the search.
+ * @param pizzas The first matching pizzas, at most as many as requested.
+ */
+public record PizzaSearchResultDTO(int total, List<PizzaDTO> pizzas) {
+}
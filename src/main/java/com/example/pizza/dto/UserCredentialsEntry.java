@@ -0,0 +1,18 @@
+package com.example.pizza.dto;
+
+/**
+ * Projection of a user onto the fields needed to authenticate it, one row per role.
+ */
+public interface UserCredentialsEntry {
+
+    String getUsername();
+
+    String getPassword();
+
+    /**
+     * Get the name of one of the roles of the user.
+     *
+     * @return The role name, or null if the user has no role.
+     */
+    String getRoleName();
+}
@@ -0,0 +1,25 @@
+package com.example.pizza.dto;
+
+/**
+ * Cheap fingerprint of a set of versioned rows, used as the ETag of the list it describes.
+ * IDs only grow and every update bumps a row's version, so any insert, delete or update of a
+ * row in the set changes at least one component.
+ *
+ * @param count      The number of rows.
+ * @param maxId      The highest ID among the rows, or 0 if there are none.
+ * @param idSum      The sum of the IDs of the rows.
+ * @param versionSum The sum of the versions of the rows.
+ */
+public record VersionStamp(long count, long maxId, long idSum, long versionSum) {
+
+    /**
+     * Format the stamp as a strong entity tag.
+     *
+     * @param prefix Distinguishes the tags of different resources.
+     * @return The quoted entity tag.
+     */
+    public String toETag(String prefix) {
+        return "\"" + prefix + '-' + Long.toHexString(count) + '-' + Long.toHexString(maxId) + '-'
+                + Long.toHexString(idSum) + '-' + Long.toHexString(versionSum) + "\"";
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.pizza.dto;
+
+/**
+ * The state of a pizza write accepted by the write-behind queue, polled by its tracking ID.
+ *
+ * @param trackingId The ID the write was acknowledged with.
+ * @param state      Whether the write is still queued, has been committed or has failed.
+ * @param pizzaId    The ID of the added or updated pizza once committed, or null.
+ * @param error      Why the write failed, or null.
+ */
+public record WriteStatusDTO(String trackingId, State state, Long pizzaId, String error) {
+
+    public enum State {
+        QUEUED,
+        DONE,
+        FAILED
+    }
+
+    public static WriteStatusDTO queued(String trackingId) {
+        return new WriteStatusDTO(trackingId, State.QUEUED, null, null);
+    }
+
+    public static WriteStatusDTO done(String trackingId, long pizzaId) {
+        return new WriteStatusDTO(trackingId, State.DONE, pizzaId, null);
+    }
+
+    public static WriteStatusDTO failed(String trackingId, String error) {
+        return new WriteStatusDTO(trackingId, State.FAILED, null, error);
+    }
+}
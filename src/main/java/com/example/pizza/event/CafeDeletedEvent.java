@@ -0,0 +1,11 @@
+package com.example.pizza.event;
+
+/**
+ * Published after a cafe has been deleted, once for every deleted cafe.
+ *
+ * @param cafeId  The ID of the deleted cafe.
+ * @param name    The name of the deleted cafe.
+ * @param address The address of the deleted cafe.
+ */
+public record CafeDeletedEvent(long cafeId, String name, String address) {
+}
@@ -0,0 +1,13 @@
+package com.example.pizza.event;
+
+import com.example.pizza.domain.entity.Cafe;
+
+/**
+ * Published after a cafe has been created or updated.
+ * Listeners receive the saved state of the cafe; the previous name and address are not
+ * carried, so listeners that index cafes by those fields look the old values up by ID.
+ *
+ * @param cafe The cafe as it was saved.
+ */
+public record CafeSavedEvent(Cafe cafe) {
+}
@@ -0,0 +1,11 @@
+package com.example.pizza.event;
+
+/**
+ * Published after a pizza has been removed from a cafe menu, once for every deleted pizza.
+ *
+ * @param pizzaId     The ID of the deleted pizza.
+ * @param cafeName    The name of the cafe the pizza belonged to.
+ * @param cafeAddress The address of the cafe the pizza belonged to.
+ */
+public record PizzaDeletedEvent(long pizzaId, String cafeName, String cafeAddress) {
+}
@@ -0,0 +1,13 @@
+package com.example.pizza.event;
+
+import com.example.pizza.domain.entity.Pizza;
+
+/**
+ * Published after a pizza has been added to or updated in a cafe menu.
+ *
+ * @param pizza       The pizza as it was saved.
+ * @param cafeName    The name of the cafe the pizza belongs to.
+ * @param cafeAddress The address of the cafe the pizza belongs to.
+ */
+public record PizzaSavedEvent(Pizza pizza, String cafeName, String cafeAddress) {
+}
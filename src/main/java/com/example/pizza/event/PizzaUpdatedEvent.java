@@ -0,0 +1,15 @@
+package com.example.pizza.event;
+
+import com.example.pizza.domain.entity.Pizza;
+
+/**
+ * Published after a pizza has been updated in place by a conditional update.
+ * The pizza stays in its cafe, so its cafe is not set; listeners identify the cafe by its name
+ * and address, or keep the one they already know for the pizza.
+ *
+ * @param pizza       The pizza as it was saved, with its new version.
+ * @param cafeName    The name of the cafe the pizza belongs to.
+ * @param cafeAddress The address of the cafe the pizza belongs to.
+ */
+public record PizzaUpdatedEvent(Pizza pizza, String cafeName, String cafeAddress) {
+}
@@ -1,19 +1,49 @@
 package com.example.pizza.exception;
 
 import com.example.pizza.exception.exceptions.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 /**
  * The Advice class is a controller advice that handles exceptions thrown by the application.
  * It uses the @ExceptionHandler annotation to define methods for handling specific exceptions
  * and returning appropriate ResponseEntity objects with error responses.
+ * Every handled exception is counted in the {@code pizza.errors} counter tagged with its type.
  */
 @ControllerAdvice
 public class Advice {
 
+    static final String ERRORS_METRIC = "pizza.errors";
+
+    /**
+     * Error counters by handled exception type, registered up front so that counting an error
+     * is a map lookup and an increment.
+     */
+    private final Map<Class<? extends RuntimeException>, Counter> errorCounters;
+
+    public Advice(MeterRegistry meterRegistry) {
+        List<Class<? extends RuntimeException>> handled = List.of(
+                CafeNotFoundException.class, EmptyCafeListException.class, EmptyPizzaListException.class,
+                IdNotFoundException.class, PizzaNotFoundException.class, InvalidPizzaBatchException.class,
+                InvalidImportException.class, SearchUnavailableException.class, VersionConflictException.class,
+                WriteQueueUnavailableException.class);
+        this.errorCounters = handled.stream().collect(Collectors.toUnmodifiableMap(
+                type -> type,
+                type -> Counter.builder(ERRORS_METRIC)
+                        .description("Exceptions handled by the controller advice")
+                        .tag("exception", type.getSimpleName())
+                        .register(meterRegistry)));
+    }
+
     /**
      * Handles CafeNotFoundException and returns a ResponseEntity with a NOT_FOUND status and a custom error response.
      *
@@ -22,6 +52,7 @@ public class Advice {
      */
     @ExceptionHandler(CafeNotFoundException.class)
     public ResponseEntity<Response> handleException(CafeNotFoundException e) {
+        errorCounters.get(CafeNotFoundException.class).increment();
         Response response = new Response(e.getMessage());
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
@@ -34,6 +65,7 @@ public class Advice {
      */
     @ExceptionHandler(EmptyCafeListException.class)
     public ResponseEntity<Response> handleException(EmptyCafeListException e) {
+        errorCounters.get(EmptyCafeListException.class).increment();
         Response response = new Response(e.getMessage());
         return new ResponseEntity<>(response, HttpStatus.NO_CONTENT);
     }
@@ -46,6 +78,7 @@ public class Advice {
      */
     @ExceptionHandler(EmptyPizzaListException.class)
     public ResponseEntity<Response> handleException(EmptyPizzaListException e){
+        errorCounters.get(EmptyPizzaListException.class).increment();
         Response response = new Response(e.getMessage());
         return new ResponseEntity<>(response, HttpStatus.NO_CONTENT);
     }
@@ -58,6 +91,7 @@ public class Advice {
      */
     @ExceptionHandler(IdNotFoundException.class)
     public ResponseEntity<Response> handleException(IdNotFoundException e){
+        errorCounters.get(IdNotFoundException.class).increment();
         Response response = new Response(e.getMessage());
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
@@ -70,7 +104,74 @@ public class Advice {
      */
     @ExceptionHandler(PizzaNotFoundException.class)
     public ResponseEntity<Response> handleException(PizzaNotFoundException e){
+        errorCounters.get(PizzaNotFoundException.class).increment();
         Response response = new Response(e.getMessage());
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
+
+    /**
+     * Handles InvalidPizzaBatchException and returns a ResponseEntity with a BAD_REQUEST status and a custom error response.
+     *
+     * @param e The exception thrown when a batch of pizzas fails validation.
+     * @return ResponseEntity with a custom error response and BAD_REQUEST status.
+     */
+    @ExceptionHandler(InvalidPizzaBatchException.class)
+    public ResponseEntity<Response> handleException(InvalidPizzaBatchException e){
+        errorCounters.get(InvalidPizzaBatchException.class).increment();
+        Response response = new Response(e.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidImportException and returns a ResponseEntity with a BAD_REQUEST status and a custom error response.
+     *
+     * @param e The exception thrown when an import cannot be read at all.
+     * @return ResponseEntity with a custom error response and BAD_REQUEST status.
+     */
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<Response> handleException(InvalidImportException e){
+        errorCounters.get(InvalidImportException.class).increment();
+        Response response = new Response(e.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles SearchUnavailableException and returns a ResponseEntity with a SERVICE_UNAVAILABLE status and a custom error response.
+     *
+     * @param e The exception thrown when the ingredient index cannot serve a search.
+     * @return ResponseEntity with a custom error response and SERVICE_UNAVAILABLE status.
+     */
+    @ExceptionHandler(SearchUnavailableException.class)
+    public ResponseEntity<Response> handleException(SearchUnavailableException e){
+        errorCounters.get(SearchUnavailableException.class).increment();
+        Response response = new Response(e.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles VersionConflictException and returns a ResponseEntity with a CONFLICT status and a custom error response.
+     *
+     * @param e The exception thrown when an update was based on a stale version.
+     * @return ResponseEntity with a custom error response and CONFLICT status.
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Response> handleException(VersionConflictException e){
+        errorCounters.get(VersionConflictException.class).increment();
+        Response response = new Response(e.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles WriteQueueUnavailableException and returns a ResponseEntity with a SERVICE_UNAVAILABLE status,
+     * a Retry-After header and a custom error response.
+     *
+     * @param e The exception thrown when the write-behind queue cannot accept a write.
+     * @return ResponseEntity with a custom error response and SERVICE_UNAVAILABLE status.
+     */
+    @ExceptionHandler(WriteQueueUnavailableException.class)
+    public ResponseEntity<Response> handleException(WriteQueueUnavailableException e){
+        errorCounters.get(WriteQueueUnavailableException.class).increment();
+        Response response = new Response(e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.pizza.exception.exceptions;
+
+public class InvalidPizzaBatchException extends RuntimeException {
+
+    public InvalidPizzaBatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.pizza.exception.exceptions;
+
+public class SearchUnavailableException extends RuntimeException {
+
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.pizza.exception.exceptions;
+
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
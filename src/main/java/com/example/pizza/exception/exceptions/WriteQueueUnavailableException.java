@@ -0,0 +1,8 @@
+package com.example.pizza.exception.exceptions;
+
+public class WriteQueueUnavailableException extends RuntimeException {
+
+    public WriteQueueUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.pizza.index;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeChainEntry;
+import com.example.pizza.event.CafeDeletedEvent;
+import com.example.pizza.event.CafeSavedEvent;
+import com.example.pizza.repository.CafeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process index from cafe chain name to the IDs of the cafes in that chain.
+ * The index is loaded once when the application is ready and then kept current by the
+ * {@link CafeSavedEvent} and {@link CafeDeletedEvent} events published by the cafe service.
+ * It is disabled by default and switched on with {@code pizza.cafe.chain-index.enabled=true}.
+ * Until it is loaded, {@link #isReady()} returns {@code false} and callers query the database.
+ */
+@Component
+public class CafeChainIndex {
+
+    /**
+     * Cafe IDs grouped by chain name.
+     */
+    private final Map<String, Set<Long>> idsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Chain name of every indexed cafe, used to move a cafe when it is renamed or deleted.
+     */
+    private final Map<Long, String> nameById = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes the loading of the index with the updates made by event listeners.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean enabled;
+
+    private volatile boolean ready;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    public CafeChainIndex(@Value("${pizza.cafe.chain-index.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check whether the index is enabled and has been loaded.
+     *
+     * @return True if lookups can be served from the index, false otherwise.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Get the IDs of the cafes forming the chain with the given name.
+     *
+     * @param name The name of the cafe chain.
+     * @return The IDs of the cafes in the chain, or an empty set if there is no such chain.
+     */
+    public Set<Long> getCafeIds(String name) {
+        Set<Long> ids = idsByName.get(name);
+        return ids == null ? Set.of() : Set.copyOf(ids);
+    }
+
+    /**
+     * Loads the index from the database once the application has started, if it is enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            List<CafeChainEntry> entries = cafeRepository.findAllBy();
+            for (CafeChainEntry entry : entries) {
+                put(entry.getId(), entry.getName());
+            }
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a created or updated cafe under its current chain name.
+     *
+     * @param event The event describing the saved cafe.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeSaved(CafeSavedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Cafe cafe = event.cafe();
+        lock.lock();
+        try {
+            remove(cafe.getId());
+            put(cafe.getId(), cafe.getName());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted cafe from its chain.
+     *
+     * @param event The event describing the deleted cafe.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeDeleted(CafeDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            remove(event.cafeId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(long id, String name) {
+        nameById.put(id, name);
+        idsByName.computeIfAbsent(name, key -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private void remove(long id) {
+        String name = nameById.remove(id);
+        if (name != null) {
+            idsByName.computeIfPresent(name, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
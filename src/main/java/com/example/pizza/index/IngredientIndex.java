@@ -0,0 +1,592 @@
+package com.example.pizza.index;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.CafeCityEntry;
+import com.example.pizza.dto.PizzaIngredientsEntry;
+import com.example.pizza.event.CafeDeletedEvent;
+import com.example.pizza.event.CafeSavedEvent;
+import com.example.pizza.event.PizzaDeletedEvent;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.event.PizzaUpdatedEvent;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index from ingredient to the pizzas containing it.
+ * Every indexed pizza gets a dense ordinal, and every ingredient token maps to a posting list:
+ * a sorted array of the ordinals of the pizzas whose ingredients contain that token. Queries
+ * intersect or merge these arrays and filter the result by a live bit set and, optionally, by
+ * the dictionary-encoded city of the cafe, so they touch no objects other than primitive arrays.
+ * <p>
+ * Writes never rewrite a posting list in the middle. A saved pizza retires its old ordinal and
+ * is appended under a new, larger one, so posting lists stay sorted by construction; retired
+ * ordinals are dropped by a compaction once they outnumber the live ones.
+ * <p>
+ * The index is loaded once when the application is ready and then kept current by the pizza
+ * and cafe events. It is enabled by default and switched off with
+ * {@code pizza.search.ingredient-index.enabled=false}. Until it is loaded, {@link #isReady()}
+ * returns {@code false}.
+ */
+@Component
+public class IngredientIndex {
+
+    /**
+     * How the ingredients of a search are combined.
+     */
+    public enum Match {
+        /**
+         * A pizza must contain every ingredient.
+         */
+        ALL,
+        /**
+         * A pizza must contain at least one of the ingredients.
+         */
+        ANY
+    }
+
+    /**
+     * The result of a search.
+     *
+     * @param total    The number of matching pizzas.
+     * @param pizzaIds The IDs of the first matching pizzas, at most as many as requested.
+     */
+    public record Hits(int total, List<Long> pizzaIds) {
+
+        static final Hits NONE = new Hits(0, List.of());
+    }
+
+    private static final Pattern NON_LETTERS = Pattern.compile("[^\\p{L}]+");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final int[] NO_ORDINALS = new int[0];
+
+    private static final int NO_CITY = -1;
+
+    /**
+     * Retired ordinals are only compacted away once there are at least this many of them.
+     */
+    private static final int MIN_COMPACTION = 1024;
+
+    /**
+     * Posting list of every ingredient token.
+     */
+    private final Map<String, IntList> postings = new HashMap<>();
+
+    /**
+     * Pizza ID by ordinal.
+     */
+    private long[] pizzaIds = new long[1024];
+
+    /**
+     * Cafe ordinal of the pizza at every ordinal.
+     */
+    private int[] cafeOrdinals = new int[1024];
+
+    /**
+     * The number of pizza ordinals handed out, live or retired.
+     */
+    private int ordinals;
+
+    /**
+     * The ordinals whose pizzas are still current.
+     */
+    private final BitSet live = new BitSet();
+
+    private int liveCount;
+
+    private final Map<Long, Integer> ordinalByPizzaId = new HashMap<>();
+
+    private final Map<Long, Integer> cafeOrdinalById = new HashMap<>();
+
+    /**
+     * City code of the cafe at every cafe ordinal.
+     */
+    private int[] cityByCafeOrdinal = new int[64];
+
+    private int cafeCount;
+
+    /**
+     * Dictionary of normalized city names.
+     */
+    private final Map<String, Integer> cityCodes = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final boolean enabled;
+
+    private volatile boolean ready;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public IngredientIndex(@Value("${pizza.search.ingredient-index.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check whether the index is enabled and has been loaded.
+     *
+     * @return True if searches can be served from the index, false otherwise.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Find the pizzas containing the given ingredients. Every ingredient is tokenized as the
+     * pizza ingredients are, and a pizza contains an ingredient when it contains all of its
+     * tokens, so {@code "olive oil"} does not match a pizza with olives but no oil.
+     *
+     * @param ingredients The ingredients to search for.
+     * @param city        The city the cafe of a pizza must be in, or null for any city.
+     * @param match       Whether a pizza must contain all or any of the ingredients.
+     * @param limit       The maximum number of pizza IDs to return.
+     * @return The number of matching pizzas and the IDs of the first {@code limit} of them, in index order.
+     */
+    public Hits search(Collection<String> ingredients, String city, Match match, int limit) {
+        List<Set<String>> terms = new ArrayList<>();
+        for (String ingredient : ingredients) {
+            Set<String> tokens = tokenize(ingredient);
+            if (!tokens.isEmpty()) {
+                terms.add(tokens);
+            }
+        }
+        if (terms.isEmpty()) {
+            return Hits.NONE;
+        }
+        lock.readLock().lock();
+        try {
+            int cityCode = NO_CITY;
+            if (city != null && !city.isBlank()) {
+                Integer code = cityCodes.get(normalizeCity(city));
+                if (code == null) {
+                    return Hits.NONE;
+                }
+                cityCode = code;
+            }
+            int[] matches = null;
+            for (Set<String> tokens : terms) {
+                int[] termMatches = containingAll(tokens);
+                if (matches == null) {
+                    matches = termMatches;
+                } else if (match == Match.ALL) {
+                    matches = intersect(matches, matches.length, termMatches, termMatches.length);
+                } else {
+                    matches = union(matches, termMatches);
+                }
+                if (match == Match.ALL && matches.length == 0) {
+                    return Hits.NONE;
+                }
+            }
+            return collect(matches, cityCode, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the index from the database once the application has started, if it is enabled.
+     * Only the IDs, ingredients and cafe IDs of the pizzas and the IDs and cities of the cafes
+     * are read, the pizzas from a forward-only cursor in one read-only transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        lock.writeLock().lock();
+        try {
+            transaction.executeWithoutResult(status -> {
+                for (CafeCityEntry cafe : cafeRepository.findCitiesBy()) {
+                    putCafe(cafe.getId(), cafe.getCity());
+                }
+                try (Stream<PizzaIngredientsEntry> pizzas = pizzaRepository.streamIngredientEntries()) {
+                    pizzas.forEach(pizza -> put(pizza.getId(), pizza.getIngredients(), pizza.getCafeId()));
+                }
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeSaved(CafeSavedEvent event) {
+        Cafe cafe = event.cafe();
+        update(() -> putCafe(cafe.getId(), cafe.getCity()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeDeleted(CafeDeletedEvent event) {
+        update(() -> removeCafe(event.cafeId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaSaved(PizzaSavedEvent event) {
+        Pizza pizza = event.pizza();
+        update(() -> put(pizza.getId(), pizza.getIngredients(), pizza.getCafe().getId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaUpdated(PizzaUpdatedEvent event) {
+        Pizza pizza = event.pizza();
+        update(() -> putIngredients(pizza.getId(), pizza.getIngredients()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPizzaDeleted(PizzaDeletedEvent event) {
+        update(() -> remove(event.pizzaId()));
+    }
+
+    /**
+     * Applies a write under the write lock. A write arriving while the index is being loaded
+     * waits for the load and is applied after it. A write that takes the lock before the load
+     * is skipped, as it was committed before the load's transaction began and is read by it.
+     */
+    private void update(Runnable write) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                write.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a pizza under a new ordinal, retiring the ordinal it was indexed under before.
+     */
+    void put(long pizzaId, String ingredients, long cafeId) {
+        retire(pizzaId);
+        append(pizzaId, ingredients, cafeOrdinal(cafeId));
+        compactIfSparse();
+    }
+
+    /**
+     * Re-indexes the ingredients of a pizza updated in place, keeping its cafe.
+     * A pizza that is not indexed is skipped.
+     */
+    void putIngredients(long pizzaId, String ingredients) {
+        Integer previous = ordinalByPizzaId.get(pizzaId);
+        if (previous == null) {
+            return;
+        }
+        int cafeOrdinal = cafeOrdinals[previous];
+        retire(pizzaId);
+        append(pizzaId, ingredients, cafeOrdinal);
+        compactIfSparse();
+    }
+
+    /**
+     * Get the number of pizza ordinals handed out, live or retired.
+     */
+    int ordinalCount() {
+        return ordinals;
+    }
+
+    private void append(long pizzaId, String ingredients, int cafeOrdinal) {
+        int ordinal = ordinals++;
+        if (ordinal == pizzaIds.length) {
+            pizzaIds = Arrays.copyOf(pizzaIds, ordinal * 2);
+            cafeOrdinals = Arrays.copyOf(cafeOrdinals, ordinal * 2);
+        }
+        pizzaIds[ordinal] = pizzaId;
+        cafeOrdinals[ordinal] = cafeOrdinal;
+        ordinalByPizzaId.put(pizzaId, ordinal);
+        live.set(ordinal);
+        liveCount++;
+        for (String token : tokenize(ingredients)) {
+            postings.computeIfAbsent(token, key -> new IntList()).add(ordinal);
+        }
+    }
+
+    void remove(long pizzaId) {
+        retire(pizzaId);
+        compactIfSparse();
+    }
+
+    /**
+     * Records the city of a created or updated cafe, which moves all of its pizzas at once.
+     */
+    void putCafe(long cafeId, String city) {
+        int code = cityCodes.computeIfAbsent(normalizeCity(city), key -> cityCodes.size());
+        cityByCafeOrdinal[cafeOrdinal(cafeId)] = code;
+    }
+
+    /**
+     * Retires every pizza of a deleted cafe.
+     */
+    void removeCafe(long cafeId) {
+        Integer cafeOrdinal = cafeOrdinalById.remove(cafeId);
+        if (cafeOrdinal == null) {
+            return;
+        }
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            if (cafeOrdinals[ordinal] == cafeOrdinal) {
+                retire(pizzaIds[ordinal]);
+            }
+        }
+        compactIfSparse();
+    }
+
+    private void retire(long pizzaId) {
+        Integer ordinal = ordinalByPizzaId.remove(pizzaId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+            liveCount--;
+        }
+    }
+
+    private int cafeOrdinal(long cafeId) {
+        Integer existing = cafeOrdinalById.get(cafeId);
+        if (existing != null) {
+            return existing;
+        }
+        int cafeOrdinal = cafeCount++;
+        if (cafeOrdinal == cityByCafeOrdinal.length) {
+            cityByCafeOrdinal = Arrays.copyOf(cityByCafeOrdinal, cafeOrdinal * 2);
+        }
+        cityByCafeOrdinal[cafeOrdinal] = NO_CITY;
+        cafeOrdinalById.put(cafeId, cafeOrdinal);
+        return cafeOrdinal;
+    }
+
+    /**
+     * Renumbers the live pizzas densely once the retired ordinals outnumber them. The renumbering
+     * keeps the order of the ordinals, so every posting list stays sorted.
+     */
+    private void compactIfSparse() {
+        int retired = ordinals - liveCount;
+        if (retired < MIN_COMPACTION || retired < liveCount) {
+            return;
+        }
+        int[] renumbered = new int[ordinals];
+        int next = 0;
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            renumbered[ordinal] = next;
+            pizzaIds[next] = pizzaIds[ordinal];
+            cafeOrdinals[next] = cafeOrdinals[ordinal];
+            next++;
+        }
+        Iterator<IntList> lists = postings.values().iterator();
+        while (lists.hasNext()) {
+            IntList list = lists.next();
+            int size = 0;
+            for (int i = 0; i < list.size; i++) {
+                int ordinal = list.values[i];
+                if (live.get(ordinal)) {
+                    list.values[size++] = renumbered[ordinal];
+                }
+            }
+            if (size == 0) {
+                lists.remove();
+            } else {
+                list.size = size;
+            }
+        }
+        ordinalByPizzaId.replaceAll((pizzaId, ordinal) -> renumbered[ordinal]);
+        live.clear();
+        live.set(0, next);
+        ordinals = next;
+    }
+
+    /**
+     * Get the ordinals of the pizzas containing every token, intersecting the posting lists from
+     * the shortest one up.
+     */
+    private int[] containingAll(Set<String> tokens) {
+        List<IntList> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            IntList list = postings.get(token);
+            if (list == null) {
+                return NO_ORDINALS;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        IntList shortest = lists.get(0);
+        int[] result = Arrays.copyOf(shortest.values, shortest.size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, result.length, lists.get(i).values, lists.get(i).size);
+        }
+        return result;
+    }
+
+    private Hits collect(int[] matches, int cityCode, int limit) {
+        int total = 0;
+        List<Long> ids = new ArrayList<>(Math.min(limit, matches.length));
+        for (int ordinal : matches) {
+            if (live.get(ordinal)
+                    && (cityCode == NO_CITY || cityByCafeOrdinal[cafeOrdinals[ordinal]] == cityCode)) {
+                total++;
+                if (ids.size() < limit) {
+                    ids.add(pizzaIds[ordinal]);
+                }
+            }
+        }
+        return new Hits(total, List.copyOf(ids));
+    }
+
+    /**
+     * Intersects two sorted arrays by galloping through the second one, so that a short list
+     * is intersected with a long one in time proportional to the short one times a logarithm.
+     */
+    static int[] intersect(int[] a, int aSize, int[] b, int bSize) {
+        if (aSize > bSize) {
+            return intersect(b, bSize, a, aSize);
+        }
+        int[] result = new int[aSize];
+        int size = 0;
+        int position = 0;
+        for (int i = 0; i < aSize && position < bSize; i++) {
+            position = advance(b, position, bSize, a[i]);
+            if (position < bSize && b[position] == a[i]) {
+                result[size++] = a[i];
+            }
+        }
+        return size == aSize ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Get the index of the first element not less than {@code value}, searching from {@code from}
+     * in exponentially growing steps and then by bisection.
+     */
+    private static int advance(int[] values, int from, int size, int value) {
+        int low = from;
+        int high = from;
+        int step = 1;
+        while (high < size && values[high] < value) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(values, low, Math.min(high, size), value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[size++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[size++] = b[j++];
+            } else {
+                result[size++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[size++] = a[i++];
+        }
+        while (j < b.length) {
+            result[size++] = b[j++];
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Split ingredients into normalized tokens: accents are stripped, letters lower-cased,
+     * anything that is not a letter separates tokens, and regular English plurals are reduced
+     * to the singular, so {@code "Jalapeños, Tomatoes"} yields {@code jalapeno} and {@code tomato}.
+     *
+     * @param ingredients The ingredients as written on the menu.
+     * @return The distinct tokens, in order of appearance.
+     */
+    static Set<String> tokenize(String ingredients) {
+        if (ingredients == null) {
+            return Set.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(ingredients, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : NON_LETTERS.split(folded)) {
+            if (!word.isEmpty()) {
+                tokens.add(singular(word));
+            }
+        }
+        return tokens;
+    }
+
+    private static String singular(String word) {
+        int length = word.length();
+        if (length <= 3) {
+            return word;
+        }
+        if (word.endsWith("ies") && length > 4) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("xes") || word.endsWith("ches")
+                || word.endsWith("shes") || word.endsWith("sses")) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+
+    private static String normalizeCity(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Growable array of ordinals, appended to in increasing order.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.pizza.ingest;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeImportReportDTO;
+import com.example.pizza.event.CafeSavedEvent;
+import com.example.pizza.exception.exceptions.InvalidImportException;
+import com.example.pizza.repository.CafeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of cafes from a CSV or NDJSON body, read as it arrives.
+ * <p>
+ * Rows are read in chunks of {@code pizza.import.batch-size}. The rows of a chunk are checked in
+ * parallel against the Bean Validation constraints of {@link Cafe}; their addresses are then
+ * checked against each other and against the stored cafes, which include the chunks already
+ * imported. The valid rows of a chunk are inserted in one transaction with JDBC batching, and
+ * a {@code CafeSavedEvent} is published for each, so caches and indexes follow after commit.
+ * If that transaction fails anyway, for instance on an address taken concurrently, the rows
+ * of the chunk are retried one transaction each.
+ * <p>
+ * Only one chunk and one row of input are held in memory at a time, a row being limited to
+ * {@code pizza.import.max-row-length} characters, and the report lists the errors of at most
+ * {@code pizza.import.max-reported-errors} rows, so the memory used does not depend on the size
+ * of the input.
+ * <p>
+ * A CSV body starts with a header naming the {@code name}, {@code city}, {@code address},
+ * {@code email} and {@code phone} columns in any order; other columns are ignored, and an empty
+ * unquoted field is read as a missing value. An NDJSON body holds one cafe as JSON per line.
+ */
+@Component
+public class CafeImporter {
+
+    /**
+     * The format of an import body.
+     */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * A row read from the input: the parsed cafe, or why it could not be parsed.
+     */
+    private record Row(long number, Cafe cafe, String parseError) {
+    }
+
+    /**
+     * Reads the rows of an input one at a time.
+     */
+    private interface RowSource {
+
+        /**
+         * @return The next row, or null at the end of the input.
+         */
+        Row next() throws IOException;
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "city", "address", "email", "phone");
+
+    private final int batchSize;
+
+    private final int maxRowLength;
+
+    private final int maxReportedErrors;
+
+    private final ObjectReader cafeReader;
+
+    private final TransactionTemplate transaction;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Validator validator;
+
+    public CafeImporter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                        @Value("${pizza.import.batch-size:500}") int batchSize,
+                        @Value("${pizza.import.max-row-length:8192}") int maxRowLength,
+                        @Value("${pizza.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.cafeReader = objectMapper.readerFor(Cafe.class);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxRowLength = maxRowLength;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Import the cafes of a CSV or NDJSON body.
+     * Invalid rows are reported and skipped; the valid ones are imported.
+     *
+     * @param body   The body, encoded in UTF-8.
+     * @param format The format of the body.
+     * @return The number of imported and rejected rows, and why rows were rejected.
+     * @throws InvalidImportException If the CSV header lacks a column, or a row is too long or malformed
+     *                                so that the rest of the input cannot be read.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public CafeImportReportDTO importCafes(InputStream body, Format format) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource rows = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+        Report report = new Report();
+        List<Row> chunk = new ArrayList<>(batchSize);
+        for (Row row = rows.next(); row != null; row = rows.next()) {
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+        return new CafeImportReportDTO(report.imported, report.rejected, report.errors,
+                report.rejected > report.errors.size());
+    }
+
+    private RowSource csvRows(Reader reader) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader, maxRowLength);
+        List<String> header = records.next();
+        if (header == null) {
+            throw new InvalidImportException("The CSV header is missing");
+        }
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = header.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new InvalidImportException("The CSV header has no '" + CSV_COLUMNS.get(i) + "' column");
+            }
+        }
+        long[] number = {0};
+        return () -> {
+            List<String> fields = records.next();
+            if (fields == null) {
+                return null;
+            }
+            number[0]++;
+            if (fields.size() != header.size()) {
+                return new Row(number[0], null,
+                        "Expected " + header.size() + " fields but found " + fields.size());
+            }
+            Cafe cafe = new Cafe(fields.get(columns[0]), fields.get(columns[1]), fields.get(columns[3]),
+                    fields.get(columns[4]), fields.get(columns[2]));
+            return new Row(number[0], cafe, null);
+        };
+    }
+
+    private RowSource ndjsonRows(Reader reader) {
+        long[] number = {0};
+        return () -> {
+            String line;
+            do {
+                line = readLine(reader);
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            number[0]++;
+            try {
+                Cafe cafe = cafeReader.readValue(line);
+                if (cafe == null) {
+                    return new Row(number[0], null, "Expected a cafe but found null");
+                }
+                return new Row(number[0], cafe, null);
+            } catch (JsonProcessingException e) {
+                return new Row(number[0], null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    /**
+     * Read one line of at most {@code maxRowLength} characters, without its line terminator.
+     */
+    private String readLine(Reader reader) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) >= 0 && c != '\n') {
+            if (line.length() == maxRowLength) {
+                throw new InvalidImportException("Line is longer than " + maxRowLength + " characters");
+            }
+            line.append((char) c);
+        }
+        if (c < 0 && line.isEmpty()) {
+            return null;
+        }
+        int end = line.length();
+        return end > 0 && line.charAt(end - 1) == '\r' ? line.substring(0, end - 1) : line.toString();
+    }
+
+    /**
+     * Check the rows of a chunk and insert the valid ones.
+     */
+    private void importChunk(List<Row> chunk, Report report) {
+        List<List<String>> errors = chunk.parallelStream().map(this::validate).toList();
+
+        Map<String, Row> byAddress = new HashMap<>();
+        Map<Row, List<String>> rejected = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            if (!errors.get(i).isEmpty()) {
+                rejected.put(row, errors.get(i));
+            } else if (row.cafe().getAddress() != null && byAddress.putIfAbsent(row.cafe().getAddress(), row) != null) {
+                rejected.put(row, List.of("address: duplicate address in import"));
+            }
+        }
+        if (!byAddress.isEmpty()) {
+            for (String address : cafeRepository.findExistingAddresses(byAddress.keySet())) {
+                rejected.put(byAddress.get(address), List.of("Cafe with address '" + address + "' already exists"));
+            }
+        }
+
+        List<Cafe> valid = new ArrayList<>(chunk.size() - rejected.size());
+        for (Row row : chunk) {
+            List<String> rowErrors = rejected.get(row);
+            if (rowErrors != null) {
+                report.reject(row, rowErrors);
+            } else {
+                valid.add(row.cafe());
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            insert(valid);
+            report.imported += valid.size();
+        } catch (RuntimeException e) {
+            // Retry one by one, so that only the rows the chunk failed on are rejected
+            for (Row row : chunk) {
+                if (rejected.containsKey(row)) {
+                    continue;
+                }
+                try {
+                    insert(List.of(row.cafe()));
+                    report.imported++;
+                } catch (RuntimeException rowFailure) {
+                    report.reject(row, List.of(NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage()));
+                }
+            }
+        }
+    }
+
+    private List<String> validate(Row row) {
+        if (row.parseError() != null) {
+            return List.of(row.parseError());
+        }
+        Set<ConstraintViolation<Cafe>> violations = validator.validate(row.cafe());
+        List<String> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<Cafe> violation : violations) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return errors;
+    }
+
+    private void insert(List<Cafe> cafes) {
+        transaction.executeWithoutResult(status -> {
+            cafeRepository.insertAll(cafes);
+            for (Cafe cafe : cafes) {
+                eventPublisher.publishEvent(new CafeSavedEvent(cafe));
+            }
+        });
+    }
+
+    /**
+     * The counts and the reported errors of an import in progress.
+     */
+    private class Report {
+
+        private int imported;
+
+        private int rejected;
+
+        private final List<CafeImportReportDTO.RowError> errors = new ArrayList<>();
+
+        private void reject(Row row, List<String> rowErrors) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new CafeImportReportDTO.RowError(row.number(), rowErrors));
+            }
+        }
+    }
+}
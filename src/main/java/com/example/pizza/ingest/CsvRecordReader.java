@@ -0,0 +1,112 @@
+package com.example.pizza.ingest;
+
+import com.example.pizza.exception.exceptions.InvalidImportException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time. Fields may be quoted with {@code "}, a quote inside a
+ * quoted field is doubled, and quoted fields may span lines. Records end with {@code \n} or
+ * {@code \r\n}; blank lines are skipped. An empty field is read as null unless it is quoted, so
+ * {@code a,,b} has a null field where {@code a,"",b} has an empty one. Only the current record is held in memory, and a record
+ * longer than the given limit is rejected, so reading any input takes bounded memory.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+
+    private final int maxRecordLength;
+
+    private int pending = -2;
+
+    CsvRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return The fields of the record, null for the empty unquoted ones, or null at the end of the input.
+     * @throws InvalidImportException If the record is longer than the limit or a quoted field is not closed.
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        boolean empty = true;
+        int length = 0;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (quoted) {
+                    throw new InvalidImportException("Unterminated quoted field at the end of the input");
+                }
+                if (empty) {
+                    return null;
+                }
+                fields.add(value(field, wasQuoted));
+                return fields;
+            }
+            if (++length > maxRecordLength) {
+                throw new InvalidImportException("Record is longer than " + maxRecordLength + " characters");
+            }
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                } else if (peek() == '"') {
+                    read();
+                    field.append('"');
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+                empty = false;
+            } else if (c == ',') {
+                fields.add(value(field, wasQuoted));
+                field.setLength(0);
+                wasQuoted = false;
+                empty = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (empty) {
+                    length = 0;
+                    continue;
+                }
+                fields.add(value(field, wasQuoted));
+                return fields;
+            } else {
+                field.append((char) c);
+                empty = false;
+            }
+        }
+    }
+
+    private static String value(StringBuilder field, boolean quoted) {
+        return field.isEmpty() && !quoted ? null : field.toString();
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (pending == -2) {
+            pending = reader.read();
+        }
+        return pending;
+    }
+}
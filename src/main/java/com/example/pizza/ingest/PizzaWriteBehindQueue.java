@@ -0,0 +1,410 @@
+package com.example.pizza.ingest;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.WriteStatusDTO;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.event.PizzaUpdatedEvent;
+import com.example.pizza.exception.exceptions.IdNotFoundException;
+import com.example.pizza.exception.exceptions.WriteQueueUnavailableException;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind queue for pizza additions and updates, for bulk menu syncs that would otherwise
+ * hold a request thread for every single-row transaction.
+ * <p>
+ * An accepted write is acknowledged with a tracking ID right away and put in a bounded queue. A
+ * full queue is backpressure: the write waits up to {@code pizza.write-behind.offer-timeout} for
+ * room and is then rejected, so the client retries later. A single writer thread takes up to
+ * {@code pizza.write-behind.batch-size} writes at a time, groups them by cafe and applies each
+ * group in one transaction: the cafe is looked up once, consecutive additions are inserted with
+ * JDBC batching, and updates use the same conditional statement as {@code PizzaService#updatePizza}.
+ * A write that fails its checks is marked as failed without affecting the others; if a group's
+ * transaction fails anyway, its writes are retried one transaction each. The usual pizza events
+ * are published, so caches and indexes follow after commit.
+ * <p>
+ * The state of every write is kept for {@code pizza.write-behind.status-ttl} to be polled by its
+ * tracking ID. On shutdown the queue stops accepting writes after the web server has stopped, and
+ * the writer drains it before the data source is closed, so no acknowledged write is dropped.
+ * The queue is disabled by default and switched on with {@code pizza.write-behind.enabled=true}.
+ */
+@Component
+public class PizzaWriteBehindQueue implements SmartLifecycle {
+
+    /**
+     * The kind of a queued write.
+     */
+    public enum Operation {
+        ADD,
+        UPDATE
+    }
+
+    /**
+     * A queued write. The version is the one the client based an update on, kept apart from the
+     * pizza so that a write can be retried after its group has been rolled back.
+     */
+    private record Write(String trackingId, Operation operation, Pizza pizza, long version,
+                         String cafeName, String cafeAddress) {
+    }
+
+    private record CafeKey(String name, String address) {
+    }
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final boolean enabled;
+
+    private final BlockingQueue<Write> queue;
+
+    private final int batchSize;
+
+    private final Duration offerTimeout;
+
+    private final Cache<String, WriteStatusDTO> statuses;
+
+    /**
+     * Held shared while a write is offered and exclusively while the queue is closed, so that no
+     * write is accepted after the writer has been told to drain and stop.
+     */
+    private final ReentrantReadWriteLock acceptLock = new ReentrantReadWriteLock();
+
+    private volatile boolean accepting;
+
+    private volatile boolean running;
+
+    private volatile Runnable onDrained;
+
+    private Thread writer;
+
+    private TransactionTemplate transaction;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Validator validator;
+
+    public PizzaWriteBehindQueue(@Value("${pizza.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${pizza.write-behind.capacity:10000}") int capacity,
+                                 @Value("${pizza.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${pizza.write-behind.offer-timeout:PT0.1S}") Duration offerTimeout,
+                                 @Value("${pizza.write-behind.status-max-size:100000}") long statusMaxSize,
+                                 @Value("${pizza.write-behind.status-ttl:PT1H}") Duration statusTtl) {
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(statusMaxSize)
+                .expireAfterWrite(statusTtl)
+                .build();
+    }
+
+    /**
+     * Queue the addition of a pizza to, or the update of a pizza in, a cafe.
+     * Nothing is checked before the write is queued; the checks of the synchronous service
+     * methods are done by the writer and their failures reported in the status of the write.
+     *
+     * @param operation   Whether the pizza is added or updated.
+     * @param pizza       The pizza, with the version it is based on for an update.
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     * @return The status of the queued write, holding its tracking ID.
+     * @throws WriteQueueUnavailableException If the queue is disabled, shutting down or full.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public WriteStatusDTO submit(Operation operation, Pizza pizza, String cafeName, String cafeAddress) {
+        if (!enabled) {
+            throw new WriteQueueUnavailableException("Write-behind ingestion is not enabled");
+        }
+        Write write = new Write(UUID.randomUUID().toString(), operation, pizza, pizza.getVersion(),
+                cafeName, cafeAddress);
+        WriteStatusDTO status = WriteStatusDTO.queued(write.trackingId());
+        // Recorded first, as the writer may finish the write before offer returns
+        statuses.put(write.trackingId(), status);
+        boolean accepted = false;
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new WriteQueueUnavailableException("Write-behind ingestion is shutting down");
+            }
+            accepted = queue.offer(write, offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            acceptLock.readLock().unlock();
+            if (!accepted) {
+                statuses.invalidate(write.trackingId());
+            }
+        }
+        if (!accepted) {
+            throw new WriteQueueUnavailableException("The write queue is full");
+        }
+        return status;
+    }
+
+    /**
+     * Get the state of a queued write.
+     *
+     * @param trackingId The tracking ID the write was acknowledged with.
+     * @return The status of the write.
+     * @throws IdNotFoundException If no write with this tracking ID is known, or its status has expired.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public WriteStatusDTO getStatus(String trackingId) {
+        WriteStatusDTO status = statuses.getIfPresent(trackingId);
+        if (status == null) {
+            throw new IdNotFoundException("Tracking ID not found");
+        }
+        return status;
+    }
+
+    /**
+     * Get the number of writes waiting in the queue.
+     *
+     * @return The number of queued writes not taken by the writer yet.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        transaction = new TransactionTemplate(transactionManager);
+        accepting = true;
+        running = true;
+        writer = new Thread(this::drain, "pizza-write-behind");
+        writer.start();
+    }
+
+    /**
+     * Stops accepting writes and lets the writer drain the queue, calling back once it has.
+     */
+    @Override
+    public void stop(Runnable callback) {
+        onDrained = callback;
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        stop(() -> {
+        });
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before and stopped after the web server, whose graceful shutdown runs in phase
+     * {@code DEFAULT_PHASE - 1024} and whose stop runs in phase {@code DEFAULT_PHASE - 2048}, so
+     * that requests still being served during the grace period can queue their writes.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048 - 1;
+    }
+
+    /**
+     * The loop of the writer thread, which ends once the queue is closed and empty.
+     */
+    private void drain() {
+        List<Write> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                Write first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!accepting) {
+                        break;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            Runnable callback = onDrained;
+            if (callback != null) {
+                callback.run();
+            }
+        }
+    }
+
+    /**
+     * Apply a batch of writes, one transaction per cafe, and record their outcome after commit.
+     */
+    private void write(List<Write> batch) {
+        Map<CafeKey, List<Write>> writesByCafe = new LinkedHashMap<>();
+        for (Write write : batch) {
+            writesByCafe.computeIfAbsent(new CafeKey(write.cafeName(), write.cafeAddress()),
+                    key -> new ArrayList<>()).add(write);
+        }
+        for (List<Write> writes : writesByCafe.values()) {
+            try {
+                statuses.putAll(transaction.execute(status -> apply(writes)));
+            } catch (RuntimeException e) {
+                // Retry one by one, so that only the write the group failed on is lost
+                for (Write write : writes) {
+                    try {
+                        statuses.putAll(transaction.execute(status -> apply(List.of(write))));
+                    } catch (RuntimeException writeFailure) {
+                        statuses.put(write.trackingId(), WriteStatusDTO.failed(write.trackingId(),
+                                NestedExceptionUtils.getMostSpecificCause(writeFailure).getMessage()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply the writes of one cafe, in order, within the current transaction.
+     *
+     * @param writes The writes, all to the same cafe.
+     * @return The outcome of every write by tracking ID, valid once the transaction has committed.
+     */
+    private Map<String, WriteStatusDTO> apply(List<Write> writes) {
+        Map<String, WriteStatusDTO> results = new HashMap<>();
+        Write first = writes.get(0);
+        Cafe cafe = cafeRepository.findCafeByNameAndAddress(first.cafeName(), first.cafeAddress());
+        if (cafe == null) {
+            for (Write write : writes) {
+                results.put(write.trackingId(), WriteStatusDTO.failed(write.trackingId(), "Cafe not found"));
+            }
+            return results;
+        }
+        List<Write> additions = new ArrayList<>();
+        Set<String> addedNames = new HashSet<>();
+        for (Write write : writes) {
+            Pizza pizza = write.pizza();
+            pizza.setVersion(write.version());
+            Set<ConstraintViolation<Pizza>> violations = validator.validate(pizza);
+            if (!violations.isEmpty()) {
+                results.put(write.trackingId(), WriteStatusDTO.failed(write.trackingId(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .collect(Collectors.joining("; "))));
+            } else if (write.operation() == Operation.ADD) {
+                if (addedNames.add(pizza.getName())) {
+                    pizza.setCafe(cafe);
+                    additions.add(write);
+                } else {
+                    results.put(write.trackingId(), WriteStatusDTO.failed(write.trackingId(),
+                            "Pizza with name '" + pizza.getName() + "' already exists"));
+                }
+            } else {
+                // Pending additions go first, so an update can refer to a pizza added before it
+                insert(additions, results);
+                update(write, results);
+            }
+        }
+        insert(additions, results);
+        return results;
+    }
+
+    /**
+     * Insert the pending additions with JDBC batching, leaving out those whose name is taken.
+     */
+    private void insert(List<Write> additions, Map<String, WriteStatusDTO> results) {
+        if (additions.isEmpty()) {
+            return;
+        }
+        Set<String> existingNames = pizzaRepository.findExistingNames(additions.stream()
+                .map(write -> write.pizza().getName()).collect(Collectors.toSet()));
+        List<Write> inserted = new ArrayList<>(additions.size());
+        for (Write write : additions) {
+            if (existingNames.contains(write.pizza().getName())) {
+                results.put(write.trackingId(), WriteStatusDTO.failed(write.trackingId(),
+                        "Pizza with name '" + write.pizza().getName() + "' already exists"));
+            } else {
+                inserted.add(write);
+            }
+        }
+        additions.clear();
+        if (inserted.isEmpty()) {
+            return;
+        }
+        pizzaRepository.insertAll(inserted.stream().map(Write::pizza).toList());
+        for (Write write : inserted) {
+            Pizza pizza = write.pizza();
+            eventPublisher.publishEvent(new PizzaSavedEvent(pizza, write.cafeName(), write.cafeAddress()));
+            results.put(write.trackingId(), WriteStatusDTO.done(write.trackingId(), pizza.getId()));
+        }
+    }
+
+    private void update(Write write, Map<String, WriteStatusDTO> results) {
+        Pizza pizza = write.pizza();
+        int updated = pizzaRepository.updateIfVersion(pizza.getId(), pizza.getVersion(), pizza.getName(),
+                pizza.getPrice(), pizza.getSize(), pizza.getIngredients(), write.cafeName(), write.cafeAddress());
+        if (updated == 0) {
+            String error = pizzaRepository.existsByIdAndCafe_NameAndCafe_Address(
+                    pizza.getId(), write.cafeName(), write.cafeAddress())
+                    ? "Pizza has been changed by another request"
+                    : "Pizza not found";
+            results.put(write.trackingId(), WriteStatusDTO.failed(write.trackingId(), error));
+            return;
+        }
+        pizza.setVersion(pizza.getVersion() + 1);
+        eventPublisher.publishEvent(new PizzaUpdatedEvent(pizza, write.cafeName(), write.cafeAddress()));
+        results.put(write.trackingId(), WriteStatusDTO.done(write.trackingId(), pizza.getId()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.pizza.metrics;
+
+import com.example.pizza.cache.AuthenticationCache;
+import com.example.pizza.cache.MenuCache;
+import com.example.pizza.cache.ResponseBodyCache;
+import com.example.pizza.ingest.PizzaWriteBehindQueue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.cache.CacheManager;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Configuration of the application metrics published on {@code /actuator/prometheus}.
+ * Request latency and connection pool metrics come from Spring Boot; this class adds the
+ * per-request Hibernate counters and the statistics of the in-process caches.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Installs the {@link QueryCountingInterceptor} into the Hibernate session factory.
+     *
+     * @return A customizer registering the interceptor as statement inspector and entity interceptor.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingCustomizer() {
+        QueryCountingInterceptor interceptor = new QueryCountingInterceptor();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, interceptor);
+            properties.put(AvailableSettings.INTERCEPTOR, interceptor);
+        };
+    }
+
+    /**
+     * Registers the {@link RequestQueryMetricsFilter} ahead of the security filters, so the
+     * queries run to authenticate a request are counted too.
+     *
+     * @param meterRegistry The registry the summaries are recorded in.
+     * @return The filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<RequestQueryMetricsFilter> requestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestQueryMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestQueryMetricsFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder authenticationCacheMetrics(AuthenticationCache authenticationCache) {
+        return registry -> bindCache(registry, "auth", authenticationCache,
+                AuthenticationCache::stats, AuthenticationCache::size);
+    }
+
+    @Bean
+    public MeterBinder menuCacheMetrics(MenuCache menuCache) {
+        return registry -> bindCache(registry, "menu", menuCache, MenuCache::stats, MenuCache::size);
+    }
+
+    @Bean
+    public MeterBinder responseBodyCacheMetrics(ResponseBodyCache responseBodyCache) {
+        return registry -> bindCache(registry, "response", responseBodyCache,
+                ResponseBodyCache::stats, ResponseBodyCache::size);
+    }
+
+    @Bean
+    public MeterBinder writeBehindQueueMetrics(PizzaWriteBehindQueue writeBehindQueue) {
+        return registry -> Gauge.builder("pizza.write.behind.queue", writeBehindQueue, PizzaWriteBehindQueue::size)
+                .description("The number of pizza writes waiting in the write-behind queue")
+                .register(registry);
+    }
+
+    /**
+     * Publishes the statistics of every region of the Hibernate second-level and query caches,
+     * tagged with the region name.
+     *
+     * @param hibernateCacheManager The cache manager holding the regions.
+     * @return A binder registering the meters of each region.
+     */
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : hibernateCacheManager.getCacheNames()) {
+                Cache<?, ?> cache = hibernateCacheManager.getCache(region).unwrap(Cache.class);
+                bindCache(registry, region, cache, Cache::stats, Cache::estimatedSize);
+            }
+        };
+    }
+
+    /**
+     * Publishes the statistics of a Caffeine cache under the usual {@code cache.*} meter names.
+     * The values are read from the cache when the registry is scraped, so nothing is recorded
+     * on the lookup path. The meters reference the cache bean itself, which the context keeps alive.
+     */
+    private static <C> void bindCache(MeterRegistry registry, String name, C cache,
+                                      Function<C, CacheStats> stats, ToLongFunction<C> size) {
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).hitCount())
+                .tag("cache", name).tag("result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).missCount())
+                .tag("cache", name).tag("result", "miss")
+                .description("The number of times cache lookup methods have not returned a cached value")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, c -> stats.apply(c).evictionCount())
+                .tag("cache", name)
+                .description("The number of entries evicted from the cache")
+                .register(registry);
+        Gauge.builder("cache.size", cache, c -> size.applyAsLong(c))
+                .tag("cache", name)
+                .description("The approximate number of entries in the cache")
+                .register(registry);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.pizza.metrics;
+
+/**
+ * Per-thread counters of the SQL statements and entity loads issued by Hibernate.
+ * Each request thread owns its counters, so incrementing them needs neither locks nor atomics,
+ * and the counters object is allocated once per thread and reused across requests.
+ */
+public final class QueryCounter {
+
+    /**
+     * Mutable counters of one thread.
+     */
+    static final class Counts {
+        int statements;
+        int entityLoads;
+    }
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Reset the counters of the current thread, at the start of a request.
+     */
+    public static void reset() {
+        Counts counts = COUNTS.get();
+        counts.statements = 0;
+        counts.entityLoads = 0;
+    }
+
+    /**
+     * Count one SQL statement prepared on the current thread.
+     */
+    public static void statement() {
+        COUNTS.get().statements++;
+    }
+
+    /**
+     * Count one entity loaded on the current thread.
+     */
+    public static void entityLoad() {
+        COUNTS.get().entityLoads++;
+    }
+
+    /**
+     * Get the number of SQL statements prepared on the current thread since the last reset.
+     *
+     * @return The number of statements.
+     */
+    public static int statements() {
+        return COUNTS.get().statements;
+    }
+
+    /**
+     * Get the number of entities loaded on the current thread since the last reset.
+     *
+     * @return The number of entity loads.
+     */
+    public static int entityLoads() {
+        return COUNTS.get().entityLoads;
+    }
+}
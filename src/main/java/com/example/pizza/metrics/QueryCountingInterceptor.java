@@ -0,0 +1,25 @@
+package com.example.pizza.metrics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Hibernate hook that feeds the {@link QueryCounter} of the current thread.
+ * As a {@link StatementInspector} it sees every SQL statement Hibernate prepares, and as an
+ * {@link Interceptor} it is told about every entity it hydrates.
+ */
+public class QueryCountingInterceptor implements Interceptor, StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.statement();
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        QueryCounter.entityLoad();
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.pizza.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many SQL statements and entity loads each request caused, per route.
+ * The counters are reset before the request and read after it from the {@link QueryCounter}
+ * of the request thread. The summaries of a route are created on its first request and then
+ * looked up without locking.
+ */
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_METRIC = "pizza.db.statements";
+
+    static final String ENTITY_LOADS_METRIC = "pizza.db.entity.loads";
+
+    /**
+     * Route template used when the request was not mapped to a handler.
+     */
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    /**
+     * The two summaries recorded for a route.
+     */
+    private record RouteSummaries(DistributionSummary statements, DistributionSummary entityLoads) {
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, RouteSummaries> summariesByRoute = new ConcurrentHashMap<>();
+
+    public RequestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RouteSummaries summaries = summaries(request.getMethod(), route(request));
+            summaries.statements().record(QueryCounter.statements());
+            summaries.entityLoads().record(QueryCounter.entityLoads());
+        }
+    }
+
+    private RouteSummaries summaries(String method, String route) {
+        String key = method + ' ' + route;
+        RouteSummaries summaries = summariesByRoute.get(key);
+        if (summaries == null) {
+            summaries = summariesByRoute.computeIfAbsent(key, k -> new RouteSummaries(
+                    summary(STATEMENTS_METRIC, "SQL statements prepared per request", method, route),
+                    summary(ENTITY_LOADS_METRIC, "Entities loaded per request", method, route)));
+        }
+        return summaries;
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String route) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", route)
+                .register(meterRegistry);
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? UNKNOWN_ROUTE : pattern.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.pizza.repository;
+
+import com.example.pizza.domain.entity.Cafe;
+
+import java.util.List;
+
+/**
+ * Repository fragment for inserting many cafes with JDBC statement batching.
+ * {@code Cafe} IDs are generated by the database ({@code IDENTITY}), which makes Hibernate
+ * insert one row per statement, so bulk inserts go through plain JDBC instead.
+ */
+public interface CafeBatchRepository {
+
+    /**
+     * Inserts the given cafes in batches within the current transaction, or a new one if there
+     * is none, and sets the generated ID on each of them.
+     *
+     * @param cafes The cafes to be inserted.
+     */
+    void insertAll(List<Cafe> cafes);
+}
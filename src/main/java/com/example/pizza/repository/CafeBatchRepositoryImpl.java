@@ -0,0 +1,76 @@
+package com.example.pizza.repository;
+
+import com.example.pizza.domain.entity.Cafe;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link CafeBatchRepository}.
+ * Rows are sent with {@code addBatch}/{@code executeBatch} in chunks of
+ * {@code pizza.batch.insert-size}; with {@code rewriteBatchedStatements=true} on the MySQL URL
+ * each chunk becomes a single multi-row {@code INSERT}. The {@code e-mail} column is quoted with
+ * the quote string of the database.
+ * As Hibernate does not see these statements, the inserts are registered with the session like
+ * a native bulk statement, which invalidates the cached query results on the cafe table when
+ * the transaction completes.
+ */
+public class CafeBatchRepositoryImpl implements CafeBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    private final int batchSize;
+
+    public CafeBatchRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                   @Value("${pizza.batch.insert-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    @Override
+    public void insertAll(List<Cafe> cafes) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BulkOperationCleanupAction.schedule(session,
+                session.getFactory().getMappingMetamodel().getEntityDescriptor(Cafe.class));
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            String quote = connection.getMetaData().getIdentifierQuoteString();
+            String sql = "INSERT INTO cafe (name, city, address, " + quote + "e-mail" + quote
+                    + ", phone, version) VALUES (?, ?, ?, ?, ?, 0)";
+            try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < cafes.size(); from += batchSize) {
+                    List<Cafe> chunk = cafes.subList(from, Math.min(from + batchSize, cafes.size()));
+                    for (Cafe cafe : chunk) {
+                        statement.setString(1, cafe.getName());
+                        statement.setString(2, cafe.getCity());
+                        statement.setString(3, cafe.getAddress());
+                        statement.setString(4, cafe.getEmail());
+                        statement.setString(5, cafe.getPhone());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Cafe cafe : chunk) {
+                            if (keys.next()) {
+                                cafe.setId(keys.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
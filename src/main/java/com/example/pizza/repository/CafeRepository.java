@@ -1,34 +1,239 @@
 package com.example.pizza.repository;
 
 import com.example.pizza.domain.entity.Cafe;
-import jakarta.transaction.Transactional;
+import com.example.pizza.dto.CafeAddressEntry;
+import com.example.pizza.dto.CafeChainEntry;
+import com.example.pizza.dto.CafeCityEntry;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.CatalogExportRow;
+import com.example.pizza.dto.VersionStamp;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * The CafeRepository interface is a Spring Data JPA repository for performing database operations on the Cafe entity.
  * It extends the JpaRepository interface and includes additional methods for specific queries.
+ * Query methods run in read-only transactions unless they join a read-write one, so that
+ * they can be routed to a read replica; modifying queries run in read-write transactions.
  */
 @Repository
-public interface CafeRepository extends JpaRepository<Cafe, Long> {
+@Transactional(readOnly = true)
+public interface CafeRepository extends JpaRepository<Cafe, Long>, CafeBatchRepository {
+
+    /**
+     * Selects every column of a cafe into a {@link CafeDTO}. Constructor results are not managed
+     * by the persistence context, so the read-only queries built on it hydrate no entity.
+     */
+    String SELECT_DTO = "SELECT new com.example.pizza.dto.CafeDTO(c.id, c.name, c.city, c.address, c.email,"
+            + " c.phone, c.version) FROM Cafe c";
+
+    /**
+     * Finds the ID, name and address of the cafes forming the chain with the given name.
+     *
+     * @param name The name of the cafe chain.
+     * @return A list of address entries for the cafes in the chain.
+     */
+    List<CafeAddressEntry> findAddressesByName(String name);
+
+    /**
+     * Finds the ID, name and address of the cafe with the given name and address.
+     *
+     * @param name    The name of the cafe.
+     * @param address The address of the cafe.
+     * @return A list holding the address entry of the cafe, or an empty list if there is none.
+     */
+    List<CafeAddressEntry> findAddressesByNameAndAddress(String name, String address);
+
+    /**
+     * Finds the ID, name and address of the cafe with the given ID.
+     *
+     * @param id The ID of the cafe.
+     * @return A list holding the address entry of the cafe, or an empty list if there is none.
+     */
+    List<CafeAddressEntry> findAddressesById(long id);
+
+    /**
+     * Deletes the cafes with the given IDs in a single statement, without loading them.
+     * Their pizzas must have been deleted before, as no cascade is applied.
+     *
+     * @param ids The IDs of the cafes to be deleted.
+     * @return The number of deleted cafes.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Cafe c WHERE c.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds all cafes ordered by ID as read-only views.
+     *
+     * @return A list of views of all cafes.
+     */
+    @Query(SELECT_DTO + " ORDER BY c.id")
+    List<CafeDTO> findAllDtos();
+
+    /**
+     * Finds the cafe with the given ID as a read-only view.
+     *
+     * @param id The ID of the cafe.
+     * @return The view of the cafe, or null if not found.
+     */
+    @Query(SELECT_DTO + " WHERE c.id = :id")
+    CafeDTO findDtoById(@Param("id") long id);
+
+    /**
+     * Finds the cafes with the given IDs ordered by ID as read-only views.
+     *
+     * @param ids The IDs of the cafes.
+     * @return A list of views of the cafes that exist.
+     */
+    @Query(SELECT_DTO + " WHERE c.id IN :ids ORDER BY c.id")
+    List<CafeDTO> findDtosByIds(@Param("ids") Collection<Long> ids);
 
     /**
-     * Deletes cafes by their name.
+     * Updates a cafe in a single statement if it still has the given version, incrementing the
+     * version. Nothing is loaded, and no other writer can have changed the cafe in between.
      *
-     * @param name The name of the cafes to be deleted.
+     * @param id      The ID of the cafe.
+     * @param version The version the update is based on.
+     * @param name    The new name of the cafe.
+     * @param city    The new city of the cafe.
+     * @param address The new address of the cafe.
+     * @param email   The new email of the cafe.
+     * @param phone   The new phone number of the cafe.
+     * @return 1 if the cafe was updated, or 0 if it does not exist or has another version.
      */
     @Transactional
-    void deleteCafesByName(String name);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cafe c SET c.name = :name, c.city = :city, c.address = :address, c.email = :email,"
+            + " c.phone = :phone, c.version = c.version + 1 WHERE c.id = :id AND c.version = :version")
+    int updateIfVersion(@Param("id") long id, @Param("version") long version, @Param("name") String name,
+                        @Param("city") String city, @Param("address") String address,
+                        @Param("email") String email, @Param("phone") String phone);
+
+    /**
+     * Checks whether a cafe with the given name and address exists.
+     * The answer is kept in the query cache until the cafe table changes.
+     *
+     * @param name    The name of the cafe.
+     * @param address The address of the cafe.
+     * @return true if the cafe exists.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    boolean existsByNameAndAddress(String name, String address);
+
+    /**
+     * Finds all cafes forming the chain with the given name as read-only views, using the index
+     * on {@code cafe.name}.
+     *
+     * @param name The name of the cafe chain.
+     * @return A list of views of the cafes with the specified name, ordered by ID.
+     */
+    @Query(SELECT_DTO + " WHERE c.name = :name ORDER BY c.id")
+    List<CafeDTO> findDtosByName(@Param("name") String name);
+
+    /**
+     * Finds the ID and name of every cafe, without loading the rest of the entity.
+     *
+     * @return A list of chain entries for all cafes.
+     */
+    List<CafeChainEntry> findAllBy();
+
+    /**
+     * Finds the ID and city of every cafe, without loading the rest of the entity.
+     *
+     * @return A list of city entries for all cafes.
+     */
+    List<CafeCityEntry> findCitiesBy();
 
     /**
      * Finds a cafe by its name and address.
+     * The ID of the result is kept in the query cache until the cafe table changes, and the cafe
+     * itself in the second-level cache, so a repeated lookup runs no statement.
      *
      * @param name    The name of the cafe.
      * @param address The address of the cafe.
      * @return The found cafe or null if not found.
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Cafe findCafeByNameAndAddress(String name, String address);
 
-    @Transactional
-    void deleteCafeByNameAndAddress(String name, String address);
+    /**
+     * Finds a cafe by its name and address as a read-only view.
+     * The view is kept in the query cache until the cafe table changes.
+     *
+     * @param name    The name of the cafe.
+     * @param address The address of the cafe.
+     * @return The view of the cafe, or null if not found.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query(SELECT_DTO + " WHERE c.name = :name AND c.address = :address")
+    CafeDTO findDtoByNameAndAddress(@Param("name") String name, @Param("address") String address);
+
+    /**
+     * Finds the next page of cafes after the given ID, ordered by ID (keyset pagination), as
+     * read-only views. Only the page size from {@code pageable} is used; the position is carried
+     * by {@code id}.
+     *
+     * @param id       The last cafe ID the client has already seen.
+     * @param pageable The page request defining the maximum number of cafes.
+     * @return Up to {@code pageable.getPageSize()} views of cafes with an ID greater than {@code id}.
+     */
+    @Query(SELECT_DTO + " WHERE c.id > :id ORDER BY c.id")
+    List<CafeDTO> findDtosAfter(@Param("id") long id, Pageable pageable);
+
+    /**
+     * Streams all cafes ordered by ID as read-only views from a forward-only database cursor.
+     * The returned stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @return A stream of views of all cafes.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + " ORDER BY c.id")
+    Stream<CafeDTO> streamAllDtos();
+
+    /**
+     * Streams every cafe joined with each of its pizzas, ordered by cafe ID and pizza ID, from a
+     * forward-only database cursor, without loading the entities. A cafe without pizzas yields a
+     * single row with no pizza. The returned stream must be consumed inside a transaction and
+     * closed afterwards.
+     *
+     * @return A stream of export rows for all cafes and pizzas.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.pizza.dto.CatalogExportRow(c.id, c.name, c.city, c.address, c.email, c.phone,"
+            + " p.id, p.name, p.price, p.size, p.ingredients) FROM Cafe c LEFT JOIN c.pizzas p ORDER BY c.id, p.id")
+    Stream<CatalogExportRow> streamExportRows();
+
+    /**
+     * Finds which of the given cafe addresses are already taken.
+     *
+     * @param addresses The cafe addresses to be checked.
+     * @return The subset of {@code addresses} that already exist.
+     */
+    @Query("SELECT c.address FROM Cafe c WHERE c.address IN :addresses")
+    Set<String> findExistingAddresses(@Param("addresses") Collection<String> addresses);
+
+    /**
+     * Computes the version stamp of the whole cafe list with a single aggregate query,
+     * without loading any cafe.
+     *
+     * @return The version stamp of all cafes.
+     */
+    @Query("SELECT new com.example.pizza.dto.VersionStamp(COUNT(c), COALESCE(MAX(c.id), 0L),"
+            + " COALESCE(SUM(c.id), 0L), COALESCE(SUM(c.version), 0L)) FROM Cafe c")
+    VersionStamp findVersionStamp();
 }
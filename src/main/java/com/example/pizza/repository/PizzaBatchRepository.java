@@ -0,0 +1,21 @@
+package com.example.pizza.repository;
+
+import com.example.pizza.domain.entity.Pizza;
+
+import java.util.List;
+
+/**
+ * Repository fragment for inserting many pizzas with JDBC statement batching.
+ * {@code Pizza} IDs are generated by the database ({@code IDENTITY}), which makes Hibernate
+ * insert one row per statement, so bulk inserts go through plain JDBC instead.
+ */
+public interface PizzaBatchRepository {
+
+    /**
+     * Inserts the given pizzas in batches within the current transaction, or a new one if there
+     * is none, and sets the generated ID on each of them. Every pizza must already reference its cafe.
+     *
+     * @param pizzas The pizzas to be inserted.
+     */
+    void insertAll(List<Pizza> pizzas);
+}
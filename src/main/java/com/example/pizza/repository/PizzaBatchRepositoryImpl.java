@@ -0,0 +1,75 @@
+package com.example.pizza.repository;
+
+import com.example.pizza.domain.entity.Pizza;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link PizzaBatchRepository}.
+ * Rows are sent with {@code addBatch}/{@code executeBatch} in chunks of
+ * {@code pizza.batch.insert-size}; with {@code rewriteBatchedStatements=true} on the MySQL URL
+ * each chunk becomes a single multi-row {@code INSERT}.
+ * As Hibernate does not see these statements, the inserts are registered with the session like
+ * a native bulk statement, which invalidates the cached query results on the pizza table when
+ * the transaction completes.
+ */
+public class PizzaBatchRepositoryImpl implements PizzaBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO pizza (name, price, size, ingredients, cafe_id, version) VALUES (?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    private final int batchSize;
+
+    public PizzaBatchRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                    @Value("${pizza.batch.insert-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    @Override
+    public void insertAll(List<Pizza> pizzas) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BulkOperationCleanupAction.schedule(session,
+                session.getFactory().getMappingMetamodel().getEntityDescriptor(Pizza.class));
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < pizzas.size(); from += batchSize) {
+                    List<Pizza> chunk = pizzas.subList(from, Math.min(from + batchSize, pizzas.size()));
+                    for (Pizza pizza : chunk) {
+                        statement.setString(1, pizza.getName());
+                        statement.setDouble(2, pizza.getPrice());
+                        statement.setString(3, pizza.getSize());
+                        statement.setString(4, pizza.getIngredients());
+                        statement.setLong(5, pizza.getCafe().getId());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Pizza pizza : chunk) {
+                            if (keys.next()) {
+                                pizza.setId(keys.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -1,56 +1,190 @@
 package com.example.pizza.repository;
 
-import com.example.pizza.domain.entity.Cafe;
 import com.example.pizza.domain.entity.Pizza;
-import jakarta.transaction.Transactional;
+import com.example.pizza.dto.PizzaColumnsEntry;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.dto.PizzaIngredientsEntry;
+import com.example.pizza.dto.VersionStamp;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * The PizzaRepository interface is a Spring Data JPA repository for performing database operations on the Pizza entity.
  * It extends the JpaRepository interface and includes additional methods for specific queries.
+ * Query methods run in read-only transactions unless they join a read-write one, so that
+ * they can be routed to a read replica; modifying queries run in read-write transactions.
  */
 @Repository
-public interface PizzaRepository extends JpaRepository<Pizza, Long> {
+@Transactional(readOnly = true)
+public interface PizzaRepository extends JpaRepository<Pizza, Long>, PizzaBatchRepository {
 
     /**
-     * Finds pizzas by the name of the cafe and the address of the cafe.
+     * Selects every column of a pizza and the ID of its cafe into a {@link PizzaDTO}, without
+     * joining the cafe. Constructor results are not managed by the persistence context, so the
+     * read-only queries built on it hydrate no entity and create no cafe proxy.
+     */
+    String SELECT_DTO = "SELECT new com.example.pizza.dto.PizzaDTO(p.id, p.name, p.price, p.size, p.ingredients,"
+            + " p.version, p.cafe.id) FROM Pizza p";
+
+    /**
+     * Finds all pizzas ordered by ID as read-only views.
+     *
+     * @return A list of views of all pizzas.
+     */
+    @Query(SELECT_DTO + " ORDER BY p.id")
+    List<PizzaDTO> findAllDtos();
+
+    /**
+     * Finds the pizzas of a cafe ordered by ID as read-only views.
      *
      * @param cafeName    The name of the cafe.
      * @param cafeAddress The address of the cafe.
-     * @return A list of pizzas matching the specified cafe name and address.
+     * @return A list of views of the pizzas in the cafe with the specified name and address.
      */
-    List<Pizza> findByCafe_NameAndCafe_Address(String cafeName, String cafeAddress);
+    @Query(SELECT_DTO + " WHERE p.cafe.name = :cafeName AND p.cafe.address = :cafeAddress ORDER BY p.id")
+    List<PizzaDTO> findMenuDtos(@Param("cafeName") String cafeName, @Param("cafeAddress") String cafeAddress);
 
     /**
-     * Finds a pizza by its name, the name of the cafe, and the address of the cafe.
+     * Finds the pizzas with the given IDs as read-only views, in no particular order.
+     *
+     * @param ids The IDs of the pizzas.
+     * @return A list of views of the pizzas that exist.
+     */
+    @Query(SELECT_DTO + " WHERE p.id IN :ids")
+    List<PizzaDTO> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds a pizza by the name of the cafe, the address of the cafe, and its name.
      *
-     * @param pizzaName   The name of the pizza.
      * @param cafeName    The name of the cafe.
      * @param cafeAddress The address of the cafe.
+     * @param pizzaName   The name of the pizza.
      * @return The found pizza or null if not found.
      */
-    Pizza findByCafe_NameAndCafe_AddressAndName(String pizzaName, String cafeName, String cafeAddress);
+    Pizza findByCafe_NameAndCafe_AddressAndName(String cafeName, String cafeAddress, String pizzaName);
 
     /**
-     * Finds a pizza by its ID, the name of the cafe, and the address of the cafe.
+     * Checks whether a pizza with the given ID belongs to the cafe with the given name and address.
+     * The answer is kept in the query cache until the pizza or cafe table changes.
      *
+     * @param pizzaId     The ID of the pizza.
      * @param cafeName    The name of the cafe.
      * @param cafeAddress The address of the cafe.
-     * @param pizzaId     The ID of the pizza.
-     * @return The found pizza or null if not found.
+     * @return true if the pizza exists in the cafe.
      */
-    Pizza findByCafe_NameAndCafe_AddressAndId(String cafeName, String cafeAddress, long pizzaId);
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    boolean existsByIdAndCafe_NameAndCafe_Address(long pizzaId, String cafeName, String cafeAddress);
 
     /**
-     * Deletes a pizza by its name and associated cafe.
+     * Updates a pizza of a cafe in a single statement if it still has the given version,
+     * incrementing the version. Nothing is loaded, and no other writer can have changed the pizza
+     * in between. The pizza stays in its cafe.
      *
-     * @param name The name of the pizza to be deleted.
-     * @param cafe The cafe associated with the pizza.
+     * @param id          The ID of the pizza.
+     * @param version     The version the update is based on.
+     * @param name        The new name of the pizza.
+     * @param price       The new price of the pizza.
+     * @param size        The new size of the pizza.
+     * @param ingredients The new ingredients of the pizza.
+     * @param cafeName    The name of the cafe the pizza must belong to.
+     * @param cafeAddress The address of the cafe the pizza must belong to.
+     * @return 1 if the pizza was updated, or 0 if it does not exist in the cafe or has another version.
      */
     @Transactional
-    void deletePizzaByNameAndCafe(String name, Cafe cafe);
-}
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pizza p SET p.name = :name, p.price = :price, p.size = :size, p.ingredients = :ingredients,"
+            + " p.version = p.version + 1 WHERE p.id = :id AND p.version = :version AND p.cafe.id IN"
+            + " (SELECT c.id FROM Cafe c WHERE c.name = :cafeName AND c.address = :cafeAddress)")
+    int updateIfVersion(@Param("id") long id, @Param("version") long version, @Param("name") String name,
+                        @Param("price") double price, @Param("size") String size,
+                        @Param("ingredients") String ingredients, @Param("cafeName") String cafeName,
+                        @Param("cafeAddress") String cafeAddress);
+
+    /**
+     * Finds the IDs of the pizzas with the given name in a cafe.
+     *
+     * @param name   The name of the pizzas.
+     * @param cafeId The ID of the cafe.
+     * @return The IDs of the matching pizzas.
+     */
+    @Query("SELECT p.id FROM Pizza p WHERE p.name = :name AND p.cafe.id = :cafeId")
+    List<Long> findIdsByNameAndCafeId(@Param("name") String name, @Param("cafeId") long cafeId);
 
+    /**
+     * Deletes the pizzas with the given IDs in a single statement, without loading them.
+     *
+     * @param ids The IDs of the pizzas to be deleted.
+     * @return The number of deleted pizzas.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Pizza p WHERE p.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes every pizza of the cafes with the given IDs in a single statement, without loading them.
+     *
+     * @param cafeIds The IDs of the cafes whose pizzas are to be deleted.
+     * @return The number of deleted pizzas.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Pizza p WHERE p.cafe.id IN :cafeIds")
+    int deleteAllByCafeIds(@Param("cafeIds") Collection<Long> cafeIds);
+
+    /**
+     * Finds which of the given pizza names are already taken.
+     *
+     * @param names The pizza names to be checked.
+     * @return The subset of {@code names} that already exist.
+     */
+    @Query("SELECT p.name FROM Pizza p WHERE p.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
+    /**
+     * Streams the ID, ingredients and cafe ID of every pizza ordered by ID from a forward-only
+     * database cursor, without loading the entities. The returned stream must be consumed inside
+     * a transaction and closed afterwards.
+     *
+     * @return A stream of ingredient entries for all pizzas.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id AS id, p.ingredients AS ingredients, p.cafe.id AS cafeId FROM Pizza p ORDER BY p.id")
+    Stream<PizzaIngredientsEntry> streamIngredientEntries();
+
+    /**
+     * Streams the ID, price, size and cafe ID of every pizza ordered by ID from a forward-only
+     * database cursor, without loading the entities. The returned stream must be consumed inside
+     * a transaction and closed afterwards.
+     *
+     * @return A stream of column entries for all pizzas.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id AS id, p.price AS price, p.size AS size, p.cafe.id AS cafeId FROM Pizza p ORDER BY p.id")
+    Stream<PizzaColumnsEntry> streamColumnEntries();
+
+    /**
+     * Computes the version stamp of the menu of a cafe with a single aggregate query,
+     * without loading any pizza.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     * @return The version stamp of the pizzas in the cafe.
+     */
+    @Query("SELECT new com.example.pizza.dto.VersionStamp(COUNT(p), COALESCE(MAX(p.id), 0L),"
+            + " COALESCE(SUM(p.id), 0L), COALESCE(SUM(p.version), 0L))"
+            + " FROM Pizza p WHERE p.cafe.name = :cafeName AND p.cafe.address = :cafeAddress")
+    VersionStamp findMenuVersionStamp(@Param("cafeName") String cafeName, @Param("cafeAddress") String cafeAddress);
+}
@@ -0,0 +1,38 @@
+package com.example.pizza.repository;
+
+import com.example.pizza.dto.CafeDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking read queries on the cafe table.
+ * Rows are mapped to read-only {@link CafeDTO} views, the same the blocking endpoints serialize.
+ */
+@Repository
+public class ReactiveCafeRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<CafeDTO> findAll() {
+        return databaseClient.sql("SELECT * FROM cafe ORDER BY id")
+                .map(ReactiveCafeRepository::toCafe)
+                .all();
+    }
+
+    public Flux<CafeDTO> findCafesByName(String name) {
+        return databaseClient.sql("SELECT * FROM cafe WHERE name = :name ORDER BY id")
+                .bind("name", name)
+                .map(ReactiveCafeRepository::toCafe)
+                .all();
+    }
+
+    private static CafeDTO toCafe(Readable row) {
+        return new CafeDTO(row.get("id", Long.class), row.get("name", String.class), row.get("city", String.class),
+                row.get("address", String.class), row.get("e-mail", String.class), row.get("phone", String.class),
+                row.get("version", Long.class));
+    }
+}
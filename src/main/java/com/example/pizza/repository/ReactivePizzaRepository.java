@@ -0,0 +1,34 @@
+package com.example.pizza.repository;
+
+import com.example.pizza.dto.PizzaDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking read queries on the pizza table.
+ * Rows are mapped to read-only {@link PizzaDTO} views, the same the blocking endpoints serialize.
+ */
+@Repository
+public class ReactivePizzaRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<PizzaDTO> findByCafeNameAndCafeAddress(String cafeName, String cafeAddress) {
+        return databaseClient.sql("SELECT p.* FROM pizza p JOIN cafe c ON c.id = p.cafe_id"
+                        + " WHERE c.name = :cafeName AND c.address = :cafeAddress ORDER BY p.id")
+                .bind("cafeName", cafeName)
+                .bind("cafeAddress", cafeAddress)
+                .map(ReactivePizzaRepository::toPizza)
+                .all();
+    }
+
+    private static PizzaDTO toPizza(Readable row) {
+        return new PizzaDTO(row.get("id", Long.class), row.get("name", String.class), row.get("price", Double.class),
+                row.get("size", String.class), row.get("ingredients", String.class), row.get("version", Long.class),
+                row.get("cafe_id", Long.class));
+    }
+}
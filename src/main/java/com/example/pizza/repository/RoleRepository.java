@@ -5,14 +5,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
 
 /**
  * The RoleRepository interface is a Spring Data JPA repository for performing database operations on the Role entity.
  * It extends the JpaRepository interface.
+ * Query methods run in read-only transactions unless they join a read-write one, so that
+ * they can be routed to a read replica; modifying queries run in read-write transactions.
  */
 @Repository
+@Transactional(readOnly = true)
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Set<Role> findByNameIn(Set<String> roleNames);
 
@@ -1,21 +1,33 @@
 package com.example.pizza.repository;
 
 import com.example.pizza.domain.authorization.User;
+import com.example.pizza.dto.UserCredentialsEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * The UserRepository interface is a Spring Data JPA repository for performing database operations on the User entity.
  * It extends the JpaRepository interface and includes additional methods for specific queries.
+ * Query methods run in read-only transactions unless they join a read-write one, so that
+ * they can be routed to a read replica; modifying queries run in read-write transactions.
  */
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
     /**
-     * Finds UserDetails by the username.
+     * Finds the username, password hash and role names of a user in a single query, without
+     * loading the user, its roles or the other users sharing them.
      *
      * @param username The username of the user.
-     * @return UserDetails associated with the specified username or null if not found.
+     * @return One entry per role of the user, a single entry with a null role name if it has no
+     * role, or an empty list if there is no such user.
      */
-    UserDetails findByUsername(String username);
+    @Query("SELECT u.username AS username, u.password AS password, r.name AS roleName"
+            + " FROM User u LEFT JOIN u.roles r WHERE u.username = :username")
+    List<UserCredentialsEntry> findCredentialsByUsername(@Param("username") String username);
 }
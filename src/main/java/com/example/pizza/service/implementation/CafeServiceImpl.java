@@ -1,23 +1,48 @@
 package com.example.pizza.service.implementation;
 
+import com.example.pizza.catalog.Catalog;
+import com.example.pizza.catalog.CatalogSnapshot;
+import com.example.pizza.datasource.PrimaryPinning;
 import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeAddressEntry;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.CatalogExportRow;
+import com.example.pizza.dto.DeletedRowsDTO;
+import com.example.pizza.dto.VersionStamp;
+import com.example.pizza.event.CafeDeletedEvent;
+import com.example.pizza.event.CafeSavedEvent;
 import com.example.pizza.exception.exceptions.CafeNotFoundException;
 import com.example.pizza.exception.exceptions.EmptyCafeListException;
 import com.example.pizza.exception.exceptions.IdNotFoundException;
+import com.example.pizza.exception.exceptions.VersionConflictException;
+import com.example.pizza.index.CafeChainIndex;
 import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
 import com.example.pizza.service.interfaces.CafeService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 /**
  * Implementation of the {@code CafeService} interface providing cafe-related functionalities.
  * This service class interacts with the underlying {@code CafeRepository}
  * to perform operations related to cafes.
+ * Reads return read-only {@code CafeDTO} views built by projection queries, which run in
+ * read-only transactions and load no managed entity.
+ * With {@code pizza.catalog.read-mode=snapshot}, the reads are served from the in-memory
+ * {@code CatalogSnapshot} instead.
  *
  * @see CafeService
  * @see CafeRepository
@@ -25,24 +50,61 @@ import java.util.List;
 @Service
 public class CafeServiceImpl implements CafeService {
 
+    /**
+     * The maximum number of cafes returned by a single keyset page.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
     /**
      * Repository for managing cafe entities.
      */
     @Autowired
     private CafeRepository cafeRepository;
 
+    /**
+     * Repository for managing pizza entities, used to delete the pizzas of deleted cafes.
+     */
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    /**
+     * Optional in-process index from chain name to cafe IDs.
+     */
+    @Autowired
+    private CafeChainIndex chainIndex;
+
+    /**
+     * In-memory catalog the reads are served from when the snapshot read mode is selected.
+     */
+    @Autowired
+    private Catalog catalog;
+
+    /**
+     * Bean Validation used to check an updated cafe, as the conditional update bypasses the
+     * validation done when an entity is saved.
+     */
+    @Autowired
+    private Validator validator;
+
+    /**
+     * Publisher for the events that keep indexes and caches in step with cafe writes.
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Retrieves a list of all cafes from the repository.
      * This method overrides the base method to fetch all cafes from the underlying
      * repository and ensures that the retrieved list is not empty. If the list is empty,
      * an {@code EmptyCafeListException} is thrown.
      *
-     * @return A {@code List} containing all cafes retrieved from the repository.
+     * @return A {@code List} containing views of all cafes, ordered by ID.
      * @throws EmptyCafeListException If the list of cafes is empty in the repository.
      */
     @Override
-    public List<Cafe> getAllCafes() {
-        List<Cafe> cafeList = cafeRepository.findAll();
+    public List<CafeDTO> getAllCafes() {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        List<CafeDTO> cafeList = snapshot != null ? snapshot.getAllCafes() : cafeRepository.findAllDtos();
         if (cafeList.isEmpty()) {
             // Check if the retrieved list is empty
 
@@ -51,19 +113,94 @@ public class CafeServiceImpl implements CafeService {
         return cafeList;
     }
 
+    /**
+     * Retrieves the version stamp of the list of all cafes.
+     * The stamp is computed by the database without loading any cafe, and changes whenever a
+     * cafe is created, updated or deleted.
+     *
+     * @return The current {@code VersionStamp} of all cafes.
+     */
+    @Override
+    public VersionStamp getAllCafesVersion() {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        return snapshot != null ? snapshot.getCafesVersion() : cafeRepository.findVersionStamp();
+    }
+
+    /**
+     * Retrieves the next page of cafes after the given cafe ID, ordered by ID.
+     * The client passes the ID of the last cafe it has received as {@code afterId}
+     * (or {@code 0} for the first page), so each page is a single index range scan
+     * regardless of how deep into the table it is. The requested limit is clamped
+     * to the range {@code [1, MAX_PAGE_SIZE]}. An empty list marks the end of the data.
+     *
+     * @param afterId The ID of the last cafe already seen by the client.
+     * @param limit   The maximum number of cafes to return.
+     * @return A {@code List} of at most {@code limit} cafes with an ID greater than {@code afterId}.
+     */
+    @Override
+    public List<CafeDTO> getCafesAfter(long afterId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        CatalogSnapshot snapshot = catalog.snapshot();
+        if (snapshot != null) {
+            return snapshot.getCafesAfter(afterId, pageSize);
+        }
+        return cafeRepository.findDtosAfter(afterId, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Passes every cafe, ordered by ID, to the given action while reading them from a
+     * database cursor. The cafes are read as views, which the persistence context does not keep,
+     * so memory use does not grow with the size of the table.
+     *
+     * @param action The action to perform for each cafe.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCafe(Consumer<CafeDTO> action) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        if (snapshot != null) {
+            snapshot.getAllCafes().forEach(action);
+            return;
+        }
+        try (Stream<CafeDTO> cafes = cafeRepository.streamAllDtos()) {
+            cafes.forEach(action);
+        }
+    }
+
+    /**
+     * Passes every cafe joined with each of its pizzas, ordered by cafe ID and pizza ID, to the
+     * given action while reading the rows from a single database cursor. The rows are views the
+     * persistence context does not keep, so at most one fetch of rows is held in memory however
+     * large the catalog is. The catalog snapshot is not used, so the export always reflects the
+     * database.
+     *
+     * @param action The action to perform for each row.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachExportRow(Consumer<CatalogExportRow> action) {
+        try (Stream<CatalogExportRow> rows = cafeRepository.streamExportRows()) {
+            rows.forEach(action);
+        }
+    }
+
     /**
      * This method overrides the base method to fetch a cafe from the underlying
      * repository using the specified name and address. If no cafe is found, a
-     * {@code CafeNotFoundException} is thrown.
+     * {@code CafeNotFoundException} is thrown. The lookup is answered by the query cache, and a
+     * miss reads the primary, so the cache is not refilled from a lagging replica.
      *
      * @param name    The name of the cafe to retrieve.
      * @param address The address of the cafe to retrieve.
-     * @return The {@code Cafe} object corresponding to the provided name and address.
+     * @return The view of the cafe corresponding to the provided name and address.
      * @throws CafeNotFoundException If no cafe is found with the specified name and address.
      */
     @Override
-    public Cafe getCafeByNameAndAddress(String name, String address) {
-        Cafe cafe = cafeRepository.findCafeByNameAndAddress(name, address);
+    public CafeDTO getCafeByNameAndAddress(String name, String address) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        CafeDTO cafe = snapshot != null
+                ? snapshot.getCafeByNameAndAddress(name, address)
+                : PrimaryPinning.pinned(() -> cafeRepository.findDtoByNameAndAddress(name, address));
         if (cafe == null) {
             // Check if the retrieved cafe is null
             throw new CafeNotFoundException("Cafe with the following name and address is not found");
@@ -78,31 +215,43 @@ public class CafeServiceImpl implements CafeService {
      * an {@code IdNotFoundException} is thrown.
      *
      * @param id The unique identifier of the cafe to retrieve.
-     * @return The {@code Cafe} object corresponding to the provided ID.
+     * @return The view of the cafe corresponding to the provided ID.
      * @throws IdNotFoundException If no cafe is found with the specified ID.
      */
     @Override
-    public Cafe getCafeById(long id) {
-        return cafeRepository.findById(id)
-                .orElseThrow(() -> new IdNotFoundException("Cafe with the following ID does not exist"));
+    public CafeDTO getCafeById(long id) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        CafeDTO cafe = snapshot != null ? snapshot.getCafeById(id) : cafeRepository.findDtoById(id);
+        if (cafe == null) {
+            throw new IdNotFoundException("Cafe with the following ID does not exist");
+        }
+        return cafe;
     }
 
     /**
      * Retrieves a list of cafes forming a chain based on the provided chain name.
-     * This method overrides the base method to filter cafes from the underlying
-     * repository that have the specified name, forming a chain. If no cafes are found
-     * with the given chain name, an {@code EmptyCafeListException} is thrown.
+     * When the catalog snapshot is not in use and the {@code CafeChainIndex} is loaded, the cafe IDs of the chain are taken from it
+     * and the cafes are fetched by primary key; otherwise the cafes are queried by name
+     * through the index on {@code cafe.name}. Either way the cost depends on the size of the
+     * chain, not on the total number of cafes. If no cafes are found with the given chain
+     * name, an {@code EmptyCafeListException} is thrown.
      *
      * @param name The name of the cafe chain to retrieve.
-     * @return A {@code List} containing cafes forming the chain with the provided name.
+     * @return A {@code List} containing views of the cafes forming the chain, ordered by ID.
      * @throws EmptyCafeListException If no cafes are found with the specified chain name.
      */
     @Override
-    public List<Cafe> getCafeChain(String name) {
-        List<Cafe> cafeChainList = cafeRepository.findAll()
-                .stream()
-                .filter(x -> x.getName().equals(name))
-                .toList();
+    public List<CafeDTO> getCafeChain(String name) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        List<CafeDTO> cafeChainList;
+        if (snapshot != null) {
+            cafeChainList = snapshot.getCafeChain(name);
+        } else if (chainIndex.isReady()) {
+            Set<Long> ids = chainIndex.getCafeIds(name);
+            cafeChainList = ids.isEmpty() ? List.of() : cafeRepository.findDtosByIds(ids);
+        } else {
+            cafeChainList = cafeRepository.findDtosByName(name);
+        }
         // Check if the retrieved cafe chain list is empty
         if (cafeChainList.isEmpty()) {
             throw new EmptyCafeListException("Can not find cafe chain with the following name");
@@ -120,78 +269,110 @@ public class CafeServiceImpl implements CafeService {
      * auto-generated identifiers or fields.
      */
     @Override
+    @Transactional
     public Cafe createCafe(Cafe cafe) {
-        return cafeRepository.save(cafe);
+        Cafe savedCafe = cafeRepository.save(cafe);
+        eventPublisher.publishEvent(new CafeSavedEvent(savedCafe));
+        return savedCafe;
     }
 
     /**
-     * Updates an existing cafe with the provided information and saves it to the repository.
-     * This method overrides the base method to find the existing cafe in the repository
-     * by its ID, update its information with the provided {@code Cafe} object, and then save
-     * the updated cafe back to the repository. If no cafe is found with the given ID, an
-     * {@code CafeNotFoundException} is thrown.
+     * Updates an existing cafe with the provided information in a single conditional statement.
+     * The update only applies if the cafe still has the version given in {@code cafe}, which is
+     * the version the client has read; the version is then incremented. Nothing is loaded
+     * beforehand, so the update takes one round trip, and a concurrent update in between is
+     * detected instead of being overwritten. If no row is updated, the cafe is looked up to tell
+     * a missing cafe from a stale version.
      *
-     * @param cafe The {@code Cafe} object containing updated information.
-     * @return The {@code Cafe} object that has been updated and saved to the repository.
-     * @throws CafeNotFoundException If no cafe is found with the specified ID.
+     * @param cafe The {@code Cafe} object containing updated information and the version it is based on.
+     * @return The {@code Cafe} object as it has been saved, with its new version.
+     * @throws ConstraintViolationException If the updated cafe is not valid.
+     * @throws CafeNotFoundException        If no cafe is found with the specified ID.
+     * @throws VersionConflictException     If the cafe has been changed since the given version.
      */
     @Override
+    @Transactional
     public Cafe updateCafe(Cafe cafe) {
-        return cafeRepository.findById(cafe.getId())
-                .map(existingCafe -> {
-                    existingCafe.setName(cafe.getName());
-                    existingCafe.setCity(cafe.getCity());
-                    existingCafe.setAddress(cafe.getAddress());
-                    existingCafe.setEmail(cafe.getEmail());
-                    existingCafe.setPhone(cafe.getPhone());
-                    return cafeRepository.save(existingCafe);
-                })
-                .orElseThrow(() -> new CafeNotFoundException("Cafe not found"));
+        Set<ConstraintViolation<Cafe>> violations = validator.validate(cafe);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        int updated = cafeRepository.updateIfVersion(cafe.getId(), cafe.getVersion(), cafe.getName(),
+                cafe.getCity(), cafe.getAddress(), cafe.getEmail(), cafe.getPhone());
+        if (updated == 0) {
+            if (!cafeRepository.existsById(cafe.getId())) {
+                throw new CafeNotFoundException("Cafe not found");
+            }
+            throw new VersionConflictException("Cafe has been changed by another request");
+        }
+        cafe.setVersion(cafe.getVersion() + 1);
+        eventPublisher.publishEvent(new CafeSavedEvent(cafe));
+        return cafe;
     }
 
     /**
-     * Deletes a cafe from the repository based on the provided ID.
-     * This method overrides the base method to delete a cafe from the underlying
-     * repository using the specified ID.
+     * Deletes a cafe and its pizzas based on the provided ID.
+     * The deletion is set-based: see {@link #deleteCafes(List)}. Nothing is deleted if no cafe
+     * has the specified ID.
      *
      * @param cafeId The unique identifier of the cafe to be deleted.
-     * @throws EmptyResultDataAccessException If no cafe is found with the specified ID.
+     * @return The number of deleted cafes and pizzas.
      */
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     @Override
-    public void deleteCafeById(long cafeId) {
-        try {
-            cafeRepository.deleteById(cafeId);
-        } catch (EmptyResultDataAccessException e) {
-            // Catch the exception that may be thrown if no cafe is found with the specified ID
-            throw new EmptyResultDataAccessException("Cafe not found with ID: " + cafeId, 0);
-        }
+    public DeletedRowsDTO deleteCafeById(long cafeId) {
+        return deleteCafes(cafeRepository.findAddressesById(cafeId));
     }
 
     /**
-     * Deletes a chain of cafes from the repository based on the provided chain name.
-     * This method overrides the base method to delete cafes forming a chain from the
-     * underlying repository using the specified chain name.
+     * Deletes a chain of cafes and all their pizzas based on the provided chain name.
+     * The deletion is set-based: see {@link #deleteCafes(List)}.
      *
      * @param name The name of the cafe chain to be deleted.
+     * @return The number of deleted cafes and pizzas.
      */
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     @Override
-    public void deleteCafeChain(String name) {
-        cafeRepository.deleteCafesByName(name);
+    public DeletedRowsDTO deleteCafeChain(String name) {
+        return deleteCafes(cafeRepository.findAddressesByName(name));
     }
 
     /**
-     * Deletes a cafe from the repository based on the provided name and address.
-     * This method overrides the base method to delete a cafe from the underlying
-     * repository using the specified name and address.
+     * Deletes a cafe and its pizzas based on the provided name and address.
+     * The deletion is set-based: see {@link #deleteCafes(List)}.
      *
      * @param name    The name of the cafe to be deleted.
      * @param address The address of the cafe to be deleted.
+     * @return The number of deleted cafes and pizzas.
      */
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     @Override
-    public void deleteCafeByNameAndAddress(String name, String address) {
-        cafeRepository.deleteCafeByNameAndAddress(name, address);
+    public DeletedRowsDTO deleteCafeByNameAndAddress(String name, String address) {
+        return deleteCafes(cafeRepository.findAddressesByNameAndAddress(name, address));
+    }
+
+    /**
+     * Deletes the given cafes with one bulk statement for their pizzas and one for the cafes
+     * themselves, in the caller's transaction, instead of loading every cafe and cascading to its
+     * pizzas row by row. A {@code CafeDeletedEvent} is published for every deleted cafe, which
+     * also drops its pizzas from the caches and indexes.
+     *
+     * @param cafes The ID, name and address of the cafes to be deleted.
+     * @return The number of deleted cafes and pizzas.
+     */
+    private DeletedRowsDTO deleteCafes(List<CafeAddressEntry> cafes) {
+        if (cafes.isEmpty()) {
+            return DeletedRowsDTO.NONE;
+        }
+        List<Long> ids = cafes.stream().map(CafeAddressEntry::getId).toList();
+        int deletedPizzas = pizzaRepository.deleteAllByCafeIds(ids);
+        int deletedCafes = cafeRepository.deleteAllByIds(ids);
+        for (CafeAddressEntry cafe : cafes) {
+            eventPublisher.publishEvent(new CafeDeletedEvent(cafe.getId(), cafe.getName(), cafe.getAddress()));
+        }
+        return new DeletedRowsDTO(deletedCafes, deletedPizzas);
     }
 }
@@ -1,24 +1,56 @@
 package com.example.pizza.service.implementation;
 
+import com.example.pizza.cache.MenuCache;
+import com.example.pizza.catalog.Catalog;
+import com.example.pizza.catalog.CatalogSnapshot;
+import com.example.pizza.columnar.PizzaColumnStore;
+import com.example.pizza.datasource.PrimaryPinning;
 import com.example.pizza.domain.entity.Cafe;
 import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.DeletedRowsDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.dto.PizzaPriceStatsDTO;
+import com.example.pizza.dto.PizzaSearchResultDTO;
+import com.example.pizza.dto.VersionStamp;
+import com.example.pizza.event.PizzaDeletedEvent;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.event.PizzaUpdatedEvent;
 import com.example.pizza.exception.exceptions.CafeNotFoundException;
 import com.example.pizza.exception.exceptions.EmptyPizzaListException;
+import com.example.pizza.exception.exceptions.InvalidPizzaBatchException;
 import com.example.pizza.exception.exceptions.PizzaNotFoundException;
+import com.example.pizza.exception.exceptions.SearchUnavailableException;
+import com.example.pizza.exception.exceptions.VersionConflictException;
+import com.example.pizza.index.IngredientIndex;
 import com.example.pizza.repository.CafeRepository;
 import com.example.pizza.repository.PizzaRepository;
 import com.example.pizza.service.interfaces.PizzaService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 /**
  * Implementation of the {@code PizzaService} interface providing pizza-related functionalities.
  * This service class interacts with the underlying {@code PizzaRepository} and {@code CafeRepository}
  * to perform operations related to pizzas and cafes.
+ * Reads return read-only {@code PizzaDTO} views built by projection queries, which run in
+ * read-only transactions and load no managed entity.
+ * With {@code pizza.catalog.read-mode=snapshot}, the reads are served from the in-memory
+ * {@code CatalogSnapshot} instead of the menu cache. Ingredient searches are answered by the
+ * in-memory {@code IngredientIndex}, and price and size filters by the {@code PizzaColumnStore}.
  *
  * @see PizzaService
  * @see PizzaRepository
@@ -27,6 +59,8 @@ import java.util.List;
 @Service
 public class PizzaServiceImpl implements PizzaService {
 
+    static final int MAX_SEARCH_LIMIT = 500;
+
     /**
      * Repository for managing pizza entities.
      */
@@ -39,20 +73,57 @@ public class PizzaServiceImpl implements PizzaService {
     @Autowired
     private CafeRepository cafeRepository;
 
+    /**
+     * Cache of cafe menus serving the per-cafe reads.
+     */
+    @Autowired
+    private MenuCache menuCache;
+
+    /**
+     * In-memory catalog the reads are served from when the snapshot read mode is selected.
+     */
+    @Autowired
+    private Catalog catalog;
+
+    /**
+     * Inverted index from ingredient to pizza serving the ingredient search.
+     */
+    @Autowired
+    private IngredientIndex ingredientIndex;
+
+    /**
+     * Columnar projection of all pizzas serving the price and size filters and statistics.
+     */
+    @Autowired
+    private PizzaColumnStore columnStore;
+
+    /**
+     * Publisher for the events that keep indexes and caches in step with pizza writes.
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Bean Validation used to check a whole batch of pizzas before anything is inserted, and an
+     * updated pizza, as the conditional update bypasses the validation done when an entity is saved.
+     */
+    @Autowired
+    private Validator validator;
+
     /**
      * Retrieves a list of pizzas available in a specific cafe.
-     * This method fetches a list of pizzas from the {@code PizzaRepository} based on the provided
-     * cafe name and address. If no pizzas are found for the specified cafe, an
+     * This method takes the menu of the cafe from the {@code MenuCache}, loading it from the
+     * {@code PizzaRepository} on a miss. If no pizzas are found for the specified cafe, an
      * {@code EmptyPizzaListException} is thrown.
      *
      * @param cafeName    The name of the cafe where pizzas are to be retrieved.
      * @param cafeAddress The address of the cafe where pizzas are to be retrieved.
-     * @return A {@code List} containing pizzas available in the specified cafe.
+     * @return A {@code List} containing views of the pizzas available in the specified cafe, ordered by ID.
      * @throws EmptyPizzaListException If no pizzas are found for the specified cafe.
      */
     @Override
-    public List<Pizza> getAllInCafe(String cafeName, String cafeAddress) {
-        List<Pizza> pizzaList = pizzaRepository.findByCafe_NameAndCafe_Address(cafeName, cafeAddress);
+    public List<PizzaDTO> getAllInCafe(String cafeName, String cafeAddress) {
+        List<PizzaDTO> pizzaList = getMenu(cafeName, cafeAddress);
         if (pizzaList.isEmpty()) {
             // Check if the retrieved pizza list is empty
             throw new EmptyPizzaListException("The list of pizzas is empty");
@@ -60,47 +131,125 @@ public class PizzaServiceImpl implements PizzaService {
         return pizzaList;
     }
 
+    /**
+     * Retrieves the version stamp of the menu of a cafe.
+     * The stamp is computed by the database without loading any pizza, and changes whenever a
+     * pizza of the cafe is added, updated or deleted.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     * @return The current {@code VersionStamp} of the menu.
+     */
+    @Override
+    public VersionStamp getMenuVersion(String cafeName, String cafeAddress) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        return snapshot != null
+                ? snapshot.getMenuVersion(cafeName, cafeAddress)
+                : pizzaRepository.findMenuVersionStamp(cafeName, cafeAddress);
+    }
+
+    /**
+     * Searches the pizzas of all cafes by ingredient.
+     * The matching pizza IDs are found in the {@code IngredientIndex} without touching the
+     * database, and only the returned page of pizzas is then read by primary key. The requested
+     * limit is clamped to the range {@code [1, MAX_SEARCH_LIMIT]}.
+     *
+     * @param ingredients The ingredients to search for.
+     * @param city        The city the cafe of a pizza must be in, or null for any city.
+     * @param match       Whether a pizza must contain all or any of the ingredients.
+     * @param limit       The maximum number of pizzas to return.
+     * @return The number of matching pizzas and the first {@code limit} of them.
+     * @throws SearchUnavailableException If the ingredient index is disabled or not loaded yet.
+     */
+    @Override
+    public PizzaSearchResultDTO searchByIngredients(List<String> ingredients, String city,
+                                                    IngredientIndex.Match match, int limit) {
+        if (!ingredientIndex.isReady()) {
+            throw new SearchUnavailableException("Ingredient search is not available");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT);
+        IngredientIndex.Hits hits = ingredientIndex.search(ingredients, city, match, pageSize);
+        return new PizzaSearchResultDTO(hits.total(), findAllInOrder(hits.pizzaIds()));
+    }
+
+    /**
+     * Filters the pizzas of all cafes by size, cafe city and price range.
+     * The matching pizza IDs are found and ordered in the {@code PizzaColumnStore} without
+     * touching the database, and only the returned page of pizzas is then read by primary key.
+     * The requested limit is clamped to the range {@code [1, MAX_SEARCH_LIMIT]}.
+     *
+     * @param filter The conditions the pizzas must meet.
+     * @param sort   The order of the returned pizzas.
+     * @param limit  The maximum number of pizzas to return.
+     * @return The number of matching pizzas and the first {@code limit} of them.
+     * @throws SearchUnavailableException If the column store is disabled or not loaded yet.
+     */
+    @Override
+    public PizzaSearchResultDTO filterPizzas(PizzaColumnStore.Filter filter, PizzaColumnStore.Sort sort, int limit) {
+        if (!columnStore.isReady()) {
+            throw new SearchUnavailableException("Pizza filtering is not available");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT);
+        PizzaColumnStore.Rows rows = columnStore.filter(filter, sort, pageSize);
+        return new PizzaSearchResultDTO(rows.total(), findAllInOrder(rows.pizzaIds()));
+    }
+
+    /**
+     * Computes the minimum, average and maximum price of the pizzas meeting a filter, optionally
+     * grouped by size or cafe city. The statistics are computed by the {@code PizzaColumnStore}
+     * without touching the database.
+     *
+     * @param filter  The conditions the pizzas must meet.
+     * @param groupBy The column to group the statistics by.
+     * @return The price statistics of every non-empty group, or of all matching pizzas.
+     * @throws SearchUnavailableException If the column store is disabled or not loaded yet.
+     */
+    @Override
+    public List<PizzaPriceStatsDTO> getPriceStats(PizzaColumnStore.Filter filter, PizzaColumnStore.GroupBy groupBy) {
+        if (!columnStore.isReady()) {
+            throw new SearchUnavailableException("Pizza statistics are not available");
+        }
+        return columnStore.priceStats(filter, groupBy);
+    }
+
     /**
      * Retrieves a specific pizza from a cafe based on the provided pizza name and cafe details.
-     * This method fetches a pizza from the {@code PizzaRepository} using the specified pizza name,
-     * cafe name, and cafe address. If no pizza is found with the provided details, a
+     * This method looks the pizza up by name in the cached menu of the cafe with the specified
+     * name and address. If no pizza is found with the provided details, a
      * {@code PizzaNotFoundException} is thrown.
      *
      * @param name        The name of the pizza to be retrieved.
      * @param cafeName    The name of the cafe where the pizza is expected to be available.
      * @param cafeAddress The address of the cafe where the pizza is expected to be available.
-     * @return The {@code Pizza} object corresponding to the provided name, cafe name, and cafe address.
+     * @return The view of the pizza corresponding to the provided name, cafe name, and cafe address.
      * @throws PizzaNotFoundException If no pizza is found with the specified name, cafe name, and cafe address.
      */
     @Override
-    public Pizza getPizzaByName(String name, String cafeName, String cafeAddress) {
-        Pizza pizza = pizzaRepository.findByCafe_NameAndCafe_AddressAndName(name, cafeName, cafeAddress);
-        if (pizza == null) {
-            // Check if the retrieved pizza is null
-            throw new PizzaNotFoundException("Pizza not found");
-        }
-        return pizza;
+    public PizzaDTO getPizzaByName(String name, String cafeName, String cafeAddress) {
+        return getMenu(cafeName, cafeAddress).stream()
+                .filter(pizza -> pizza.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new PizzaNotFoundException("Pizza not found"));
     }
 
     /**
      * Retrieves a specific pizza from a cafe based on the provided cafe details and pizza ID.
-     * This method fetches a pizza from the {@code PizzaRepository} using the specified cafe name,
-     * cafe address, and pizza ID. If no pizza is found with the provided details, a
+     * This method looks the pizza up by ID in the cached menu of the cafe with the specified
+     * name and address. If no pizza is found with the provided details, a
      * {@code PizzaNotFoundException} is thrown.
      *
      * @param cafeName    The name of the cafe where the pizza is expected to be available.
      * @param cafeAddress The address of the cafe where the pizza is expected to be available.
      * @param id          The unique identifier of the pizza to be retrieved.
-     * @return The {@code Pizza} object corresponding to the provided cafe details and pizza ID.
+     * @return The view of the pizza corresponding to the provided cafe details and pizza ID.
      * @throws PizzaNotFoundException If no pizza is found with the specified cafe details and pizza ID.
      */
     @Override
-    public Pizza getPizzaById(String cafeName, String cafeAddress, long id) {
-        Pizza pizza = pizzaRepository.findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, id);
-        if (pizza == null) {
-            throw new PizzaNotFoundException("Pizza not found");
-        }
-        return pizza;
+    public PizzaDTO getPizzaById(String cafeName, String cafeAddress, long id) {
+        return getMenu(cafeName, cafeAddress).stream()
+                .filter(pizza -> pizza.id() == id)
+                .findFirst()
+                .orElseThrow(() -> new PizzaNotFoundException("Pizza not found"));
     }
 
     /**
@@ -116,6 +265,7 @@ public class PizzaServiceImpl implements PizzaService {
      * @throws CafeNotFoundException If no cafe is found with the specified name and address.
      */
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     @Override
     public void addPizza(Pizza pizza, String cafeName, String cafeAddress) {
         Cafe cafe = cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress);
@@ -124,71 +274,179 @@ public class PizzaServiceImpl implements PizzaService {
         if (cafe != null) {
             pizza.setCafe(cafe);
             pizzaRepository.save(pizza);
+            eventPublisher.publishEvent(new PizzaSavedEvent(pizza, cafeName, cafeAddress));
         } else {
             throw new CafeNotFoundException("Cafe not found");
         }
     }
 
     /**
-     * Updates an existing pizza in a cafe based on the provided cafe details.
-     * This method fetches the cafe from the {@code CafeRepository} using the specified cafe name
-     * and address. If the cafe is found, it further checks for the existence of the pizza with the
-     * provided pizza ID in the cafe. If the pizza is found, its details are updated with the information
-     * from the provided pizza object, and the updated pizza is saved to the {@code PizzaRepository}.
-     * If the cafe is not found, a {@code CafeNotFoundException} is thrown. If the pizza is not found in
-     * the specified cafe, a {@code PizzaNotFoundException} is thrown.
+     * Adds a batch of new pizzas to a cafe in a single transaction.
+     * The cafe is looked up once. Every pizza is then validated up front against its Bean
+     * Validation constraints, and its name is checked against the other pizzas in the batch and
+     * the names already stored; if anything is wrong, nothing is inserted and an
+     * {@code InvalidPizzaBatchException} listing every problem is thrown. Valid batches are
+     * inserted with JDBC statement batching through {@code PizzaRepository#insertAll}.
      *
-     * @param pizza       The {@code Pizza} object containing updated information.
-     * @param cafeName    The name of the cafe where the pizza is expected to be available.
-     * @param cafeAddress The address of the cafe where the pizza is expected to be available.
-     * @throws CafeNotFoundException  If no cafe is found with the specified name and address.
-     * @throws PizzaNotFoundException If no pizza is found with the specified ID in the specified cafe.
+     * @param pizzas      The pizzas to be added to the cafe.
+     * @param cafeName    The name of the cafe to which the pizzas are to be added.
+     * @param cafeAddress The address of the cafe to which the pizzas are to be added.
+     * @return The number of pizzas added.
+     * @throws CafeNotFoundException       If no cafe is found with the specified name and address.
+     * @throws InvalidPizzaBatchException If the batch is empty or any pizza in it is invalid.
      */
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     @Override
-    public void updatePizza(Pizza pizza, String cafeName, String cafeAddress) {
+    public int addPizzas(List<Pizza> pizzas, String cafeName, String cafeAddress) {
+        if (pizzas == null || pizzas.isEmpty()) {
+            throw new InvalidPizzaBatchException("The list of pizzas is empty");
+        }
         Cafe cafe = cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress);
+        if (cafe == null) {
+            throw new CafeNotFoundException("Cafe not found");
+        }
 
-        // Check if the retrieved cafe is not null
-        if (cafe != null) {
-            Pizza existingPizza = pizzaRepository.findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, pizza.getId());
+        List<String> errors = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < pizzas.size(); i++) {
+            Pizza pizza = pizzas.get(i);
+            for (ConstraintViolation<Pizza> violation : validator.validate(pizza)) {
+                errors.add("pizzas[" + i + "]." + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+            if (pizza.getName() != null && !names.add(pizza.getName())) {
+                errors.add("pizzas[" + i + "].name: duplicate name in batch");
+            }
+        }
+        for (String existingName : pizzaRepository.findExistingNames(names)) {
+            errors.add("Pizza with name '" + existingName + "' already exists");
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidPizzaBatchException(String.join("; ", errors));
+        }
+
+        for (Pizza pizza : pizzas) {
+            pizza.setCafe(cafe);
+        }
+        pizzaRepository.insertAll(pizzas);
+        for (Pizza pizza : pizzas) {
+            eventPublisher.publishEvent(new PizzaSavedEvent(pizza, cafeName, cafeAddress));
+        }
+        return pizzas.size();
+    }
 
-            // Check if the retrieved pizza is not null
-            if (existingPizza == null) {
+    /**
+     * Updates an existing pizza in a cafe in a single conditional statement.
+     * The update only applies if the pizza belongs to the cafe with the specified name and address
+     * and still has the version given in {@code pizza}, which is the version the client has read;
+     * the version is then incremented. Neither the cafe nor the pizza is loaded beforehand, so the
+     * update takes one round trip, and a concurrent update in between is detected instead of being
+     * overwritten. If no row is updated, the cafe and the pizza are looked up to tell which
+     * condition failed.
+     *
+     * @param pizza       The {@code Pizza} object containing updated information and the version it is based on.
+     * @param cafeName    The name of the cafe where the pizza is expected to be available.
+     * @param cafeAddress The address of the cafe where the pizza is expected to be available.
+     * @throws ConstraintViolationException If the updated pizza is not valid.
+     * @throws CafeNotFoundException        If no cafe is found with the specified name and address.
+     * @throws PizzaNotFoundException       If no pizza is found with the specified ID in the specified cafe.
+     * @throws VersionConflictException     If the pizza has been changed since the given version.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @Override
+    @Transactional
+    public void updatePizza(Pizza pizza, String cafeName, String cafeAddress) {
+        Set<ConstraintViolation<Pizza>> violations = validator.validate(pizza);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        int updated = pizzaRepository.updateIfVersion(pizza.getId(), pizza.getVersion(), pizza.getName(),
+                pizza.getPrice(), pizza.getSize(), pizza.getIngredients(), cafeName, cafeAddress);
+        if (updated == 0) {
+            if (!cafeRepository.existsByNameAndAddress(cafeName, cafeAddress)) {
+                throw new CafeNotFoundException("Cafe not found");
+            }
+            if (!pizzaRepository.existsByIdAndCafe_NameAndCafe_Address(pizza.getId(), cafeName, cafeAddress)) {
                 throw new PizzaNotFoundException("Pizza not found");
             }
-            existingPizza.setName(pizza.getName());
-            existingPizza.setPrice(pizza.getPrice());
-            existingPizza.setSize(pizza.getSize());
-            existingPizza.setIngredients(pizza.getIngredients());
-            existingPizza.setCafe(cafe);
-
-            pizzaRepository.save(existingPizza);
-        } else {
-            throw new CafeNotFoundException("Cafe not found");
+            throw new VersionConflictException("Pizza has been changed by another request");
         }
+        pizza.setVersion(pizza.getVersion() + 1);
+        eventPublisher.publishEvent(new PizzaUpdatedEvent(pizza, cafeName, cafeAddress));
     }
 
     /**
      * Deletes pizzas with a specific name from a cafe based on the provided cafe details.
      * This method fetches the cafe from the {@code CafeRepository} using the specified cafe name
-     * and address. If the cafe is found, it further deletes pizzas with the provided name from the
-     * specified cafe using the {@code PizzaRepository}. If the cafe is not found, a
-     * {@code CafeNotFoundException} is thrown.
+     * and address. If the cafe is found, the IDs of its pizzas with the provided name are looked
+     * up and the pizzas are removed with a single bulk statement, without loading them. If the
+     * cafe is not found, a {@code CafeNotFoundException} is thrown.
      *
      * @param cafeName    The name of the cafe from which pizzas are to be deleted.
      * @param cafeAddress The address of the cafe from which pizzas are to be deleted.
      * @param name        The name of the pizzas to be deleted.
+     * @return The number of deleted pizzas.
      * @throws CafeNotFoundException If no cafe is found with the specified name and address.
      */
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     @Override
-    public void deleteByName(String cafeName, String cafeAddress, String name) {
+    public DeletedRowsDTO deleteByName(String cafeName, String cafeAddress, String name) {
         Cafe cafe = cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress);
-        if (cafe != null) {
-            pizzaRepository.deletePizzaByNameAndCafe(name, cafe);
-        } else {
+        if (cafe == null) {
             throw new CafeNotFoundException("Cafe not found");
         }
+        List<Long> ids = pizzaRepository.findIdsByNameAndCafeId(name, cafe.getId());
+        if (ids.isEmpty()) {
+            return DeletedRowsDTO.NONE;
+        }
+        int deleted = pizzaRepository.deleteAllByIds(ids);
+        for (Long id : ids) {
+            eventPublisher.publishEvent(new PizzaDeletedEvent(id, cafeName, cafeAddress));
+        }
+        return new DeletedRowsDTO(0, deleted);
+    }
+
+    /**
+     * Read pizzas by primary key in a single projection query and return them in the order of
+     * their IDs. A pizza deleted since its ID was found is left out.
+     *
+     * @param ids The IDs of the pizzas.
+     * @return Views of the pizzas that still exist, in the order of {@code ids}.
+     */
+    private List<PizzaDTO> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PizzaDTO> pizzasById = new HashMap<>();
+        for (PizzaDTO pizza : pizzaRepository.findDtosByIds(ids)) {
+            pizzasById.put(pizza.id(), pizza);
+        }
+        List<PizzaDTO> pizzas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PizzaDTO pizza = pizzasById.get(id);
+            if (pizza != null) {
+                pizzas.add(pizza);
+            }
+        }
+        return pizzas;
+    }
+
+    /**
+     * Get the menu of a cafe from the catalog snapshot when it is in use, and otherwise from the
+     * {@code MenuCache}, loading it from the repository on a miss. The load reads the primary,
+     * so a menu invalidated by a write is not refilled from a lagging replica.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     * @return An unmodifiable list of views of the pizzas in the cafe.
+     */
+    private List<PizzaDTO> getMenu(String cafeName, String cafeAddress) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        if (snapshot != null) {
+            return snapshot.getMenu(cafeName, cafeAddress);
+        }
+        return menuCache.getMenu(cafeName, cafeAddress,
+                () -> PrimaryPinning.pinned(() -> pizzaRepository.findMenuDtos(cafeName, cafeAddress)));
     }
 }
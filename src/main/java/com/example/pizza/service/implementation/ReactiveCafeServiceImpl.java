@@ -0,0 +1,49 @@
+package com.example.pizza.service.implementation;
+
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.exception.exceptions.EmptyCafeListException;
+import com.example.pizza.repository.ReactiveCafeRepository;
+import com.example.pizza.service.interfaces.ReactiveCafeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Implementation of the {@code ReactiveCafeService} interface serving cafe reads without blocking.
+ * It answers the same queries as {@code CafeServiceImpl} through the {@code ReactiveCafeRepository},
+ * and signals the same exceptions as errors of the returned {@code Flux}.
+ *
+ * @see ReactiveCafeService
+ * @see CafeServiceImpl
+ */
+@Service
+public class ReactiveCafeServiceImpl implements ReactiveCafeService {
+
+    @Autowired
+    private ReactiveCafeRepository cafeRepository;
+
+    /**
+     * Retrieves all cafes.
+     *
+     * @return A {@code Flux} of all cafes, ordered by ID.
+     * @throws EmptyCafeListException As an error signal if there are no cafes.
+     */
+    @Override
+    public Flux<CafeDTO> getAllCafes() {
+        return cafeRepository.findAll()
+                .switchIfEmpty(Flux.error(() -> new EmptyCafeListException("The list of cafes is empty")));
+    }
+
+    /**
+     * Retrieves the cafes forming the chain with the specified name.
+     *
+     * @param name The name of the cafe chain.
+     * @return A {@code Flux} of the cafes in the chain, ordered by ID.
+     * @throws EmptyCafeListException As an error signal if there is no chain with the specified name.
+     */
+    @Override
+    public Flux<CafeDTO> getCafeChain(String name) {
+        return cafeRepository.findCafesByName(name)
+                .switchIfEmpty(Flux.error(() -> new EmptyCafeListException("Can not find cafe chain with the following name")));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.pizza.service.implementation;
+
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.exception.exceptions.EmptyPizzaListException;
+import com.example.pizza.repository.ReactivePizzaRepository;
+import com.example.pizza.service.interfaces.ReactivePizzaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Implementation of the {@code ReactivePizzaService} interface serving pizza reads without blocking.
+ * It answers the same queries as {@code PizzaServiceImpl} through the {@code ReactivePizzaRepository},
+ * and signals the same exceptions as errors of the returned {@code Flux}.
+ *
+ * @see ReactivePizzaService
+ * @see PizzaServiceImpl
+ */
+@Service
+public class ReactivePizzaServiceImpl implements ReactivePizzaService {
+
+    @Autowired
+    private ReactivePizzaRepository pizzaRepository;
+
+    /**
+     * Retrieves the menu of the cafe with the specified name and address.
+     *
+     * @param cafeName    The name of the cafe.
+     * @param cafeAddress The address of the cafe.
+     * @return A {@code Flux} of the pizzas in the cafe, ordered by ID.
+     * @throws EmptyPizzaListException As an error signal if no pizzas are found for the specified cafe.
+     */
+    @Override
+    public Flux<PizzaDTO> getAllInCafe(String cafeName, String cafeAddress) {
+        return pizzaRepository.findByCafeNameAndCafeAddress(cafeName, cafeAddress)
+                .switchIfEmpty(Flux.error(() -> new EmptyPizzaListException("The list of pizzas is empty")));
+    }
+}
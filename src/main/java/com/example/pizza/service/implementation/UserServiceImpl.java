@@ -1,17 +1,24 @@
 package com.example.pizza.service.implementation;
 
+import com.example.pizza.cache.AuthenticationCache;
 import com.example.pizza.domain.authorization.Role;
 import com.example.pizza.domain.authorization.User;
+import com.example.pizza.dto.UserCredentialsEntry;
 import com.example.pizza.repository.RoleRepository;
 import com.example.pizza.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 @Service
@@ -34,10 +41,14 @@ public class UserServiceImpl implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
     /**
      * Load user details by username.
-     * This method retrieves user details from the underlying {@code UserRepository} based on
-     * the provided username. If no user is found with the specified username, a
+     * This method reads the username, password hash and role names of the user from the
+     * underlying {@code UserRepository} in a single query, so the cost of a login does not depend
+     * on how many other users share its roles. If no user is found with the specified username, a
      * {@code UsernameNotFoundException} is thrown.
      *
      * @param username The username of the user whose details are to be loaded.
@@ -46,15 +57,26 @@ public class UserServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserDetails user = repository.findByUsername(username);
-        if (user == null) {
+        List<UserCredentialsEntry> credentials = repository.findCredentialsByUsername(username);
+        if (credentials.isEmpty()) {
             throw new UsernameNotFoundException("User not found!");
         }
 
-        return user;
+        List<GrantedAuthority> authorities = new ArrayList<>(credentials.size());
+        for (UserCredentialsEntry entry : credentials) {
+            if (entry.getRoleName() != null) {
+                authorities.add(new SimpleGrantedAuthority(entry.getRoleName()));
+            }
+        }
+        UserCredentialsEntry user = credentials.get(0);
+        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+                .password(user.getPassword())
+                .authorities(authorities)
+                .build();
     }
 
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public void createUser(String username, String password, Set<String> roleNames) {
         // Создание нового объекта пользователя
         User user = new User();
@@ -78,5 +100,8 @@ public class UserServiceImpl implements UserDetailsService {
 
         // Сохранение нового пользователя в репозитории
         repository.save(user);
+
+        // Drop any credentials cached for this username so the next request is verified again
+        authenticationCache.invalidate(username);
     }
 }
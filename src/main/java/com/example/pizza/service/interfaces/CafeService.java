@@ -1,25 +1,38 @@
 package com.example.pizza.service.interfaces;
 
 import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.CatalogExportRow;
+import com.example.pizza.dto.DeletedRowsDTO;
+import com.example.pizza.dto.VersionStamp;
 import jakarta.validation.Valid;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CafeService {
-    List<Cafe> getAllCafes();
+    List<CafeDTO> getAllCafes();
 
-    Cafe getCafeByNameAndAddress(String name, String address);
+    VersionStamp getAllCafesVersion();
 
-    Cafe getCafeById(long id);
-    List<Cafe> getCafeChain(String name);
+    List<CafeDTO> getCafesAfter(long afterId, int limit);
+
+    void forEachCafe(Consumer<CafeDTO> action);
+
+    void forEachExportRow(Consumer<CatalogExportRow> action);
+
+    CafeDTO getCafeByNameAndAddress(String name, String address);
+
+    CafeDTO getCafeById(long id);
+    List<CafeDTO> getCafeChain(String name);
 
     Cafe createCafe(@Valid Cafe cafe);
 
     Cafe updateCafe(@Valid Cafe cafe);
 
-    void deleteCafeById(long cafeId);
+    DeletedRowsDTO deleteCafeById(long cafeId);
 
-    void deleteCafeChain(String name);
-    void deleteCafeByNameAndAddress(String name, String address);
+    DeletedRowsDTO deleteCafeChain(String name);
+    DeletedRowsDTO deleteCafeByNameAndAddress(String name, String address);
 
 }
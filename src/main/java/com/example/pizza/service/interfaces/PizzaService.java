@@ -1,20 +1,38 @@
 package com.example.pizza.service.interfaces;
 
+import com.example.pizza.columnar.PizzaColumnStore;
 import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.DeletedRowsDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.dto.PizzaPriceStatsDTO;
+import com.example.pizza.dto.PizzaSearchResultDTO;
+import com.example.pizza.dto.VersionStamp;
+import com.example.pizza.index.IngredientIndex;
 import jakarta.validation.Valid;
 
 import java.util.List;
 
 public interface PizzaService {
-    List<Pizza> getAllInCafe(String cafeName, String cafeAddress);
+    List<PizzaDTO> getAllInCafe(String cafeName, String cafeAddress);
 
-    Pizza getPizzaByName(String name, String cafeName, String cafeAddress);
+    VersionStamp getMenuVersion(String cafeName, String cafeAddress);
 
-    Pizza getPizzaById(String cafeName, String cafeAddress, long id);
+    PizzaSearchResultDTO searchByIngredients(List<String> ingredients, String city, IngredientIndex.Match match,
+                                             int limit);
+
+    PizzaSearchResultDTO filterPizzas(PizzaColumnStore.Filter filter, PizzaColumnStore.Sort sort, int limit);
+
+    List<PizzaPriceStatsDTO> getPriceStats(PizzaColumnStore.Filter filter, PizzaColumnStore.GroupBy groupBy);
+
+    PizzaDTO getPizzaByName(String name, String cafeName, String cafeAddress);
+
+    PizzaDTO getPizzaById(String cafeName, String cafeAddress, long id);
 
     void addPizza(@Valid Pizza pizza, String cafeName, String cafeAddress);
 
+    int addPizzas(List<Pizza> pizzas, String cafeName, String cafeAddress);
+
     void updatePizza(@Valid Pizza pizza,String cafeName, String cafeAddress);
 
-    void deleteByName(String cafeName, String cafeAddress, String name);
+    DeletedRowsDTO deleteByName(String cafeName, String cafeAddress, String name);
 }
@@ -0,0 +1,10 @@
+package com.example.pizza.service.interfaces;
+
+import com.example.pizza.dto.CafeDTO;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveCafeService {
+    Flux<CafeDTO> getAllCafes();
+
+    Flux<CafeDTO> getCafeChain(String name);
+}
@@ -0,0 +1,8 @@
+package com.example.pizza.service.interfaces;
+
+import com.example.pizza.dto.PizzaDTO;
+import reactor.core.publisher.Flux;
+
+public interface ReactivePizzaService {
+    Flux<PizzaDTO> getAllInCafe(String cafeName, String cafeAddress);
+}
@@ -0,0 +1,15 @@
+package com.example.pizza.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Checks {@link CapitalizedWords} with {@link FieldConstraints#isCapitalizedWords(CharSequence)}.
+ */
+public class CapitalizedWordsValidator implements ConstraintValidator<CapitalizedWords, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || FieldConstraints.isCapitalizedWords(value);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.pizza.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Checks {@link CityName} with {@link FieldConstraints#isCityName(CharSequence)}.
+ */
+public class CityNameValidator implements ConstraintValidator<CityName, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || FieldConstraints.isCityName(value);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.pizza.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * The annotated string must be an email address of word characters and dots.
+ * It accepts and rejects exactly what {@code @Pattern} with the expression
+ * {@link FieldConstraints#EMAIL_ADDRESS} would, with the same message, but is checked without a regular expression.
+ * {@code null} is valid.
+ */
+@Documented
+@Constraint(validatedBy = EmailAddressValidator.class)
+@Target({FIELD, METHOD, PARAMETER, ANNOTATION_TYPE, TYPE_USE})
+@Retention(RUNTIME)
+public @interface EmailAddress {
+
+    /**
+     * The equivalent regular expression, only used in the message.
+     */
+    String regexp() default FieldConstraints.EMAIL_ADDRESS;
+
+    String message() default "{jakarta.validation.constraints.Pattern.message}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
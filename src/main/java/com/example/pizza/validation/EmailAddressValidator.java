@@ -0,0 +1,15 @@
+package com.example.pizza.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Checks {@link EmailAddress} with {@link FieldConstraints#isEmailAddress(CharSequence)}.
+ */
+public class EmailAddressValidator implements ConstraintValidator<EmailAddress, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || FieldConstraints.isEmailAddress(value);
+    }
+}
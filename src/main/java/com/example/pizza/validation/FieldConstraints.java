@@ -0,0 +1,129 @@
+package com.example.pizza.validation;
+
+/**
+ * Hand-written checks equivalent to the regular expressions the cafe and pizza fields used to be
+ * validated with. Each check scans the characters of the value once, without allocating, and
+ * accepts exactly the strings its regular expression matches in full. Java regular expressions
+ * are used without {@code UNICODE_CHARACTER_CLASS}, so {@code \w}, {@code \d} and {@code \s}
+ * only match ASCII characters, and so do these checks.
+ */
+public final class FieldConstraints {
+
+    /**
+     * A capital letter followed by letters and white space, as in a cafe or pizza name or a cafe address.
+     */
+    public static final String CAPITALIZED_WORDS = "^[A-Z][a-zA-Z\\s]*$";
+
+    /**
+     * A capital letter followed by 2 to 49 lowercase letters.
+     */
+    public static final String CITY_NAME = "[A-Z][a-z]{2,49}";
+
+    /**
+     * Word characters and dots, an {@code @}, then a letter followed by word characters and dots.
+     */
+    public static final String EMAIL_ADDRESS = "[\\w.]+@[a-zA-Z]+[\\w.]*";
+
+    /**
+     * A {@code +} followed by at least one digit.
+     */
+    public static final String PHONE_NUMBER = "\\+\\d+";
+
+    private FieldConstraints() {
+    }
+
+    /**
+     * @see #CAPITALIZED_WORDS
+     */
+    public static boolean isCapitalizedWords(CharSequence value) {
+        int length = value.length();
+        if (length == 0 || !isUpper(value.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            char c = value.charAt(i);
+            if (!isLetter(c) && !isSpace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see #CITY_NAME
+     */
+    public static boolean isCityName(CharSequence value) {
+        int length = value.length();
+        if (length < 3 || length > 50 || !isUpper(value.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if (!isLower(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see #EMAIL_ADDRESS
+     */
+    public static boolean isEmailAddress(CharSequence value) {
+        int length = value.length();
+        int at = 0;
+        while (at < length && isWordOrDot(value.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at + 1 >= length || value.charAt(at) != '@' || !isLetter(value.charAt(at + 1))) {
+            return false;
+        }
+        for (int i = at + 2; i < length; i++) {
+            if (!isWordOrDot(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see #PHONE_NUMBER
+     */
+    public static boolean isPhoneNumber(CharSequence value) {
+        int length = value.length();
+        if (length < 2 || value.charAt(0) != '+') {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLower(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isLetter(char c) {
+        return isUpper(c) || isLower(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // \s: space, tab, line feed, vertical tab, form feed and carriage return
+    private static boolean isSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    // [\w.]
+    private static boolean isWordOrDot(char c) {
+        return isLetter(c) || isDigit(c) || c == '_' || c == '.';
+    }
+}
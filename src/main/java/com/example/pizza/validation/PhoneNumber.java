@@ -0,0 +1,35 @@
+package com.example.pizza.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * The annotated string must be a {@code +} followed by digits.
+ * It accepts and rejects exactly what {@code @Pattern} with the expression
+ * {@link FieldConstraints#PHONE_NUMBER} would, with the same message, but is checked without a regular expression.
+ * {@code null} is valid.
+ */
+@Documented
+@Constraint(validatedBy = PhoneNumberValidator.class)
+@Target({FIELD, METHOD, PARAMETER, ANNOTATION_TYPE, TYPE_USE})
+@Retention(RUNTIME)
+public @interface PhoneNumber {
+
+    /**
+     * The equivalent regular expression, only used in the message.
+     */
+    String regexp() default FieldConstraints.PHONE_NUMBER;
+
+    String message() default "{jakarta.validation.constraints.Pattern.message}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,15 @@
+package com.example.pizza.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Checks {@link PhoneNumber} with {@link FieldConstraints#isPhoneNumber(CharSequence)}.
+ */
+public class PhoneNumberValidator implements ConstraintValidator<PhoneNumber, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || FieldConstraints.isPhoneNumber(value);
+    }
+}
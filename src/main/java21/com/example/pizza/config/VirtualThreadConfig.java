@@ -0,0 +1,52 @@
+package com.example.pizza.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration of the virtual-thread execution mode.
+ * Servlet requests are run by Tomcat on a new virtual thread each, and asynchronous MVC request
+ * processing runs on virtual threads through the application task executor.
+ * A request blocked on MySQL or on BCrypt then parks its virtual thread instead of holding one of
+ * Tomcat's platform threads, so the number of in-flight requests is no longer capped by
+ * {@code server.tomcat.threads.max} but by the connection pool.
+ * <p>
+ * This class is only compiled by the {@code java21} Maven profile and is switched on with
+ * {@code pizza.threads.virtual.enabled=true}, which the {@code virtual-threads} Spring profile sets.
+ * Pinned virtual threads can be reported with {@code -Djdk.tracePinnedThreads=short}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "pizza.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * Replaces the Tomcat request thread pool with a virtual thread per request.
+     *
+     * @return A customizer installing the virtual-thread executor on the protocol handler.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory()));
+    }
+
+    /**
+     * Provides the application task executor on virtual threads, used for asynchronous request
+     * processing in place of the auto-configured thread pool.
+     *
+     * @return An executor starting a virtual thread per task.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-vt-", 0).factory()));
+    }
+}
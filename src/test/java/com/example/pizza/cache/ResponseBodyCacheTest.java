@@ -0,0 +1,188 @@
+package com.example.pizza.cache;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import com.example.pizza.service.interfaces.PizzaService;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the cafe list and menus are served from the cached bytes, in the negotiated format
+ * and encoding, and that pizza and cafe writes replace them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ResponseBodyCacheTest {
+
+    private static final String MENU = "/pizza/all/Pepe/Khreshchatyk";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResponseBodyCache responseCache;
+
+    @Autowired
+    private PizzaService pizzaService;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @BeforeEach
+    void setUp() {
+        cafeRepository.save(new Cafe("Pepe", "Kyiv", "pepe@example.com", "+380501234567", "Khreshchatyk"));
+        pizzaService.addPizzas(List.of(
+                new Pizza("Margherita", 10, "Large", "Tomato, mozzarella, basil"),
+                new Pizza("Pepperoni", 12, "Large", "Tomato, mozzarella, pepperoni"),
+                new Pizza("Hawaiian", 12, "Medium", "Tomato, mozzarella, ham, pineapple"),
+                new Pizza("Marinara", 8, "Medium", "Tomato, garlic, oregano")), "Pepe", "Khreshchatyk");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pizzaRepository.deleteAll();
+        cafeRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedRequestIsServedFromCachedBytes() throws Exception {
+        long hits = responseCache.stats().hitCount();
+
+        MvcResult first = perform(get(MENU));
+        MvcResult second = perform(get(MENU));
+
+        assertEquals(hits + 1, responseCache.stats().hitCount());
+        assertArrayEquals(first.getResponse().getContentAsByteArray(), second.getResponse().getContentAsByteArray());
+        assertEquals(first.getResponse().getHeader(HttpHeaders.ETAG), second.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, second.getResponse().getContentType());
+        assertTrue(second.getResponse().getContentAsString().contains("\"name\":\"Marinara\""));
+    }
+
+    @Test
+    void gzipIsServedWhenAccepted() throws Exception {
+        byte[] raw = perform(get(MENU)).getResponse().getContentAsByteArray();
+
+        MvcResult compressed = perform(get(MENU).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        assertEquals("gzip", compressed.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(raw, gunzip(compressed.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void gzipAndIdentityHaveDistinctETags() throws Exception {
+        String identity = perform(get(MENU)).getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult compressed = perform(get(MENU).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, identity));
+        String gzip = compressed.getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals("gzip", compressed.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(identity.endsWith("-json\""), identity);
+        assertEquals(identity.substring(0, identity.length() - 1) + "-gzip\"", gzip);
+        mockMvc.perform(get(MENU).header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, gzip))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void etagOfOneFormatDoesNotMatchAnother() throws Exception {
+        String json = perform(get("/cafe/all").accept(MediaType.APPLICATION_JSON)).getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult cbor = perform(get("/cafe/all").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, json));
+
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, cbor.getResponse().getContentType());
+        assertNotEquals(json, cbor.getResponse().getHeader(HttpHeaders.ETAG));
+        mockMvc.perform(get("/cafe/all").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cbor.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void gzipWithZeroQualityIsNotServed() throws Exception {
+        MvcResult response = perform(get(MENU).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"));
+
+        assertNull(response.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getResponse().getContentAsString().contains("\"name\":\"Marinara\""));
+    }
+
+    @Test
+    void acceptEncodingQualitiesAreParsed() {
+        assertTrue(ResponseBodyCache.acceptsGzip("gzip"));
+        assertTrue(ResponseBodyCache.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(ResponseBodyCache.acceptsGzip("br;q=1.0, *;q=0.1"));
+        assertTrue(ResponseBodyCache.acceptsGzip("x-gzip"));
+        assertFalse(ResponseBodyCache.acceptsGzip(null));
+        assertFalse(ResponseBodyCache.acceptsGzip("gzip;q=0"));
+        assertFalse(ResponseBodyCache.acceptsGzip("gzip; q=0.000, *"));
+        assertFalse(ResponseBodyCache.acceptsGzip("*;q=0"));
+        assertFalse(ResponseBodyCache.acceptsGzip("gzip;q=oops"));
+        assertFalse(ResponseBodyCache.acceptsGzip("deflate, br, identity"));
+        assertFalse(ResponseBodyCache.acceptsGzip("gzipped"));
+    }
+
+    @Test
+    void pizzaWriteReplacesCachedMenu() throws Exception {
+        String before = perform(get(MENU)).getResponse().getContentAsString();
+
+        mockMvc.perform(post("/pizza/create/Pepe/Khreshchatyk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Diavola\",\"price\":13,\"size\":\"Large\",\"ingredients\":\"Tomato, salami\"}"))
+                .andExpect(status().isCreated());
+        String after = perform(get(MENU)).getResponse().getContentAsString();
+
+        assertFalse(before.contains("Diavola"));
+        assertTrue(after.contains("\"name\":\"Diavola\""));
+    }
+
+    @Test
+    void cafeListIsCachedPerFormat() throws Exception {
+        perform(get("/cafe/all"));
+        long hits = responseCache.stats().hitCount();
+
+        MvcResult cbor = perform(get("/cafe/all").accept(MediaType.APPLICATION_CBOR));
+        MvcResult cachedCbor = perform(get("/cafe/all").accept(MediaType.APPLICATION_CBOR));
+
+        assertEquals(hits + 1, responseCache.stats().hitCount());
+        assertTrue(cbor.getResponse().getHeader(HttpHeaders.ETAG).matches("\"cafes-[0-9a-f-]+-cbor\""));
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, cachedCbor.getResponse().getContentType());
+        List<CafeDTO> cafes = new CBORMapper().readerForListOf(CafeDTO.class)
+                .readValue(cbor.getResponse().getContentAsByteArray());
+        assertEquals(List.of("Pepe"), cafes.stream().map(CafeDTO::name).toList());
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.pizza.catalog;
+
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.dto.VersionStamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        CafeDTO kyiv = cafe(1, "Dominos", "Khreshchatyk", 0);
+        CafeDTO lviv = cafe(2, "Dominos", "Rynok Square", 0);
+        CafeDTO celentano = cafe(5, "Celentano", "Svobody Avenue", 0);
+        snapshot = CatalogSnapshot.of(List.of(celentano, lviv, kyiv),
+                List.of(pizza(11, "Pepperoni", 1), pizza(10, "Margherita", 1), pizza(12, "Hawaiian", 2)));
+    }
+
+    @Test
+    void indexesCafes() {
+        assertEquals(List.of(1L, 2L, 5L), ids(snapshot.getAllCafes()));
+        assertEquals("Rynok Square", snapshot.getCafeById(2).address());
+        assertEquals(5, snapshot.getCafeByNameAndAddress("Celentano", "Svobody Avenue").id());
+        assertEquals(List.of(1L, 2L), ids(snapshot.getCafeChain("Dominos")));
+        assertTrue(snapshot.getCafeChain("Nonexistent").isEmpty());
+        assertNull(snapshot.getCafeById(3));
+    }
+
+    @Test
+    void getCafesAfter() {
+        assertEquals(List.of(1L, 2L), ids(snapshot.getCafesAfter(0, 2)));
+        assertEquals(List.of(5L), ids(snapshot.getCafesAfter(2, 2)));
+        assertEquals(List.of(5L), ids(snapshot.getCafesAfter(3, 10)));
+        assertTrue(snapshot.getCafesAfter(5, 10).isEmpty());
+    }
+
+    @Test
+    void menusAreOrderedById() {
+        List<PizzaDTO> menu = snapshot.getMenu("Dominos", "Khreshchatyk");
+
+        assertEquals(List.of("Margherita", "Pepperoni"), menu.stream().map(PizzaDTO::name).toList());
+        assertTrue(snapshot.getMenu("Celentano", "Svobody Avenue").isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> menu.add(pizza(13, "Diavola", 1)));
+    }
+
+    @Test
+    void withCafeLeavesPreviousSnapshotUnchanged() {
+        CatalogSnapshot next = snapshot.withCafe(cafe(2, "Celentano", "Rynok Square", 1));
+
+        assertEquals(List.of(1L), ids(next.getCafeChain("Dominos")));
+        assertEquals(List.of(2L, 5L), ids(next.getCafeChain("Celentano")));
+        assertEquals(List.of("Hawaiian"), next.getMenu("Celentano", "Rynok Square").stream().map(PizzaDTO::name).toList());
+        assertEquals(List.of(1L, 2L), ids(snapshot.getCafeChain("Dominos")));
+        assertNotEquals(snapshot.getCafesVersion(), next.getCafesVersion());
+    }
+
+    @Test
+    void withoutCafeDropsItsMenu() {
+        CatalogSnapshot next = snapshot.withoutCafe(1);
+
+        assertNull(next.getCafeByNameAndAddress("Dominos", "Khreshchatyk"));
+        assertTrue(next.getMenu("Dominos", "Khreshchatyk").isEmpty());
+        assertSame(next, next.withoutCafe(1));
+    }
+
+    @Test
+    void withPizzaReplacesById() {
+        PizzaDTO updated = new PizzaDTO(10, "Margherita", 20, "Large", "Tomato, Mozzarella", 1, 1);
+
+        CatalogSnapshot next = snapshot.withPizza(updated).withPizza(pizza(13, "Diavola", 1));
+
+        List<PizzaDTO> menu = next.getMenu("Dominos", "Khreshchatyk");
+        assertEquals(List.of(10L, 11L, 13L), menu.stream().map(PizzaDTO::id).toList());
+        assertEquals(20, menu.get(0).price());
+        assertEquals(10, snapshot.getMenu("Dominos", "Khreshchatyk").get(0).price());
+    }
+
+    @Test
+    void withoutPizza() {
+        CatalogSnapshot next = snapshot.withoutPizza(2, 12);
+
+        assertTrue(next.getMenu("Dominos", "Rynok Square").isEmpty());
+        assertSame(next, next.withoutPizza(2, 12));
+    }
+
+    @Test
+    void cafeWritesMatchFullRebuild() {
+        Map<Long, CafeDTO> expected = new HashMap<>();
+        for (CafeDTO cafe : snapshot.getAllCafes()) {
+            expected.put(cafe.id(), cafe);
+        }
+        Random random = new Random(42);
+        CatalogSnapshot next = snapshot;
+        for (int i = 0; i < 500; i++) {
+            long id = 1 + random.nextInt(40);
+            if (random.nextInt(4) == 0) {
+                next = next.withoutCafe(id);
+                expected.remove(id);
+            } else {
+                CafeDTO cafe = cafe(id, random.nextBoolean() ? "Dominos" : "Celentano", "Street " + id, i);
+                next = next.withCafe(cafe);
+                expected.put(id, cafe);
+            }
+        }
+
+        CatalogSnapshot rebuilt = CatalogSnapshot.of(expected.values(), List.of());
+        assertEquals(rebuilt.getAllCafes(), next.getAllCafes());
+        assertEquals(rebuilt.getCafesVersion(), next.getCafesVersion());
+        assertEquals(rebuilt.getCafeChain("Dominos"), next.getCafeChain("Dominos"));
+        assertEquals(rebuilt.getCafeChain("Celentano"), next.getCafeChain("Celentano"));
+        assertEquals(rebuilt.getCafesAfter(20, 5), next.getCafesAfter(20, 5));
+        for (long id = 1; id <= 40; id++) {
+            CafeDTO cafe = expected.get(id);
+            assertEquals(cafe, next.getCafeById(id));
+            assertEquals(cafe, cafe == null ? null : next.getCafeByNameAndAddress(cafe.name(), cafe.address()));
+        }
+        assertNull(next.getCafeByNameAndAddress("Dominos", "Khreshchatyk"));
+    }
+
+    @Test
+    void versionStampsMatchTheDatabaseDefinition() {
+        assertEquals(new VersionStamp(3, 5, 8, 0), snapshot.getCafesVersion());
+        assertEquals(new VersionStamp(2, 11, 21, 0), snapshot.getMenuVersion("Dominos", "Khreshchatyk"));
+        assertEquals(new VersionStamp(0, 0, 0, 0), snapshot.getMenuVersion("Nonexistent", "Nowhere"));
+    }
+
+    private static List<Long> ids(List<CafeDTO> cafes) {
+        return cafes.stream().map(CafeDTO::id).toList();
+    }
+
+    private static CafeDTO cafe(long id, String name, String address, long version) {
+        return new CafeDTO(id, name, "Kyiv", address, "cafe@example.com", "+380441", version);
+    }
+
+    private static PizzaDTO pizza(long id, String name, long cafeId) {
+        return new PizzaDTO(id, name, 10, "Large", "Tomato, Mozzarella", 0, cafeId);
+    }
+}
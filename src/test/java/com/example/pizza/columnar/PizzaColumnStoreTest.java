@@ -0,0 +1,186 @@
+package com.example.pizza.columnar;
+
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.CafeCityEntry;
+import com.example.pizza.dto.PizzaColumnsEntry;
+import com.example.pizza.dto.PizzaPriceStatsDTO;
+import com.example.pizza.event.PizzaUpdatedEvent;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PizzaColumnStoreTest {
+
+    private static final PizzaColumnStore.Filter ALL = new PizzaColumnStore.Filter(null, null, null, null);
+
+    private PizzaColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new PizzaColumnStore(true);
+        store.putCafe(1, "Kyiv");
+        store.putCafe(2, "Lviv");
+        store.put(10, 12.0, "Large", 1);
+        store.put(11, 9.5, "Medium", 1);
+        store.put(12, 14.0, "Large", 2);
+        store.put(13, 18.0, "Large", 1);
+        store.put(14, 12.0, "Small", 2);
+    }
+
+    @Test
+    void filtersByRangeSizeAndCity() {
+        PizzaColumnStore.Rows rows = store.filter(
+                new PizzaColumnStore.Filter("large", null, null, 15.0), PizzaColumnStore.Sort.ID, 10);
+        assertEquals(List.of(10L, 12L), rows.pizzaIds());
+
+        rows = store.filter(new PizzaColumnStore.Filter("Large", "KYIV", 12.0, null), PizzaColumnStore.Sort.ID, 10);
+        assertEquals(List.of(10L, 13L), rows.pizzaIds());
+
+        assertEquals(0, store.filter(new PizzaColumnStore.Filter("Huge", null, null, null),
+                PizzaColumnStore.Sort.ID, 10).total());
+        assertEquals(0, store.filter(new PizzaColumnStore.Filter(null, "Odesa", null, null),
+                PizzaColumnStore.Sort.ID, 10).total());
+    }
+
+    @Test
+    void sortsByPriceWithinLimit() {
+        PizzaColumnStore.Rows ascending = store.filter(ALL, PizzaColumnStore.Sort.PRICE_ASC, 3);
+        assertEquals(5, ascending.total());
+        assertEquals(List.of(11L, 10L, 14L), ascending.pizzaIds());
+
+        PizzaColumnStore.Rows descending = store.filter(ALL, PizzaColumnStore.Sort.PRICE_DESC, 10);
+        assertEquals(List.of(13L, 12L, 10L, 14L, 11L), descending.pizzaIds());
+
+        assertTrue(store.filter(ALL, PizzaColumnStore.Sort.PRICE_ASC, 0).pizzaIds().isEmpty());
+    }
+
+    @Test
+    void priceStats() {
+        PizzaPriceStatsDTO all = store.priceStats(ALL, PizzaColumnStore.GroupBy.NONE).get(0);
+        assertEquals(new PizzaPriceStatsDTO("all", 5, 9.5, 13.1, 18.0), all);
+
+        List<PizzaPriceStatsDTO> bySize = store.priceStats(ALL, PizzaColumnStore.GroupBy.SIZE);
+        assertEquals(List.of("Large", "Medium", "Small"), bySize.stream().map(PizzaPriceStatsDTO::group).toList());
+        assertEquals(new PizzaPriceStatsDTO("Large", 3, 12.0, 44.0 / 3, 18.0), bySize.get(0));
+
+        List<PizzaPriceStatsDTO> byCity = store.priceStats(
+                new PizzaColumnStore.Filter("Large", null, null, null), PizzaColumnStore.GroupBy.CITY);
+        assertEquals(List.of(new PizzaPriceStatsDTO("Kyiv", 2, 12.0, 15.0, 18.0),
+                new PizzaPriceStatsDTO("Lviv", 1, 14.0, 14.0, 14.0)), byCity);
+
+        PizzaPriceStatsDTO none = store.priceStats(
+                new PizzaColumnStore.Filter(null, null, 100.0, null), PizzaColumnStore.GroupBy.NONE).get(0);
+        assertEquals(new PizzaPriceStatsDTO("all", 0, null, null, null), none);
+    }
+
+    @Test
+    void updatesAreApplied() {
+        store.put(10, 20.0, "Medium", 1);
+        store.remove(13);
+        store.putCafe(2, "Kyiv");
+        // Committed after pizzas with larger IDs
+        store.put(5, 6.0, "Large", 2);
+
+        assertEquals(List.of(5L, 11L, 14L, 12L, 10L),
+                store.filter(new PizzaColumnStore.Filter(null, "Kyiv", null, null),
+                        PizzaColumnStore.Sort.PRICE_ASC, 10).pizzaIds());
+        assertEquals(List.of(5L, 12L),
+                store.filter(new PizzaColumnStore.Filter("Large", null, null, null),
+                        PizzaColumnStore.Sort.ID, 10).pizzaIds());
+
+        store.removeCafe(2);
+        assertEquals(List.of(10L, 11L), store.filter(ALL, PizzaColumnStore.Sort.ID, 10).pizzaIds());
+    }
+
+    @Test
+    void putValuesKeepsCafe() {
+        store.putValues(12, 8.0, "Small");
+        store.remove(13);
+        store.putValues(13, 1.0, "Small");
+        store.putValues(99, 1.0, "Small");
+
+        assertEquals(List.of(12L, 14L), store.filter(new PizzaColumnStore.Filter("Small", "Lviv", null, null),
+                PizzaColumnStore.Sort.PRICE_ASC, 10).pizzaIds());
+        assertEquals(4, store.filter(ALL, PizzaColumnStore.Sort.ID, 10).total());
+    }
+
+    @Test
+    void compactionKeepsRows() {
+        for (long id = 100; id < 3100; id++) {
+            store.put(id, 5 + id % 40, "Large", 1);
+        }
+        for (long id = 100; id < 3090; id++) {
+            store.remove(id);
+        }
+
+        PizzaColumnStore.Rows rows = store.filter(
+                new PizzaColumnStore.Filter("Large", "Kyiv", 20.0, null), PizzaColumnStore.Sort.ID, 10);
+        assertEquals(List.of(3095L, 3096L, 3097L, 3098L, 3099L), rows.pizzaIds());
+        assertEquals(15, store.filter(ALL, PizzaColumnStore.Sort.ID, 100).total());
+    }
+
+    @Test
+    void writeArrivingDuringLoadIsApplied() throws Exception {
+        CafeCityEntry cafe = mock(CafeCityEntry.class);
+        when(cafe.getId()).thenReturn(1L);
+        when(cafe.getCity()).thenReturn("Kyiv");
+        PizzaColumnsEntry loaded = mock(PizzaColumnsEntry.class);
+        when(loaded.getId()).thenReturn(10L);
+        when(loaded.getPrice()).thenReturn(12.0);
+        when(loaded.getSize()).thenReturn("Large");
+        when(loaded.getCafeId()).thenReturn(1L);
+        CafeRepository cafeRepository = mock(CafeRepository.class);
+        when(cafeRepository.findCitiesBy()).thenReturn(List.of(cafe));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PizzaRepository pizzaRepository = mock(PizzaRepository.class);
+        when(pizzaRepository.streamColumnEntries()).thenReturn(Stream.of(loaded).peek(entry -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        PizzaColumnStore loadingStore = new PizzaColumnStore(true);
+        ReflectionTestUtils.setField(loadingStore, "cafeRepository", cafeRepository);
+        ReflectionTestUtils.setField(loadingStore, "pizzaRepository", pizzaRepository);
+        ReflectionTestUtils.setField(loadingStore, "transactionManager", transactionManager);
+        Pizza repriced = new Pizza("Margherita", 30, "Medium", "Tomato, Basil");
+        repriced.setId(10);
+
+        Thread load = new Thread(loadingStore::load);
+        load.start();
+        loading.await();
+        Thread write = new Thread(() -> loadingStore.onPizzaUpdated(
+                new PizzaUpdatedEvent(repriced, "Pepe", "Khreshchatyk")));
+        write.start();
+        while (write.getState() != Thread.State.WAITING && write.isAlive()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        load.join();
+        write.join();
+
+        assertTrue(loadingStore.isReady());
+        assertEquals(List.of(10L), loadingStore.filter(
+                new PizzaColumnStore.Filter("Medium", "Kyiv", 30.0, null), PizzaColumnStore.Sort.ID, 10).pizzaIds());
+        assertEquals(0, loadingStore.filter(
+                new PizzaColumnStore.Filter("Large", null, null, null), PizzaColumnStore.Sort.ID, 10).total());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.pizza.config;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.repository.CafeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the cafe list is served as CBOR or Smile when asked for, decodes to the same cafes
+ * as the JSON, and is still JSON by default, and that the binary converters follow the
+ * {@code spring.jackson.*} settings.
+ */
+@SpringBootTest(properties = "spring.jackson.default-property-inclusion=non_null")
+@AutoConfigureMockMvc
+class BinaryFormatsConfigTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    private List<CafeDTO> cafes;
+
+    @BeforeEach
+    void setUp() {
+        Cafe cafe = cafeRepository.save(new Cafe("Pepe", "Kyiv", "pepe@example.com", "+380501234567", "Khreshchatyk"));
+        cafes = List.of(CafeDTO.of(cafe));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cafeRepository.deleteAll();
+    }
+
+    @Test
+    void servesCbor() throws Exception {
+        assertEquals(cafes, getCafes(MediaType.APPLICATION_CBOR, new CBORMapper()));
+    }
+
+    @Test
+    void servesSmile() throws Exception {
+        assertEquals(cafes, getCafes(SMILE, new SmileMapper()));
+    }
+
+    @Test
+    void servesJsonByDefault() throws Exception {
+        MvcResult result = mockMvc.perform(get("/cafe/all").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(
+                MediaType.parseMediaType(result.getResponse().getContentType())));
+        assertEquals(cafes, new ObjectMapper().readerForListOf(CafeDTO.class)
+                .readValue(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    @WithMockUser
+    void binaryConvertersUseBootJacksonSettings() throws Exception {
+        Cafe cafe = cafeRepository.save(new Cafe("Celentano", "Lviv", "celentano@example.com", null, "Rynok"));
+
+        for (MediaType mediaType : List.of(MediaType.APPLICATION_CBOR, SMILE)) {
+            MvcResult result = mockMvc.perform(get("/cafe/id/" + cafe.getId()).accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            ObjectMapper mapper = mediaType.equals(SMILE) ? new SmileMapper() : new CBORMapper();
+            JsonNode body = mapper.readTree(result.getResponse().getContentAsByteArray());
+            assertEquals("Celentano", body.get("name").asText());
+            assertFalse(body.has("phone"), mediaType + " wrote the null phone: " + body);
+        }
+    }
+
+    private List<CafeDTO> getCafes(MediaType mediaType, ObjectMapper mapper) throws Exception {
+        MvcResult result = mockMvc.perform(get("/cafe/all").accept(mediaType))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(mediaType, MediaType.parseMediaType(result.getResponse().getContentType()));
+        assertEquals(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING),
+                List.of(result.getResponse().getHeader(HttpHeaders.VARY).split(", ")));
+        return mapper.readerForListOf(CafeDTO.class).readValue(result.getResponse().getContentAsByteArray());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.pizza.config;
+
+import com.example.pizza.cache.AuthenticationCache;
+import com.example.pizza.domain.authorization.Role;
+import com.example.pizza.domain.authorization.User;
+import com.example.pizza.service.implementation.UserServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private UserServiceImpl userService;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private AuthenticationCache authenticationCache;
+
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        authenticationCache = new AuthenticationCache(100, Duration.ofMinutes(5));
+        provider = new CachingAuthenticationProvider(userService, passwordEncoder, authenticationCache);
+
+        Role role = new Role();
+        role.setName("ROLE_ADMIN");
+        User user = new User();
+        user.setUsername("admin");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRoles(Set.of(role));
+        when(userService.loadUserByUsername("admin")).thenReturn(user);
+    }
+
+    @Test
+    void repeatedAuthenticationIsServedFromCache() {
+        Authentication first = provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "secret"));
+        Authentication second = provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "secret"));
+
+        assertTrue(first.isAuthenticated() && second.isAuthenticated());
+        assertSame(first.getPrincipal(), second.getPrincipal());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        verify(userService, times(1)).loadUserByUsername("admin");
+        assertEquals(1, authenticationCache.stats().hitCount());
+        assertEquals(1, authenticationCache.stats().missCount());
+    }
+
+    @Test
+    void cacheHitCarriesDetailsOfItsOwnRequest() {
+        UsernamePasswordAuthenticationToken firstRequest = new UsernamePasswordAuthenticationToken("admin", "secret");
+        firstRequest.setDetails("10.0.0.1");
+        UsernamePasswordAuthenticationToken secondRequest = new UsernamePasswordAuthenticationToken("admin", "secret");
+        secondRequest.setDetails("10.0.0.2");
+
+        Authentication first = provider.authenticate(firstRequest);
+        Authentication second = provider.authenticate(secondRequest);
+        Authentication third = provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "secret"));
+
+        assertNotSame(first, second);
+        assertNotSame(second, third);
+        assertEquals("10.0.0.2", second.getDetails());
+        assertNull(third.getDetails());
+        assertNull(second.getCredentials());
+        assertEquals(1, authenticationCache.stats().missCount());
+    }
+
+    @Test
+    void wrongPasswordIsNotCached() {
+        UsernamePasswordAuthenticationToken wrong = new UsernamePasswordAuthenticationToken("admin", "wrong");
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(wrong));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(wrong));
+
+        verify(userService, times(2)).loadUserByUsername("admin");
+        assertEquals(0, authenticationCache.size());
+    }
+
+    @Test
+    void invalidateForcesVerification() {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "secret"));
+        authenticationCache.invalidate("admin");
+        provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "secret"));
+
+        verify(userService, times(2)).loadUserByUsername("admin");
+    }
+}
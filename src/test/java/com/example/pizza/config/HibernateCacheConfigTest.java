@@ -0,0 +1,119 @@
+package com.example.pizza.config;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.metrics.QueryCounter;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the second-level and query caches against the embedded H2 database: repeated natural-key
+ * lookups run no statement, and bulk statements, with or without Hibernate, invalidate them.
+ */
+@SpringBootTest
+class HibernateCacheConfigTest {
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Cafe cafe;
+
+    @BeforeEach
+    void setUp() {
+        cafe = cafeRepository.save(new Cafe("Pepe", "Kyiv", "pepe@example.com", "+380501234567", "Khreshchatyk"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pizzaRepository.deleteAll();
+        cafeRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedLookupRunsNoStatement() {
+        assertEquals(cafe.getId(), cafeRepository.findCafeByNameAndAddress("Pepe", "Khreshchatyk").getId());
+
+        QueryCounter.reset();
+        Cafe cached = cafeRepository.findCafeByNameAndAddress("Pepe", "Khreshchatyk");
+        boolean exists = cafeRepository.existsByNameAndAddress("Pepe", "Khreshchatyk");
+        boolean existsAgain = cafeRepository.existsByNameAndAddress("Pepe", "Khreshchatyk");
+
+        assertEquals(1, QueryCounter.statements());
+        assertEquals(cafe.getId(), cached.getId());
+        assertTrue(exists && existsAgain);
+        assertTrue(stats("cafe").hitCount() > 0);
+        assertTrue(stats("default-query-results-region").hitCount() > 0);
+    }
+
+    @Test
+    void bulkDeleteInvalidatesLookups() {
+        assertNotNull(cafeRepository.findCafeByNameAndAddress("Pepe", "Khreshchatyk"));
+        assertNotNull(cafeRepository.findDtoByNameAndAddress("Pepe", "Khreshchatyk"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> cafeRepository.deleteAllByIds(List.of(cafe.getId())));
+
+        assertNull(cafeRepository.findCafeByNameAndAddress("Pepe", "Khreshchatyk"));
+        assertNull(cafeRepository.findDtoByNameAndAddress("Pepe", "Khreshchatyk"));
+        assertFalse(cafeRepository.existsByNameAndAddress("Pepe", "Khreshchatyk"));
+        assertFalse(cafeRepository.findById(cafe.getId()).isPresent());
+    }
+
+    @Test
+    void bulkUpdateInvalidatesLookups() {
+        assertEquals(0, cafeRepository.findDtoByNameAndAddress("Pepe", "Khreshchatyk").version());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> cafeRepository.updateIfVersion(
+                cafe.getId(), 0, "Pepe", "Lviv", "Khreshchatyk", "pepe@example.com", "+380501234567"));
+
+        assertEquals(1, cafeRepository.findDtoByNameAndAddress("Pepe", "Khreshchatyk").version());
+        assertEquals("Lviv", cafeRepository.findCafeByNameAndAddress("Pepe", "Khreshchatyk").getCity());
+    }
+
+    @Test
+    void jdbcInsertInvalidatesLookups() {
+        Pizza first = pizza("Margherita");
+        pizzaRepository.insertAll(List.of(first));
+        long nextId = first.getId() + 1;
+        assertFalse(pizzaRepository.existsByIdAndCafe_NameAndCafe_Address(nextId, "Pepe", "Khreshchatyk"));
+
+        Pizza second = pizza("Diavola");
+        pizzaRepository.insertAll(List.of(second));
+
+        assertEquals(nextId, second.getId());
+        assertTrue(pizzaRepository.existsByIdAndCafe_NameAndCafe_Address(nextId, "Pepe", "Khreshchatyk"));
+    }
+
+    private Pizza pizza(String name) {
+        Pizza pizza = new Pizza(name, 10.0, "Large", "Tomato, Basil");
+        pizza.setCafe(cafe);
+        return pizza;
+    }
+
+    private CacheStats stats(String region) {
+        return hibernateCacheManager.getCache(region).unwrap(Cache.class).stats();
+    }
+}
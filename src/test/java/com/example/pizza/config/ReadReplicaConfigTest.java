@@ -0,0 +1,163 @@
+package com.example.pizza.config;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.service.implementation.CafeServiceImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the replica routing against two embedded H2 databases, a primary and a replica. The
+ * replica gets the schema of the primary but no replication, so each query shows which one it
+ * was sent to.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+        "pizza.datasource.replica.urls=" + ReadReplicaConfigTest.REPLICA_URL,
+        "pizza.datasource.read-your-writes=PT1M",
+        "pizza.search.ingredient-index.enabled=false",
+        "pizza.search.column-store.enabled=false"
+})
+@AutoConfigureMockMvc
+class ReadReplicaConfigTest {
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private CafeServiceImpl cafeService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : primary.queryForList("SCRIPT NODATA", String.class)) {
+            replica.execute(statement);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.update("DELETE FROM pizza");
+        primary.update("DELETE FROM cafe");
+    }
+
+    @Test
+    void writesGoToPrimaryAndReadsToReplica() {
+        cafeService.createCafe(new Cafe("Primary", "Kyiv", "primary@example.com", "+380501234567", "Khreshchatyk"));
+        insertIntoReplica("Replica");
+
+        assertEquals(1, count(primary));
+        assertEquals(List.of("Replica"), cafeService.getAllCafes().stream().map(CafeDTO::name).toList());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void writeRequestPinsClientToPrimary() throws Exception {
+        insertIntoReplica("Replica");
+
+        Cookie pin = mockMvc.perform(post("/cafe/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Primary\",\"city\":\"Kyiv\",\"email\":\"primary@example.com\","
+                                + "\"phone\":\"+380501234567\",\"address\":\"Khreshchatyk\"}"))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getCookie("pizza-primary-until");
+        assertNotNull(pin);
+
+        // The keyset page is read straight from the database; the full list is cached from the primary
+        mockMvc.perform(get("/cafe/all").param("limit", "10").cookie(pin))
+                .andExpect(jsonPath("$[0].name").value("Primary"));
+        mockMvc.perform(get("/cafe/all").param("limit", "10"))
+                .andExpect(jsonPath("$[0].name").value("Replica"));
+        mockMvc.perform(get("/cafe/all").param("limit", "10").cookie(new Cookie(pin.getName(), "0")))
+                .andExpect(jsonPath("$[0].name").value("Replica"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void cachesAreNotRefilledFromLaggingReplica() throws Exception {
+        mockMvc.perform(post("/cafe/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Pepe\",\"city\":\"Kyiv\",\"email\":\"pepe@example.com\","
+                                + "\"phone\":\"+380501234567\",\"address\":\"Podil\"}"))
+                .andExpect(status().is2xxSuccessful());
+        addPizza("Margherita");
+        replicate();
+
+        // The replica lags behind both writes: it has neither the new pizza nor the new cafe
+        addPizza("Diavola");
+        mockMvc.perform(post("/cafe/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Late\",\"city\":\"Kyiv\",\"email\":\"late@example.com\","
+                                + "\"phone\":\"+380501234568\",\"address\":\"Obolon\"}"))
+                .andExpect(status().is2xxSuccessful());
+        mockMvc.perform(get("/pizza/all/Pepe/Podil"))
+                .andExpect(jsonPath("$[*].name").value(hasItem("Diavola")));
+        mockMvc.perform(get("/cafe/name-address/Late/Obolon"))
+                .andExpect(status().isOk());
+
+        replicate();
+        mockMvc.perform(get("/pizza/all/Pepe/Podil"))
+                .andExpect(jsonPath("$[*].name").value(hasItems("Margherita", "Diavola")));
+        mockMvc.perform(get("/cafe/name-address/Late/Obolon"))
+                .andExpect(jsonPath("$.name").value("Late"));
+    }
+
+    private void addPizza(String name) throws Exception {
+        mockMvc.perform(post("/pizza/create/Pepe/Podil")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"price\":10,\"size\":\"Large\",\"ingredients\":\"Tomato\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    // Brings the replica up to date with the cafes and pizzas of the primary
+    private void replicate() {
+        replica.update("DELETE FROM pizza");
+        replica.update("DELETE FROM cafe");
+        for (String statement : primary.queryForList("SCRIPT TABLE cafe, pizza", String.class)) {
+            if (statement.startsWith("INSERT")) {
+                replica.execute(statement);
+            }
+        }
+    }
+
+    private void insertIntoReplica(String name) {
+        replica.update("INSERT INTO cafe (name, city, address, \"e-mail\", phone, version) VALUES (?, 'Lviv', 'Rynok', "
+                + "'replica@example.com', '+380501234567', 0)", name);
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cafe", Integer.class);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.pizza.controller;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.CatalogExportRow;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import com.example.pizza.service.interfaces.PizzaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the export escapes separators, quotes and line breaks in both formats, writes a
+ * cafe without pizzas as one row of empty pizza fields, and compresses only when gzip is accepted.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ExportControllerTest {
+
+    private static final String INGREDIENTS = "Tomato, \"San Marzano\"\nBasil";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PizzaService pizzaService;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    private Cafe pepe;
+
+    private Cafe celentano;
+
+    private long pizzaId;
+
+    @BeforeEach
+    void setUp() {
+        pepe = cafeRepository.save(new Cafe("Pepe", "Kyiv", "pepe@example.com", "+380501234567", "Khreshchatyk"));
+        celentano = cafeRepository.save(new Cafe("Celentano", "Lviv", "celentano@example.com", "+380501234568", "Rynok"));
+        pizzaService.addPizzas(List.of(new Pizza("Margherita", 10, "Large", INGREDIENTS)), "Pepe", "Khreshchatyk");
+        pizzaId = pizzaRepository.findAll().get(0).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pizzaRepository.deleteAll();
+        cafeRepository.deleteAll();
+    }
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsQuotesAndLineBreaks() throws Exception {
+        MvcResult result = perform(get("/export").param("format", "CSV"));
+
+        assertEquals("text/csv;charset=UTF-8", result.getResponse().getContentType());
+        assertEquals("cafe_id,cafe_name,city,address,email,phone,pizza_id,pizza_name,price,size,ingredients\n"
+                        + pepe.getId() + ",Pepe,Kyiv,Khreshchatyk,pepe@example.com,+380501234567,"
+                        + pizzaId + ",Margherita,10.0,Large,\"Tomato, \"\"San Marzano\"\"\nBasil\"\n"
+                        + celentano.getId() + ",Celentano,Lviv,Rynok,celentano@example.com,+380501234568,,,,,\n",
+                result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ndjsonWritesOneEscapedRowPerLine() throws Exception {
+        MvcResult result = perform(get("/export"));
+
+        assertEquals("application/x-ndjson", result.getResponse().getContentType());
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(new CatalogExportRow(pepe.getId(), "Pepe", "Kyiv", "Khreshchatyk", "pepe@example.com",
+                        "+380501234567", pizzaId, "Margherita", 10.0, "Large", INGREDIENTS),
+                objectMapper.readValue(lines[0], CatalogExportRow.class));
+        assertNull(objectMapper.readValue(lines[1], CatalogExportRow.class).pizzaId());
+    }
+
+    @Test
+    void gzipIsDecodedToTheIdentityBody() throws Exception {
+        byte[] identity = perform(get("/export").param("format", "CSV")).getResponse().getContentAsByteArray();
+
+        MvcResult compressed = perform(get("/export").param("format", "CSV")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        assertEquals("gzip", compressed.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, compressed.getResponse().getHeader(HttpHeaders.VARY));
+        assertArrayEquals(identity, gunzip(compressed.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void gzipWithZeroQualityIsNotUsed() throws Exception {
+        MvcResult result = perform(get("/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"));
+
+        assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).startsWith("{"));
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.pizza.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+
+    private List<DataSource> replicas;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = dataSource();
+        replicas = List.of(dataSource(), dataSource(), dataSource());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        PrimaryPinning.clear();
+    }
+
+    @Test
+    void writesAndNonTransactionalCallsGoToPrimary() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(ReadWriteRoutingDataSource.ReplicaSelection.ROUND_ROBIN);
+
+        routing.getConnection();
+        transaction(false);
+        routing.getConnection();
+
+        verify(primary, times(2)).getConnection();
+        replicas.forEach(replica -> verifyNoInteractions(replica));
+    }
+
+    @Test
+    void pinnedReadsGoToPrimary() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(ReadWriteRoutingDataSource.ReplicaSelection.ROUND_ROBIN);
+        transaction(true);
+        PrimaryPinning.pin();
+
+        routing.getConnection();
+
+        verify(primary).getConnection();
+        replicas.forEach(replica -> verifyNoInteractions(replica));
+    }
+
+    @Test
+    void roundRobinTakesTurns() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(ReadWriteRoutingDataSource.ReplicaSelection.ROUND_ROBIN);
+        transaction(true);
+
+        for (int i = 0; i < 6; i++) {
+            routing.getConnection();
+        }
+
+        replicas.forEach(replica -> verifyConnections(replica, 2));
+        verifyNoInteractions(primary);
+        assertEquals(2, routing.inFlight(0));
+    }
+
+    @Test
+    void leastInFlightSkipsBusyReplicas() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(ReadWriteRoutingDataSource.ReplicaSelection.LEAST_IN_FLIGHT);
+        transaction(true);
+
+        List<Connection> open = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            open.add(routing.getConnection());
+        }
+        open.get(1).close();
+        open.get(1).close();
+        // Round robin would come back to the first replica, which is still busy
+        routing.getConnection();
+
+        verifyConnections(replicas.get(0), 1);
+        verifyConnections(replicas.get(1), 2);
+        verifyConnections(replicas.get(2), 1);
+        assertEquals(1, routing.inFlight(0));
+        assertEquals(1, routing.inFlight(1));
+        assertEquals(1, routing.inFlight(2));
+    }
+
+    @Test
+    void failedConnectionIsNotCounted() throws SQLException {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of(replicas.get(0)),
+                ReadWriteRoutingDataSource.ReplicaSelection.LEAST_IN_FLIGHT);
+        when(replicas.get(0).getConnection()).thenThrow(new SQLException("down"));
+        transaction(true);
+
+        assertThrows(SQLException.class, routing::getConnection);
+        assertEquals(0, routing.inFlight(0));
+    }
+
+    private ReadWriteRoutingDataSource routing(ReadWriteRoutingDataSource.ReplicaSelection selection) {
+        return new ReadWriteRoutingDataSource(primary, replicas, selection);
+    }
+
+    private static void transaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static DataSource dataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return dataSource;
+    }
+
+    private static void verifyConnections(DataSource dataSource, int times) {
+        try {
+            verify(dataSource, times(times)).getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.pizza.index;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.CafeCityEntry;
+import com.example.pizza.dto.PizzaIngredientsEntry;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngredientIndexTest {
+
+    private IngredientIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IngredientIndex(true);
+        index.putCafe(1, "Kyiv");
+        index.putCafe(2, "Lviv");
+        index.put(10, "Tomato sauce, Mozzarella, Basil", 1);
+        index.put(11, "Tomato sauce, Mozzarella, Pepperoni", 1);
+        index.put(12, "Mozzarella, Ham, Pineapples", 2);
+        index.put(13, "Olive oil, Garlic, Jalapeños", 2);
+    }
+
+    @Test
+    void tokenizeNormalizesIngredients() {
+        assertEquals(Set.of("tomato", "anchovy", "jalapeno", "olive", "oil", "cheese"),
+                IngredientIndex.tokenize("Tomatoes, ANCHOVIES; jalapeños & olive-oil, cheese"));
+        assertTrue(IngredientIndex.tokenize(" , ").isEmpty());
+        assertTrue(IngredientIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void matchAllIntersects() {
+        assertEquals(List.of(10L, 11L), search(IngredientIndex.Match.ALL, "tomatoes", "mozzarella").pizzaIds());
+        assertEquals(List.of(11L), search(IngredientIndex.Match.ALL, "mozzarella", "Pepperoni").pizzaIds());
+        assertEquals(0, search(IngredientIndex.Match.ALL, "basil", "ham").total());
+        assertEquals(0, search(IngredientIndex.Match.ALL, "anchovies").total());
+    }
+
+    @Test
+    void matchAnyUnites() {
+        assertEquals(List.of(10L, 12L, 13L), search(IngredientIndex.Match.ANY, "basil", "ham", "garlic").pizzaIds());
+        assertEquals(List.of(12L), search(IngredientIndex.Match.ANY, "anchovies", "pineapple").pizzaIds());
+    }
+
+    @Test
+    void multiWordIngredientNeedsEveryWord() {
+        assertEquals(List.of(13L), search(IngredientIndex.Match.ANY, "olive oil").pizzaIds());
+        assertEquals(0, search(IngredientIndex.Match.ANY, "olive sauce").total());
+    }
+
+    @Test
+    void filtersByCity() {
+        IngredientIndex.Hits hits = index.search(List.of("mozzarella"), "lviv", IngredientIndex.Match.ALL, 10);
+        assertEquals(List.of(12L), hits.pizzaIds());
+        assertEquals(0, index.search(List.of("mozzarella"), "Odesa", IngredientIndex.Match.ALL, 10).total());
+    }
+
+    @Test
+    void limitKeepsTotal() {
+        IngredientIndex.Hits hits = index.search(List.of("mozzarella"), null, IngredientIndex.Match.ALL, 2);
+        assertEquals(3, hits.total());
+        assertEquals(List.of(10L, 11L), hits.pizzaIds());
+    }
+
+    @Test
+    void updatesAreIncremental() {
+        index.put(10, "Mozzarella, Mushrooms", 1);
+        index.remove(11);
+        index.putCafe(2, "Kyiv");
+
+        assertEquals(List.of(10L), search(IngredientIndex.Match.ALL, "mushroom").pizzaIds());
+        assertEquals(0, search(IngredientIndex.Match.ANY, "basil", "pepperoni").total());
+        assertEquals(List.of(12L, 10L),
+                index.search(List.of("mozzarella"), "Kyiv", IngredientIndex.Match.ALL, 10).pizzaIds());
+
+        index.removeCafe(2);
+        assertEquals(List.of(10L), search(IngredientIndex.Match.ALL, "mozzarella").pizzaIds());
+    }
+
+    @Test
+    void putIngredientsKeepsCafe() {
+        index.putIngredients(12, "Mozzarella, Mushrooms");
+        index.putIngredients(99, "Basil");
+
+        assertEquals(List.of(12L),
+                index.search(List.of("mushroom"), "Lviv", IngredientIndex.Match.ALL, 10).pizzaIds());
+        assertEquals(0, search(IngredientIndex.Match.ANY, "ham", "pineapple").total());
+        assertEquals(List.of(10L), search(IngredientIndex.Match.ALL, "basil").pizzaIds());
+    }
+
+    @Test
+    void compactionKeepsResults() {
+        for (long id = 100; id < 3100; id++) {
+            index.put(id, id % 2 == 0 ? "Tomato, Basil" : "Tomato, Ham", 1);
+        }
+        for (long id = 100; id < 3000; id++) {
+            index.remove(id);
+        }
+
+        IngredientIndex.Hits hits = index.search(List.of("tomato", "basil"), "kyiv", IngredientIndex.Match.ALL, 100);
+        assertEquals(51, hits.total());
+        assertEquals(10L, hits.pizzaIds().get(0));
+        assertEquals(3000L, hits.pizzaIds().get(1));
+        assertEquals(List.of(12L), search(IngredientIndex.Match.ALL, "ham", "pineapple").pizzaIds());
+    }
+
+    @Test
+    void repeatedUpdatesAreCompacted() {
+        for (int i = 0; i < 10_000; i++) {
+            index.putIngredients(10, i % 2 == 0 ? "Tomato, Mushrooms" : "Tomato, Basil");
+            index.put(11, "Tomato, Pepperoni", 1);
+        }
+
+        assertTrue(index.ordinalCount() <= 2 * 1024 + 4, "ordinals: " + index.ordinalCount());
+        assertEquals(List.of(12L, 13L, 10L), search(IngredientIndex.Match.ANY, "basil", "ham", "garlic").pizzaIds());
+        assertEquals(List.of(11L), search(IngredientIndex.Match.ALL, "pepperoni").pizzaIds());
+    }
+
+    @Test
+    void writeArrivingDuringLoadIsApplied() throws Exception {
+        CafeCityEntry cafe = mock(CafeCityEntry.class);
+        when(cafe.getId()).thenReturn(1L);
+        when(cafe.getCity()).thenReturn("Kyiv");
+        PizzaIngredientsEntry loaded = mock(PizzaIngredientsEntry.class);
+        when(loaded.getId()).thenReturn(10L);
+        when(loaded.getIngredients()).thenReturn("Tomato, Basil");
+        when(loaded.getCafeId()).thenReturn(1L);
+        CafeRepository cafeRepository = mock(CafeRepository.class);
+        when(cafeRepository.findCitiesBy()).thenReturn(List.of(cafe));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PizzaRepository pizzaRepository = mock(PizzaRepository.class);
+        when(pizzaRepository.streamIngredientEntries()).thenReturn(Stream.of(loaded).peek(entry -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        IngredientIndex loadingIndex = new IngredientIndex(true);
+        ReflectionTestUtils.setField(loadingIndex, "cafeRepository", cafeRepository);
+        ReflectionTestUtils.setField(loadingIndex, "pizzaRepository", pizzaRepository);
+        ReflectionTestUtils.setField(loadingIndex, "transactionManager", transactionManager);
+        Cafe kyiv = new Cafe("Pepe", "Kyiv", "pepe@example.com", "+380501234567", "Khreshchatyk");
+        kyiv.setId(1);
+        Pizza pizza = new Pizza("Diavola", 12, "Large", "Tomato, Salami");
+        pizza.setId(11);
+        pizza.setCafe(kyiv);
+
+        Thread load = new Thread(loadingIndex::load);
+        load.start();
+        loading.await();
+        Thread write = new Thread(() -> loadingIndex.onPizzaSaved(new PizzaSavedEvent(pizza, "Pepe", "Khreshchatyk")));
+        write.start();
+        while (write.getState() != Thread.State.WAITING && write.isAlive()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        load.join();
+        write.join();
+
+        assertTrue(loadingIndex.isReady());
+        assertEquals(List.of(10L, 11L),
+                loadingIndex.search(List.of("tomato"), "Kyiv", IngredientIndex.Match.ALL, 10).pizzaIds());
+    }
+
+    @Test
+    void intersectAndUnionOfSortedArrays() {
+        int[] a = {1, 4, 9, 16, 25, 36};
+        int[] b = {2, 4, 6, 8, 10, 12, 14, 16, 18, 20, 36, 40};
+        assertArrayEquals(new int[]{4, 16, 36}, IngredientIndex.intersect(a, a.length, b, b.length));
+        assertArrayEquals(new int[]{1, 2, 4, 6, 9}, IngredientIndex.union(new int[]{1, 4, 9}, new int[]{2, 4, 6}));
+    }
+
+    private IngredientIndex.Hits search(IngredientIndex.Match match, String... ingredients) {
+        return index.search(List.of(ingredients), null, match, 100);
+    }
+}
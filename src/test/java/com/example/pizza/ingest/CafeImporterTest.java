@@ -0,0 +1,129 @@
+package com.example.pizza.ingest;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeImportReportDTO;
+import com.example.pizza.exception.exceptions.InvalidImportException;
+import com.example.pizza.repository.CafeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the cafe import against the embedded H2 database, with chunks of three rows so that
+ * the checks across chunks are exercised.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+        "pizza.import.batch-size=3",
+        "pizza.import.max-reported-errors=3"
+})
+@WithMockUser(roles = "ADMIN")
+class CafeImporterTest {
+
+    @Autowired
+    private CafeImporter importer;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @AfterEach
+    void tearDown() {
+        cafeRepository.deleteAll();
+    }
+
+    @Test
+    void csvImportSkipsAndReportsInvalidRows() throws IOException {
+        cafeRepository.save(new Cafe("Pepe", "Kyiv", "pepe@example.com", "+380501234567", "Khreshchatyk"));
+
+        CafeImportReportDTO report = importer.importCafes(body("""
+                city,name,note,address,email,phone
+                Kyiv,Celentano,"quoted, note",Podil,celentano@example.com,+380501234568
+                kyiv,Lowercase,,Obolon,lower@example.com,+380501234569
+                Lviv,Puzata Hata,,Rynok,hata@example.com,+380501234570
+                Lviv,Second Hata,,Rynok,second@example.com,+380501234571
+                Odesa,Copy,,Khreshchatyk,copy@example.com,+380501234572
+                Odesa,Short,Arcadia
+                Odesa,Late,,Podil,late@example.com,+380501234573
+                Dnipro,Dnipro Pizza,,Center,dnipro@example.com,+380501234574
+                """), CafeImporter.Format.CSV);
+
+        assertEquals(3, report.imported());
+        assertEquals(5, report.rejected());
+        assertTrue(report.truncated());
+        assertEquals(List.of(2L, 4L, 5L), report.errors().stream().map(CafeImportReportDTO.RowError::row).toList());
+        assertTrue(report.errors().get(0).errors().get(0).startsWith("city"));
+        assertEquals(4, cafeRepository.count());
+        Cafe imported = cafeRepository.findCafeByNameAndAddress("Celentano", "Podil");
+        assertEquals("celentano@example.com", imported.getEmail());
+        assertEquals("Kyiv", imported.getCity());
+    }
+
+    @Test
+    void ndjsonImport() throws IOException {
+        CafeImportReportDTO report = importer.importCafes(body("""
+                {"name":"Celentano","city":"Kyiv","address":"Podil","email":"celentano@example.com","phone":"+380501234568"}
+
+                {"name":"Broken",
+                {"name":"Puzata Hata","city":"Lviv","address":"Rynok","email":"hata@example.com","phone":"+380501234570"}
+                """), CafeImporter.Format.NDJSON);
+
+        assertEquals(2, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(2, report.errors().get(0).row());
+        assertNotNull(cafeRepository.findCafeByNameAndAddress("Puzata Hata", "Rynok"));
+    }
+
+    @Test
+    void csvEmptyFieldsAreMissingValues() throws IOException {
+        CafeImportReportDTO report = importer.importCafes(body("""
+                name,city,address,email,phone
+                Celentano,Kyiv,,celentano@example.com,
+                Puzata Hata,Lviv,,hata@example.com,+380501234570
+                Empty,,Podil,empty@example.com,""
+                """), CafeImporter.Format.CSV);
+
+        assertEquals(2, report.imported());
+        assertEquals(List.of(3L), report.errors().stream().map(CafeImportReportDTO.RowError::row).toList());
+        assertTrue(report.errors().get(0).errors().stream().anyMatch(error -> error.startsWith("city")));
+        Cafe imported = cafeRepository.findAll().stream()
+                .filter(cafe -> cafe.getName().equals("Celentano")).findFirst().orElseThrow();
+        assertNull(imported.getAddress());
+        assertNull(imported.getPhone());
+    }
+
+    @Test
+    void ndjsonNullLineIsReportedAsRowError() throws IOException {
+        CafeImportReportDTO report = importer.importCafes(body("""
+                null
+                {"name":"Celentano","city":"Kyiv","address":"Podil","email":"celentano@example.com","phone":"+380501234568"}
+                """), CafeImporter.Format.NDJSON);
+
+        assertEquals(1, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(1, report.errors().get(0).row());
+        assertEquals(List.of("Expected a cafe but found null"), report.errors().get(0).errors());
+    }
+
+    @Test
+    void csvHeaderMustNameEveryColumn() {
+        assertThrows(InvalidImportException.class, () -> importer.importCafes(body("""
+                name,city,address,email
+                Celentano,Kyiv,Podil,celentano@example.com
+                """), CafeImporter.Format.CSV));
+        assertEquals(0, cafeRepository.count());
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
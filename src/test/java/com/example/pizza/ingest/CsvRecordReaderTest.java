@@ -0,0 +1,48 @@
+package com.example.pizza.ingest;
+
+import com.example.pizza.exception.exceptions.InvalidImportException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void readsQuotedFieldsAcrossLines() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(
+                new StringReader("a,\"b, \"\"c\"\"\",\r\n\r\n\"multi\nline\",,x\n"), 100);
+
+        assertEquals(Arrays.asList("a", "b, \"c\"", null), reader.next());
+        assertEquals(Arrays.asList("multi\nline", null, "x"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void emptyFieldIsNullUnlessQuoted() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(",\"\",a,\n\"\"\n"), 100);
+
+        assertEquals(Arrays.asList(null, "", "a", null), reader.next());
+        assertEquals(List.of(""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsLongRecords() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("short\n" + "x".repeat(11) + "\n"), 10);
+
+        assertEquals(List.of("short"), reader.next());
+        assertThrows(InvalidImportException.class, reader::next);
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\"open,field\n"), 100);
+
+        assertThrows(InvalidImportException.class, reader::next);
+    }
+}
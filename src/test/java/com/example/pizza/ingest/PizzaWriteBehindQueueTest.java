@@ -0,0 +1,146 @@
+package com.example.pizza.ingest;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.WriteStatusDTO;
+import com.example.pizza.exception.exceptions.WriteQueueUnavailableException;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the write-behind queue against the embedded H2 database, on a database of its own as
+ * one test stops the queue.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehind;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+        "pizza.write-behind.enabled=true",
+        "pizza.write-behind.batch-size=50"
+})
+@WithMockUser(roles = "ADMIN")
+class PizzaWriteBehindQueueTest {
+
+    @Autowired
+    private PizzaWriteBehindQueue queue;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @BeforeEach
+    void setUp() {
+        cafeRepository.save(new Cafe("Pepe", "Kyiv", "pepe@example.com", "+380501234567", "Khreshchatyk"));
+        cafeRepository.save(new Cafe("Celentano", "Lviv", "celentano@example.com", "+380501234568", "Rynok"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pizzaRepository.deleteAll();
+        cafeRepository.deleteAll();
+    }
+
+    @Test
+    void appliesWritesAndReportsEachOutcome() throws InterruptedException {
+        Pizza existing = new Pizza("Hawaiian", 12, "Large", "Ham, pineapple");
+        existing.setCafe(cafeRepository.findCafeByNameAndAddress("Pepe", "Khreshchatyk"));
+        pizzaRepository.insertAll(List.of(existing));
+
+        String added = submitAdd("Margherita", 10, "Pepe", "Khreshchatyk");
+        String addedElsewhere = submitAdd("Diavola", 14, "Celentano", "Rynok");
+        String invalid = submitAdd("Cheap", 1, "Pepe", "Khreshchatyk");
+        String duplicate = submitAdd("Hawaiian", 12, "Pepe", "Khreshchatyk");
+        String noCafe = submitAdd("Marinara", 9, "Nowhere", "Nowhere");
+        String updated = submitUpdate(existing.getId(), 0, "Pineapple");
+        String stale = submitUpdate(existing.getId(), 0, "Stale");
+
+        assertDone(added);
+        assertDone(addedElsewhere);
+        assertEquals(existing.getId(), assertDone(updated).pizzaId());
+        assertFailed(invalid, "price");
+        assertFailed(duplicate, "already exists");
+        assertFailed(noCafe, "Cafe not found");
+        assertFailed(stale, "changed by another request");
+
+        assertEquals(3, pizzaRepository.count());
+        assertEquals("Pineapple", pizzaRepository.findById(existing.getId()).orElseThrow().getIngredients());
+        assertEquals(1, pizzaRepository.findMenuDtos("Celentano", "Rynok").size());
+    }
+
+    @Test
+    @DirtiesContext
+    void stopDrainsAcceptedWrites() throws InterruptedException {
+        List<String> trackingIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            trackingIds.add(submitAdd("Pizza" + (char) ('a' + i / 26) + (char) ('a' + i % 26), 10,
+                    i % 2 == 0 ? "Pepe" : "Celentano", i % 2 == 0 ? "Khreshchatyk" : "Rynok"));
+        }
+
+        queue.stop();
+
+        assertFalse(queue.isRunning());
+        assertEquals(0, queue.size());
+        for (String trackingId : trackingIds) {
+            assertEquals(WriteStatusDTO.State.DONE, queue.getStatus(trackingId).state());
+        }
+        assertEquals(200, pizzaRepository.count());
+        assertThrows(WriteQueueUnavailableException.class, () -> submitAdd("Late", 10, "Pepe", "Khreshchatyk"));
+    }
+
+    @Test
+    void stopsAfterWebServer() {
+        // The web server stops in phase DEFAULT_PHASE - 2048, after its graceful shutdown
+        assertTrue(queue.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE);
+        assertTrue(queue.getPhase() < SmartLifecycle.DEFAULT_PHASE - 2048);
+    }
+
+    private String submitAdd(String name, double price, String cafeName, String cafeAddress) {
+        Pizza pizza = new Pizza(name, price, "Medium", "Tomato, cheese");
+        return queue.submit(PizzaWriteBehindQueue.Operation.ADD, pizza, cafeName, cafeAddress).trackingId();
+    }
+
+    private String submitUpdate(long id, long version, String ingredients) {
+        Pizza pizza = new Pizza("Hawaiian", 13, "Large", ingredients);
+        pizza.setId(id);
+        pizza.setVersion(version);
+        return queue.submit(PizzaWriteBehindQueue.Operation.UPDATE, pizza, "Pepe", "Khreshchatyk").trackingId();
+    }
+
+    private WriteStatusDTO assertDone(String trackingId) throws InterruptedException {
+        WriteStatusDTO status = await(trackingId);
+        assertEquals(WriteStatusDTO.State.DONE, status.state(), status.error());
+        assertNotNull(status.pizzaId());
+        return status;
+    }
+
+    private void assertFailed(String trackingId, String error) throws InterruptedException {
+        WriteStatusDTO status = await(trackingId);
+        assertEquals(WriteStatusDTO.State.FAILED, status.state());
+        assertTrue(status.error().contains(error), status.error());
+    }
+
+    private WriteStatusDTO await(String trackingId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            WriteStatusDTO status = queue.getStatus(trackingId);
+            if (status.state() != WriteStatusDTO.State.QUEUED) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Write " + trackingId + " is still queued");
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.pizza.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestQueryMetricsFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RequestQueryMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestQueryMetricsFilter(meterRegistry);
+    }
+
+    @Test
+    void recordsStatementsAndEntityLoadsPerRoute() throws Exception {
+        QueryCountingInterceptor interceptor = new QueryCountingInterceptor();
+        FilterChain chain = (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/cafe/id/{id}");
+            interceptor.inspect("select 1");
+            interceptor.inspect("select 2");
+            interceptor.onLoad(new Object(), (Object) 1L, null, null, null);
+        };
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/cafe/id/1"), new MockHttpServletResponse(), chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/cafe/id/2"), new MockHttpServletResponse(), chain);
+
+        DistributionSummary statements = meterRegistry.get(RequestQueryMetricsFilter.STATEMENTS_METRIC)
+                .tag("method", "GET").tag("uri", "/cafe/id/{id}").summary();
+        DistributionSummary entityLoads = meterRegistry.get(RequestQueryMetricsFilter.ENTITY_LOADS_METRIC)
+                .tag("uri", "/cafe/id/{id}").summary();
+        assertEquals(2, statements.count());
+        assertEquals(4, statements.totalAmount());
+        assertEquals(2, entityLoads.totalAmount());
+    }
+
+    @Test
+    void unmappedRequestIsRecordedUnderUnknownRoute() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/missing"), new MockHttpServletResponse(),
+                (request, response) -> { });
+
+        assertEquals(1, meterRegistry.get(RequestQueryMetricsFilter.STATEMENTS_METRIC)
+                .tag("uri", "UNKNOWN").summary().count());
+    }
+}
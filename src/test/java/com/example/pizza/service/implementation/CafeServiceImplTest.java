@@ -1,20 +1,40 @@
 package com.example.pizza.service.implementation;
 
+import com.example.pizza.catalog.Catalog;
+import com.example.pizza.catalog.CatalogSnapshot;
 import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeAddressEntry;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.dto.CatalogExportRow;
+import com.example.pizza.dto.DeletedRowsDTO;
+import com.example.pizza.dto.VersionStamp;
+import com.example.pizza.event.CafeDeletedEvent;
+import com.example.pizza.event.CafeSavedEvent;
 import com.example.pizza.exception.exceptions.CafeNotFoundException;
 import com.example.pizza.exception.exceptions.EmptyCafeListException;
 import com.example.pizza.exception.exceptions.IdNotFoundException;
+import com.example.pizza.exception.exceptions.VersionConflictException;
+import com.example.pizza.index.CafeChainIndex;
 import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +44,21 @@ class CafeServiceImplTest {
     @Mock
     private CafeRepository cafeRepository;
 
+    @Mock
+    private PizzaRepository pizzaRepository;
+
+    @Mock
+    private CafeChainIndex chainIndex;
+
+    @Mock
+    private Catalog catalog;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private CafeServiceImpl cafeService;
 
@@ -35,66 +70,149 @@ class CafeServiceImplTest {
 
     @Test
     void getAllCafes() {
-        List<Cafe> mockCafes = Collections.singletonList(new Cafe());
+        List<CafeDTO> mockCafes = Collections.singletonList(cafe(1, "TestCafe", "TestAddress"));
 
-        when(cafeRepository.findAll()).thenReturn(mockCafes);
-        List<Cafe> result = cafeService.getAllCafes();
+        when(cafeRepository.findAllDtos()).thenReturn(mockCafes);
+        List<CafeDTO> result = cafeService.getAllCafes();
 
         assertEquals(mockCafes, result);
+        verify(cafeRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllCafesFromSnapshot() {
+        CatalogSnapshot snapshot = mock(CatalogSnapshot.class);
+        List<CafeDTO> cafes = List.of(cafe(1, "TestCafe", "TestAddress"));
+        when(catalog.snapshot()).thenReturn(snapshot);
+        when(snapshot.getAllCafes()).thenReturn(cafes);
+
+        assertEquals(cafes, cafeService.getAllCafes());
+        verifyNoInteractions(cafeRepository);
+    }
+
+    @Test
+    void getAllCafesVersion() {
+        VersionStamp stamp = new VersionStamp(3, 5, 9, 1);
+        when(cafeRepository.findVersionStamp()).thenReturn(stamp);
+
+        assertEquals(stamp, cafeService.getAllCafesVersion());
+        verify(cafeRepository, never()).findAllDtos();
     }
 
     @Test
     void getAllCafesEmptyList() {
-        when(cafeRepository.findAll()).thenReturn(Collections.emptyList());
+        when(cafeRepository.findAllDtos()).thenReturn(Collections.emptyList());
 
         assertThrows(EmptyCafeListException.class, () -> cafeService.getAllCafes());
     }
 
+    @Test
+    void getCafesAfter() {
+        List<CafeDTO> mockCafes = Collections.singletonList(cafe(11, "TestCafe", "TestAddress"));
+
+        when(cafeRepository.findDtosAfter(10, PageRequest.of(0, 20))).thenReturn(mockCafes);
+        List<CafeDTO> result = cafeService.getCafesAfter(10, 20);
+
+        assertEquals(mockCafes, result);
+    }
+
+    @Test
+    void getCafesAfterClampsLimit() {
+        cafeService.getCafesAfter(0, 1_000_000);
+        cafeService.getCafesAfter(0, -5);
+
+        verify(cafeRepository, times(1)).findDtosAfter(0, PageRequest.of(0, CafeServiceImpl.MAX_PAGE_SIZE));
+        verify(cafeRepository, times(1)).findDtosAfter(0, PageRequest.of(0, 1));
+    }
+
+    @Test
+    void forEachCafe() {
+        CafeDTO first = cafe(1, "FirstCafe", "FirstAddress");
+        CafeDTO second = cafe(2, "SecondCafe", "SecondAddress");
+        List<CafeDTO> consumed = new ArrayList<>();
+
+        when(cafeRepository.streamAllDtos()).thenReturn(Stream.of(first, second));
+        cafeService.forEachCafe(consumed::add);
+
+        assertEquals(List.of(first, second), consumed);
+    }
+
+    @Test
+    void forEachExportRow() {
+        CatalogExportRow withPizza = new CatalogExportRow(1, "FirstCafe", "Kyiv", "FirstAddress",
+                "first@example.com", "+380501234567", 10L, "Margherita", 10.0, "Medium", "Tomato, cheese");
+        CatalogExportRow withoutPizza = new CatalogExportRow(2, "SecondCafe", "Lviv", "SecondAddress",
+                "second@example.com", "+380501234568", null, null, null, null, null);
+        List<CatalogExportRow> consumed = new ArrayList<>();
+
+        when(cafeRepository.streamExportRows()).thenReturn(Stream.of(withPizza, withoutPizza));
+        cafeService.forEachExportRow(consumed::add);
+
+        assertEquals(List.of(withPizza, withoutPizza), consumed);
+    }
+
     @Test
     void getCafeByNameAndAddress() {
         String cafeName = "TestName";
         String cafeAddress = "TestAddress";
-        Cafe mockCafe = new Cafe();
+        CafeDTO mockCafe = cafe(1, cafeName, cafeAddress);
 
-        when(cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress)).thenReturn(mockCafe);
-        Cafe cafe = cafeService.getCafeByNameAndAddress(cafeName, cafeAddress);
+        when(cafeRepository.findDtoByNameAndAddress(cafeName, cafeAddress)).thenReturn(mockCafe);
+        CafeDTO cafe = cafeService.getCafeByNameAndAddress(cafeName, cafeAddress);
         assertEquals(mockCafe, cafe);
     }
 
+    @Test
+    void getCafeByNameAndAddressNotFound() {
+        assertThrows(CafeNotFoundException.class, () -> cafeService.getCafeByNameAndAddress("TestName", "TestAddress"));
+    }
+
     @Test
     void getCafeById() {
         long cafeId = 1000;
-        Cafe mockCafe = new Cafe();
+        CafeDTO mockCafe = cafe(cafeId, "TestCafe", "TestAddress");
 
-        when(cafeRepository.findById(cafeId)).thenReturn(Optional.of(mockCafe));
-        Cafe cafe = cafeService.getCafeById(cafeId);
+        when(cafeRepository.findDtoById(cafeId)).thenReturn(mockCafe);
+        CafeDTO cafe = cafeService.getCafeById(cafeId);
         assertEquals(mockCafe, cafe);
+        verify(cafeRepository, never()).findById(cafeId);
     }
 
     @Test
     void getCafeByIdNotFound() {
         long notExistingId = 122334;
 
-        when(cafeRepository.findById(notExistingId)).thenReturn(Optional.empty());
         assertThrows(IdNotFoundException.class, () -> cafeService.getCafeById(notExistingId));
     }
 
     @Test
     void getCafeChain() {
         String cafeName = "TestCafe";
-        List<Cafe> mockCafeList = Arrays.asList(
-                new Cafe(cafeName, "TestCity1", "TestEmail1", "TestPhone1", "TestAddress1"),
-                new Cafe(cafeName, "TestCity2", "TestEmail2", "TestPhone2", "Address2")
-        );
-        when(cafeRepository.findAll()).thenReturn(mockCafeList);
-        List<Cafe> cafeList = cafeService.getCafeChain(cafeName);
+        List<CafeDTO> mockCafeList = Arrays.asList(cafe(1, cafeName, "TestAddress1"), cafe(2, cafeName, "Address2"));
+        when(cafeRepository.findDtosByName(cafeName)).thenReturn(mockCafeList);
+        List<CafeDTO> cafeList = cafeService.getCafeChain(cafeName);
+        assertEquals(mockCafeList, cafeList);
+        verify(cafeRepository, never()).findAllDtos();
+    }
+
+    @Test
+    void getCafeChainFromIndex() {
+        String cafeName = "TestCafe";
+        List<CafeDTO> mockCafeList = List.of(cafe(7, cafeName, "TestAddress"));
+
+        when(chainIndex.isReady()).thenReturn(true);
+        when(chainIndex.getCafeIds(cafeName)).thenReturn(Set.of(7L));
+        when(cafeRepository.findDtosByIds(Set.of(7L))).thenReturn(mockCafeList);
+        List<CafeDTO> cafeList = cafeService.getCafeChain(cafeName);
+
         assertEquals(mockCafeList, cafeList);
+        verify(cafeRepository, never()).findDtosByName(cafeName);
     }
 
     @Test
     void getCafeChainEmptyList() {
         String cafeName = "TestCafe";
-        when(cafeRepository.findAll()).thenReturn(List.of());
+        when(cafeRepository.findDtosByName(cafeName)).thenReturn(List.of());
 
         assertThrows(EmptyCafeListException.class, () -> cafeService.getCafeChain(cafeName));
     }
@@ -113,58 +231,132 @@ class CafeServiceImplTest {
         assertEquals(mockCafe.getPhone(), result.getPhone());
 
         verify(cafeRepository, times(1)).save(mockCafe);
+        verify(eventPublisher, times(1)).publishEvent(new CafeSavedEvent(mockCafe));
     }
 
     @Test
     void updateCafe() {
-        Cafe existingCafe = new Cafe("ExistingCafe", "ExistingCity", "ExistingEmail", "ExistingPhone", "ExistingAddress");
-        Cafe updatedCafe = new Cafe("UpdatedCafe", "UpdatedCity", "UpdatedEmail", "UpdatedPhone", "UpdatedAddress");
+        Cafe updatedCafe = new Cafe("UpdatedCafe", "Kyiv", "updated@example.com", "+380501234567", "UpdatedAddress");
+        updatedCafe.setId(1);
+        updatedCafe.setVersion(3);
 
-        when(cafeRepository.findById(existingCafe.getId())).thenReturn(Optional.of(existingCafe));
-        when(cafeRepository.save(any(Cafe.class))).thenReturn(updatedCafe);
+        when(cafeRepository.updateIfVersion(1, 3, "UpdatedCafe", "Kyiv", "UpdatedAddress",
+                "updated@example.com", "+380501234567")).thenReturn(1);
         Cafe result = cafeService.updateCafe(updatedCafe);
 
-        assertNotNull(result);
-        assertEquals(updatedCafe.getName(), result.getName());
-        assertEquals(updatedCafe.getAddress(), result.getAddress());
-        assertEquals(updatedCafe.getCity(), result.getCity());
-        assertEquals(updatedCafe.getEmail(), result.getEmail());
-        assertEquals(updatedCafe.getPhone(), result.getPhone());
-
-        verify(cafeRepository, times(1)).findById(updatedCafe.getId());
-        verify(cafeRepository, times(1)).save(existingCafe);
+        assertSame(updatedCafe, result);
+        assertEquals(4, result.getVersion());
+        verify(cafeRepository, never()).findById(anyLong());
+        verify(cafeRepository, never()).existsById(anyLong());
+        verify(cafeRepository, never()).save(any(Cafe.class));
+        verify(eventPublisher, times(1)).publishEvent(new CafeSavedEvent(updatedCafe));
     }
 
     @Test
     void updateCafeNotFound() {
-        Cafe nonExistingCafe = new Cafe("NonExistingCafe", "NonExistingAddress", "NonExistingCity", "NonExistingEmail", "NonExistingPhone");
+        Cafe nonExistingCafe = new Cafe("NonExistingCafe", "Kyiv", "missing@example.com", "+380501234567", "NonExistingAddress");
+        nonExistingCafe.setId(1);
 
-        when(cafeRepository.findById(nonExistingCafe.getId())).thenReturn(Optional.empty());
+        when(cafeRepository.existsById(1L)).thenReturn(false);
         assertThrows(CafeNotFoundException.class, () -> cafeService.updateCafe(nonExistingCafe));
-        verify(cafeRepository, times(1)).findById(nonExistingCafe.getId());
-        verify(cafeRepository, never()).save(any(Cafe.class));
+        verify(cafeRepository, times(1)).existsById(1L);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateCafeVersionConflict() {
+        Cafe staleCafe = new Cafe("StaleCafe", "Kyiv", "stale@example.com", "+380501234567", "StaleAddress");
+        staleCafe.setId(1);
+        staleCafe.setVersion(2);
+
+        when(cafeRepository.existsById(1L)).thenReturn(true);
+        assertThrows(VersionConflictException.class, () -> cafeService.updateCafe(staleCafe));
+        assertEquals(2, staleCafe.getVersion());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateCafeInvalid() {
+        Cafe invalidCafe = new Cafe("", "City", "not an email", "+380501234567", "Address");
+
+        assertThrows(ConstraintViolationException.class, () -> cafeService.updateCafe(invalidCafe));
+        verify(cafeRepository, never()).updateIfVersion(anyLong(), anyLong(), any(), any(), any(), any(), any());
     }
 
     @Test
     void deleteCafeById() {
         long cafeId = 1;
-        cafeService.deleteCafeById(cafeId);
+        when(cafeRepository.findAddressesById(cafeId)).thenReturn(List.of(address(cafeId, "Cafe name", "Cafe address")));
+        when(pizzaRepository.deleteAllByCafeIds(List.of(cafeId))).thenReturn(3);
+        when(cafeRepository.deleteAllByIds(List.of(cafeId))).thenReturn(1);
 
-        verify(cafeRepository, times(1)).deleteById(cafeId);
+        assertEquals(new DeletedRowsDTO(1, 3), cafeService.deleteCafeById(cafeId));
+
+        verify(cafeRepository, never()).delete(any(Cafe.class));
+        verify(eventPublisher, times(1)).publishEvent(new CafeDeletedEvent(cafeId, "Cafe name", "Cafe address"));
+    }
+
+    @Test
+    void deleteCafeByIdNotFound() {
+        long cafeId = 1;
+
+        when(cafeRepository.findAddressesById(cafeId)).thenReturn(List.of());
+
+        assertEquals(DeletedRowsDTO.NONE, cafeService.deleteCafeById(cafeId));
+        verify(cafeRepository, never()).deleteAllByIds(any());
+        verifyNoInteractions(pizzaRepository);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void deleteCafeChain() {
         String cafeName = "Cafe name";
-        cafeService.deleteCafeChain(cafeName);
-        verify(cafeRepository, times(1)).deleteCafesByName(cafeName);
+        when(cafeRepository.findAddressesByName(cafeName)).thenReturn(List.of(
+                address(1, cafeName, "First address"), address(2, cafeName, "Second address")));
+        when(pizzaRepository.deleteAllByCafeIds(List.of(1L, 2L))).thenReturn(250);
+        when(cafeRepository.deleteAllByIds(List.of(1L, 2L))).thenReturn(2);
+
+        assertEquals(new DeletedRowsDTO(2, 250), cafeService.deleteCafeChain(cafeName));
+
+        verify(pizzaRepository, times(1)).deleteAllByCafeIds(List.of(1L, 2L));
+        verify(cafeRepository, times(1)).deleteAllByIds(List.of(1L, 2L));
+        verify(eventPublisher, times(1)).publishEvent(new CafeDeletedEvent(1, cafeName, "First address"));
+        verify(eventPublisher, times(1)).publishEvent(new CafeDeletedEvent(2, cafeName, "Second address"));
     }
 
     @Test
     void deleteCafeByNameAndAddress() {
         String cafeName = "Cafe name";
         String cafeAddress = "Cafe address";
-        cafeService.deleteCafeByNameAndAddress(cafeName, cafeAddress);
-        verify(cafeRepository, times(1)).deleteCafeByNameAndAddress(cafeName, cafeAddress);
+        when(cafeRepository.findAddressesByNameAndAddress(cafeName, cafeAddress))
+                .thenReturn(List.of(address(7, cafeName, cafeAddress)));
+        when(pizzaRepository.deleteAllByCafeIds(List.of(7L))).thenReturn(0);
+        when(cafeRepository.deleteAllByIds(List.of(7L))).thenReturn(1);
+
+        assertEquals(new DeletedRowsDTO(1, 0), cafeService.deleteCafeByNameAndAddress(cafeName, cafeAddress));
+        verify(eventPublisher, times(1)).publishEvent(new CafeDeletedEvent(7, cafeName, cafeAddress));
+    }
+
+    private static CafeDTO cafe(long id, String name, String address) {
+        return new CafeDTO(id, name, "TestCity", address, "TestEmail", "TestPhone", 0);
+    }
+
+    private static CafeAddressEntry address(long id, String name, String address) {
+        return new CafeAddressEntry() {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getAddress() {
+                return address;
+            }
+        };
     }
-}
\ No newline at end of file
+}
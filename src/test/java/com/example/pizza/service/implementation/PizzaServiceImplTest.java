@@ -1,20 +1,40 @@
 package com.example.pizza.service.implementation;
 
+import com.example.pizza.cache.MenuCache;
+import com.example.pizza.catalog.Catalog;
+import com.example.pizza.columnar.PizzaColumnStore;
 import com.example.pizza.domain.entity.Cafe;
 import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.dto.DeletedRowsDTO;
+import com.example.pizza.dto.PizzaDTO;
+import com.example.pizza.dto.PizzaPriceStatsDTO;
+import com.example.pizza.dto.PizzaSearchResultDTO;
+import com.example.pizza.dto.VersionStamp;
+import com.example.pizza.event.PizzaDeletedEvent;
+import com.example.pizza.event.PizzaSavedEvent;
+import com.example.pizza.event.PizzaUpdatedEvent;
 import com.example.pizza.exception.exceptions.CafeNotFoundException;
 import com.example.pizza.exception.exceptions.EmptyPizzaListException;
+import com.example.pizza.exception.exceptions.InvalidPizzaBatchException;
 import com.example.pizza.exception.exceptions.PizzaNotFoundException;
+import com.example.pizza.exception.exceptions.SearchUnavailableException;
+import com.example.pizza.exception.exceptions.VersionConflictException;
+import com.example.pizza.index.IngredientIndex;
 import com.example.pizza.repository.CafeRepository;
 import com.example.pizza.repository.PizzaRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +46,25 @@ class PizzaServiceImplTest {
 
     @Mock
     private CafeRepository cafeRepository;
+
+    @Mock
+    private Catalog catalog;
+
+    @Mock
+    private IngredientIndex ingredientIndex;
+
+    @Mock
+    private PizzaColumnStore columnStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MenuCache menuCache = new MenuCache(100);
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private PizzaServiceImpl pizzaService;
 
@@ -38,19 +77,36 @@ class PizzaServiceImplTest {
     void getAllInCafe() {
         String cafeName = "TestCafe";
         String cafeAddress = "TestAddress";
-        Cafe cafe = new Cafe(cafeName, cafeAddress, "TestCity", "TestEmail", "TestPhone");
 
-        List<Pizza> mockPizzaList = Arrays.asList(
-                new Pizza("Margherita", 10.0, "Medium", "Tomato, Cheese"),
-                new Pizza("Pepperoni", 12.0, "Large", "Pepperoni, Cheese")
+        List<PizzaDTO> mockPizzaList = Arrays.asList(
+                pizza(1, "Margherita", 10.0, "Medium", "Tomato, Cheese"),
+                pizza(2, "Pepperoni", 12.0, "Large", "Pepperoni, Cheese")
         );
 
-        when(pizzaRepository.findByCafe_NameAndCafe_Address(cafeName, cafeAddress)).thenReturn(mockPizzaList);
-        List<Pizza> result = pizzaService.getAllInCafe(cafeName, cafeAddress);
+        when(pizzaRepository.findMenuDtos(cafeName, cafeAddress)).thenReturn(mockPizzaList);
+        List<PizzaDTO> result = pizzaService.getAllInCafe(cafeName, cafeAddress);
 
-        assertNotNull(result);
-        assertEquals(mockPizzaList.size(), result.size());
-        verify(pizzaRepository, times(1)).findByCafe_NameAndCafe_Address(cafeName, cafeAddress);
+        assertEquals(mockPizzaList, result);
+        verify(pizzaRepository, times(1)).findMenuDtos(cafeName, cafeAddress);
+    }
+
+    @Test
+    void getAllInCafeServedFromCache() {
+        String cafeName = "TestCafe";
+        String cafeAddress = "TestAddress";
+        List<PizzaDTO> mockPizzaList = List.of(pizza(0, "Margherita", 10.0, "Medium", "Tomato, Cheese"));
+
+        when(pizzaRepository.findMenuDtos(cafeName, cafeAddress)).thenReturn(mockPizzaList);
+        pizzaService.getAllInCafe(cafeName, cafeAddress);
+        pizzaService.getPizzaByName("Margherita", cafeName, cafeAddress);
+        pizzaService.getPizzaById(cafeName, cafeAddress, 0);
+
+        verify(pizzaRepository, times(1)).findMenuDtos(cafeName, cafeAddress);
+
+        menuCache.invalidate(cafeName, cafeAddress);
+        pizzaService.getAllInCafe(cafeName, cafeAddress);
+
+        verify(pizzaRepository, times(2)).findMenuDtos(cafeName, cafeAddress);
     }
 
     @Test
@@ -58,10 +114,76 @@ class PizzaServiceImplTest {
         String cafeName = "TestCafe";
         String cafeAddress = "TestAddress";
 
-        when(pizzaRepository.findByCafe_NameAndCafe_Address(cafeName, cafeAddress)).thenReturn(List.of());
+        when(pizzaRepository.findMenuDtos(cafeName, cafeAddress)).thenReturn(List.of());
         assertThrows(EmptyPizzaListException.class, () -> pizzaService.getAllInCafe(cafeName, cafeAddress));
-        verify(pizzaRepository, times(1)).findByCafe_NameAndCafe_Address(cafeName, cafeAddress);
+        verify(pizzaRepository, times(1)).findMenuDtos(cafeName, cafeAddress);
+
+    }
+
+    @Test
+    void getMenuVersion() {
+        VersionStamp stamp = new VersionStamp(2, 7, 13, 3);
+        when(pizzaRepository.findMenuVersionStamp("TestCafe", "TestAddress")).thenReturn(stamp);
 
+        assertEquals(stamp, pizzaService.getMenuVersion("TestCafe", "TestAddress"));
+        assertEquals("\"menu-2-7-d-3\"", stamp.toETag("menu"));
+        verify(pizzaRepository, never()).findMenuDtos(any(), any());
+    }
+
+    @Test
+    void searchByIngredients() {
+        PizzaDTO margherita = pizza(3, "Margherita", 10.0, "Medium", "Tomato, Cheese");
+        PizzaDTO capricciosa = pizza(8, "Capricciosa", 12.0, "Large", "Tomato, Ham, Cheese");
+        when(ingredientIndex.isReady()).thenReturn(true);
+        when(ingredientIndex.search(List.of("tomato"), "TestCity", IngredientIndex.Match.ALL, 2))
+                .thenReturn(new IngredientIndex.Hits(5, List.of(8L, 3L)));
+        when(pizzaRepository.findDtosByIds(List.of(8L, 3L))).thenReturn(List.of(margherita, capricciosa));
+
+        PizzaSearchResultDTO result = pizzaService.searchByIngredients(
+                List.of("tomato"), "TestCity", IngredientIndex.Match.ALL, 2);
+
+        assertEquals(5, result.total());
+        assertEquals(List.of(capricciosa, margherita), result.pizzas());
+        verify(pizzaRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void searchByIngredientsIndexNotReady() {
+        when(ingredientIndex.isReady()).thenReturn(false);
+
+        assertThrows(SearchUnavailableException.class, () -> pizzaService.searchByIngredients(
+                List.of("tomato"), null, IngredientIndex.Match.ANY, 10));
+        verifyNoInteractions(pizzaRepository);
+    }
+
+    @Test
+    void filterPizzas() {
+        PizzaDTO margherita = pizza(3, "Margherita", 10.0, "Large", "Tomato, Cheese");
+        PizzaColumnStore.Filter filter = new PizzaColumnStore.Filter("Large", "TestCity", null, 15.0);
+        when(columnStore.isReady()).thenReturn(true);
+        when(columnStore.filter(filter, PizzaColumnStore.Sort.PRICE_ASC, PizzaServiceImpl.MAX_SEARCH_LIMIT))
+                .thenReturn(new PizzaColumnStore.Rows(1, List.of(3L)));
+        when(pizzaRepository.findDtosByIds(List.of(3L))).thenReturn(List.of(margherita));
+
+        PizzaSearchResultDTO result = pizzaService.filterPizzas(filter, PizzaColumnStore.Sort.PRICE_ASC, 10_000);
+
+        assertEquals(1, result.total());
+        assertEquals(List.of(margherita), result.pizzas());
+    }
+
+    @Test
+    void getPriceStats() {
+        PizzaColumnStore.Filter filter = new PizzaColumnStore.Filter(null, "TestCity", null, null);
+        List<PizzaPriceStatsDTO> stats = List.of(new PizzaPriceStatsDTO("Large", 2, 10.0, 11.0, 12.0));
+        when(columnStore.isReady()).thenReturn(true);
+        when(columnStore.priceStats(filter, PizzaColumnStore.GroupBy.SIZE)).thenReturn(stats);
+
+        assertEquals(stats, pizzaService.getPriceStats(filter, PizzaColumnStore.GroupBy.SIZE));
+        verifyNoInteractions(pizzaRepository);
+
+        when(columnStore.isReady()).thenReturn(false);
+        assertThrows(SearchUnavailableException.class,
+                () -> pizzaService.getPriceStats(filter, PizzaColumnStore.GroupBy.NONE));
     }
 
     @Test
@@ -70,14 +192,14 @@ class PizzaServiceImplTest {
         String cafeName = "TestCafe";
         String cafeAddress = "TestAddress";
 
-        Pizza mockPizza = new Pizza(pizzaName, 10.0, "Medium", "Tomato, Cheese");
-        when(pizzaRepository.findByCafe_NameAndCafe_AddressAndName(pizzaName, cafeName, cafeAddress)).thenReturn(mockPizza);
-        Pizza pizza = pizzaService.getPizzaByName(pizzaName, cafeName, cafeAddress);
+        PizzaDTO mockPizza = pizza(1, pizzaName, 10.0, "Medium", "Tomato, Cheese");
+        when(pizzaRepository.findMenuDtos(cafeName, cafeAddress)).thenReturn(List.of(mockPizza));
+        PizzaDTO pizza = pizzaService.getPizzaByName(pizzaName, cafeName, cafeAddress);
 
         assertNotNull(pizza);
         assertEquals(mockPizza, pizza);
 
-        verify(pizzaRepository, times(1)).findByCafe_NameAndCafe_AddressAndName(pizzaName, cafeName, cafeAddress);
+        verify(pizzaRepository, times(1)).findMenuDtos(cafeName, cafeAddress);
 
     }
 
@@ -87,10 +209,10 @@ class PizzaServiceImplTest {
         String cafeName = "TestCafe";
         String cafeAddress = "TestAddress";
 
-        when(pizzaRepository.findByCafe_NameAndCafe_AddressAndName(pizzaName, cafeName, cafeAddress)).thenReturn(null);
+        when(pizzaRepository.findMenuDtos(cafeName, cafeAddress)).thenReturn(List.of());
         assertThrows(PizzaNotFoundException.class, () -> pizzaService.getPizzaByName(pizzaName, cafeName, cafeAddress));
 
-        verify(pizzaRepository, times(1)).findByCafe_NameAndCafe_AddressAndName(pizzaName, cafeName, cafeAddress);
+        verify(pizzaRepository, times(1)).findMenuDtos(cafeName, cafeAddress);
     }
 
     @Test
@@ -99,18 +221,18 @@ class PizzaServiceImplTest {
         String cafeAddress = "TestAddress";
         long pizzaId = 0;
 
-        Pizza pizza = new Pizza("Margherita", 10.0, "Medium", "Tomato, Cheese");
+        PizzaDTO pizza = pizza(pizzaId, "Margherita", 10.0, "Medium", "Tomato, Cheese");
 
-        when(pizzaRepository.findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, pizzaId)).thenReturn(pizza);
-        Pizza resultPizza = pizzaService.getPizzaById(cafeName, cafeAddress, pizzaId);
-        verify(pizzaRepository, times(1)).findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, pizzaId);
+        when(pizzaRepository.findMenuDtos(cafeName, cafeAddress)).thenReturn(List.of(pizza));
+        PizzaDTO resultPizza = pizzaService.getPizzaById(cafeName, cafeAddress, pizzaId);
+        verify(pizzaRepository, times(1)).findMenuDtos(cafeName, cafeAddress);
 
         assertNotNull(resultPizza);
-        assertEquals(pizzaId, resultPizza.getId());
-        assertEquals("Margherita", resultPizza.getName());
-        assertEquals(10.0, resultPizza.getPrice());
-        assertEquals("Medium", resultPizza.getSize());
-        assertEquals("Tomato, Cheese", resultPizza.getIngredients());
+        assertEquals(pizzaId, resultPizza.id());
+        assertEquals("Margherita", resultPizza.name());
+        assertEquals(10.0, resultPizza.price());
+        assertEquals("Medium", resultPizza.size());
+        assertEquals("Tomato, Cheese", resultPizza.ingredients());
     }
 
     @Test
@@ -120,11 +242,11 @@ class PizzaServiceImplTest {
         String cafeAddress = "TestAddress";
         long nonExistentPizzaId = 2L;
 
-        when(pizzaRepository.findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, nonExistentPizzaId)).thenReturn(null);
+        when(pizzaRepository.findMenuDtos(cafeName, cafeAddress)).thenReturn(List.of());
         PizzaNotFoundException exception = assertThrows(PizzaNotFoundException.class,
                 () -> pizzaService.getPizzaById(cafeName, cafeAddress, nonExistentPizzaId));
 
-        verify(pizzaRepository, times(1)).findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, nonExistentPizzaId);
+        verify(pizzaRepository, times(1)).findMenuDtos(cafeName, cafeAddress);
     }
 
 
@@ -140,6 +262,7 @@ class PizzaServiceImplTest {
         pizzaService.addPizza(pizza, cafeName, cafeAddress);
         verify(cafeRepository, times(1)).findCafeByNameAndAddress(cafeName, cafeAddress);
         verify(pizzaRepository, times(1)).save(pizza);
+        verify(eventPublisher, times(1)).publishEvent(new PizzaSavedEvent(pizza, cafeName, cafeAddress));
     }
 
     @Test
@@ -161,30 +284,95 @@ class PizzaServiceImplTest {
     }
 
     @Test
-    void updatePizza() {
+    void addPizzas() {
         String cafeName = "TestCafe";
         String cafeAddress = "TestAddress";
 
         Cafe cafe = new Cafe(cafeName, "TestCity", "TestEmail", "TestPhone", cafeAddress);
-        Pizza existingPizza = new Pizza("Margherita", 10.0, "Medium", "Tomato, Cheese");
-        Pizza updatedPizza = new Pizza("Pepperoni", 12.0, "Large", "Pepperoni, Cheese");
+        List<Pizza> pizzas = List.of(
+                new Pizza("Margherita", 10.0, "Medium", "Tomato, Cheese"),
+                new Pizza("Pepperoni", 12.0, "Large", "Pepperoni, Cheese")
+        );
 
+        when(cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress)).thenReturn(cafe);
+        when(pizzaRepository.findExistingNames(Set.of("Margherita", "Pepperoni"))).thenReturn(Set.of());
+        int added = pizzaService.addPizzas(pizzas, cafeName, cafeAddress);
+
+        assertEquals(2, added);
+        assertEquals(cafe, pizzas.get(0).getCafe());
+        assertEquals(cafe, pizzas.get(1).getCafe());
+        verify(cafeRepository, times(1)).findCafeByNameAndAddress(cafeName, cafeAddress);
+        verify(pizzaRepository, times(1)).insertAll(pizzas);
+        verify(pizzaRepository, never()).save(any());
+        verify(eventPublisher, times(2)).publishEvent(any(PizzaSavedEvent.class));
+    }
+
+    @Test
+    void addPizzasCafeNotFound() {
+        String cafeName = "NonExistingCafe";
+        String cafeAddress = "NonExistingAddress";
+        List<Pizza> pizzas = List.of(new Pizza("Margherita", 10.0, "Medium", "Tomato, Cheese"));
+
+        when(cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress)).thenReturn(null);
+
+        assertThrows(CafeNotFoundException.class, () -> pizzaService.addPizzas(pizzas, cafeName, cafeAddress));
+        verify(pizzaRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void addPizzasInvalidBatch() {
+        String cafeName = "TestCafe";
+        String cafeAddress = "TestAddress";
+
+        Cafe cafe = new Cafe(cafeName, "TestCity", "TestEmail", "TestPhone", cafeAddress);
+        List<Pizza> pizzas = List.of(
+                new Pizza("Margherita", 10.0, "Medium", "Tomato, Cheese"),
+                new Pizza("Margherita", 12.0, "Large", "Tomato, Cheese"),
+                new Pizza("lowercase", 100.0, "Small", "Cheese"),
+                new Pizza("Existing", 10.0, "Small", "Cheese")
+        );
 
         when(cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress)).thenReturn(cafe);
-        when(pizzaRepository.findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, updatedPizza.getId()))
-                .thenReturn(existingPizza);
+        when(pizzaRepository.findExistingNames(any())).thenReturn(Set.of("Existing"));
+
+        InvalidPizzaBatchException exception = assertThrows(InvalidPizzaBatchException.class,
+                () -> pizzaService.addPizzas(pizzas, cafeName, cafeAddress));
+
+        assertTrue(exception.getMessage().contains("pizzas[1].name: duplicate name in batch"));
+        assertTrue(exception.getMessage().contains("pizzas[2].name"));
+        assertTrue(exception.getMessage().contains("pizzas[2].price"));
+        assertTrue(exception.getMessage().contains("'Existing' already exists"));
+        verify(pizzaRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void updatePizza() {
+        String cafeName = "TestCafe";
+        String cafeAddress = "TestAddress";
+        Pizza updatedPizza = new Pizza("Pepperoni", 12.0, "Large", "Pepperoni, Cheese");
+        updatedPizza.setId(5);
+        updatedPizza.setVersion(1);
+
+        when(pizzaRepository.updateIfVersion(5, 1, "Pepperoni", 12.0, "Large", "Pepperoni, Cheese",
+                cafeName, cafeAddress)).thenReturn(1);
 
         pizzaService.updatePizza(updatedPizza, cafeName, cafeAddress);
 
-        verify(cafeRepository, times(1)).findCafeByNameAndAddress(cafeName, cafeAddress);
-        verify(pizzaRepository, times(1)).findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, updatedPizza.getId());
-        verify(pizzaRepository, times(1)).save(existingPizza);
+        assertEquals(2, updatedPizza.getVersion());
+        verify(cafeRepository, never()).findCafeByNameAndAddress(any(), any());
+        verify(cafeRepository, never()).existsByNameAndAddress(any(), any());
+        verify(pizzaRepository, never()).save(any());
+        verify(eventPublisher, times(1)).publishEvent(new PizzaUpdatedEvent(updatedPizza, cafeName, cafeAddress));
+    }
+
+    @Test
+    void updatePizzaCafeNotFound() {
+        Pizza pizza = new Pizza("Pepperoni", 12.0, "Large", "Pepperoni, Cheese");
+
+        when(cafeRepository.existsByNameAndAddress("TestCafe", "TestAddress")).thenReturn(false);
 
-        assertEquals("Pepperoni", existingPizza.getName());
-        assertEquals(12.0, existingPizza.getPrice());
-        assertEquals("Large", existingPizza.getSize());
-        assertEquals("Pepperoni, Cheese", existingPizza.getIngredients());
-        assertEquals(cafe, existingPizza.getCafe());
+        assertThrows(CafeNotFoundException.class, () -> pizzaService.updatePizza(pizza, "TestCafe", "TestAddress"));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -194,18 +382,31 @@ class PizzaServiceImplTest {
         String cafeAddress = "TestAddress";
         Pizza pizza = new Pizza("Pepperoni", 12.0, "Large", "Pepperoni, Cheese");
 
-        when(cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress)).thenReturn(new Cafe());
-        when(pizzaRepository.findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, pizza.getId()))
-                .thenReturn(null);
+        when(cafeRepository.existsByNameAndAddress(cafeName, cafeAddress)).thenReturn(true);
+        when(pizzaRepository.existsByIdAndCafe_NameAndCafe_Address(pizza.getId(), cafeName, cafeAddress))
+                .thenReturn(false);
 
         // Act & Assert
-        PizzaNotFoundException exception = assertThrows(PizzaNotFoundException.class,
-                () -> pizzaService.updatePizza(pizza, cafeName, cafeAddress));
+        assertThrows(PizzaNotFoundException.class, () -> pizzaService.updatePizza(pizza, cafeName, cafeAddress));
 
         // Verify
-        verify(cafeRepository, times(1)).findCafeByNameAndAddress(cafeName, cafeAddress);
-        verify(pizzaRepository, times(1)).findByCafe_NameAndCafe_AddressAndId(cafeName, cafeAddress, pizza.getId());
-        verify(pizzaRepository, never()).save(any());
+        verify(pizzaRepository, times(1)).existsByIdAndCafe_NameAndCafe_Address(pizza.getId(), cafeName, cafeAddress);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updatePizzaVersionConflict() {
+        String cafeName = "TestCafe";
+        String cafeAddress = "TestAddress";
+        Pizza pizza = new Pizza("Pepperoni", 12.0, "Large", "Pepperoni, Cheese");
+        pizza.setId(5);
+
+        when(cafeRepository.existsByNameAndAddress(cafeName, cafeAddress)).thenReturn(true);
+        when(pizzaRepository.existsByIdAndCafe_NameAndCafe_Address(5, cafeName, cafeAddress)).thenReturn(true);
+
+        assertThrows(VersionConflictException.class, () -> pizzaService.updatePizza(pizza, cafeName, cafeAddress));
+        assertEquals(0, pizza.getVersion());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -215,12 +416,38 @@ class PizzaServiceImplTest {
         String pizzaName = "Margherita";
 
         Cafe cafe = new Cafe(cafeName, "TestCity", "TestEmail", "TestPhone", cafeAddress);
+        cafe.setId(2);
 
         when(cafeRepository.findCafeByNameAndAddress(cafeName, cafeAddress)).thenReturn(cafe);
+        when(pizzaRepository.findIdsByNameAndCafeId(pizzaName, 2)).thenReturn(List.of(5L));
+        when(pizzaRepository.deleteAllByIds(List.of(5L))).thenReturn(1);
 
-        assertDoesNotThrow(() -> pizzaService.deleteByName(cafeName, cafeAddress, pizzaName));
+        assertEquals(new DeletedRowsDTO(0, 1), pizzaService.deleteByName(cafeName, cafeAddress, pizzaName));
 
         verify(cafeRepository, times(1)).findCafeByNameAndAddress(cafeName, cafeAddress);
-        verify(pizzaRepository, times(1)).deletePizzaByNameAndCafe(pizzaName, cafe);
+        verify(pizzaRepository, times(1)).deleteAllByIds(List.of(5L));
+        verify(eventPublisher, times(1)).publishEvent(new PizzaDeletedEvent(5, cafeName, cafeAddress));
+    }
+
+    @Test
+    void deleteByNameNoMatch() {
+        Cafe cafe = new Cafe("TestCafe", "TestCity", "TestEmail", "TestPhone", "TestAddress");
+        cafe.setId(2);
+        when(cafeRepository.findCafeByNameAndAddress("TestCafe", "TestAddress")).thenReturn(cafe);
+        when(pizzaRepository.findIdsByNameAndCafeId("Margherita", 2)).thenReturn(List.of());
+
+        assertEquals(DeletedRowsDTO.NONE, pizzaService.deleteByName("TestCafe", "TestAddress", "Margherita"));
+        verify(pizzaRepository, never()).deleteAllByIds(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static PizzaDTO pizza(long id, String name, double price, String size, String ingredients) {
+        return new PizzaDTO(id, name, price, size, ingredients, 0, 1);
+    }
+
+    private static Pizza pizzaInCafe(Cafe cafe, String name, double price, String size, String ingredients) {
+        Pizza pizza = new Pizza(name, price, size, ingredients);
+        pizza.setCafe(cafe);
+        return pizza;
     }
 }
\ No newline at end of file
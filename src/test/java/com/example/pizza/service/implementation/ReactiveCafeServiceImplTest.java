@@ -0,0 +1,72 @@
+package com.example.pizza.service.implementation;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.dto.CafeDTO;
+import com.example.pizza.exception.exceptions.EmptyCafeListException;
+import com.example.pizza.repository.CafeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the reactive cafe reads over R2DBC against the embedded H2 database the JPA side writes to.
+ */
+@SpringBootTest
+class ReactiveCafeServiceImplTest {
+
+    @Autowired
+    private ReactiveCafeServiceImpl reactiveCafeService;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @AfterEach
+    void tearDown() {
+        cafeRepository.deleteAll();
+    }
+
+    @Test
+    void getAllCafes() {
+        List<Cafe> saved = cafeRepository.saveAll(List.of(
+                new Cafe("Dominos", "Kyiv", "kyiv@dominos.com", "+380441", "Khreshchatyk"),
+                new Cafe("Celentano", "Lviv", "lviv@celentano.com", "+380322", "Rynok Square")));
+
+        StepVerifier.create(reactiveCafeService.getAllCafes())
+                .assertNext(cafe -> {
+                    assertEquals(saved.get(0).getId(), cafe.id());
+                    assertEquals("kyiv@dominos.com", cafe.email());
+                })
+                .assertNext(cafe -> assertEquals("Celentano", cafe.name()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllCafesEmpty() {
+        StepVerifier.create(reactiveCafeService.getAllCafes())
+                .verifyError(EmptyCafeListException.class);
+    }
+
+    @Test
+    void getCafeChain() {
+        cafeRepository.saveAll(List.of(
+                new Cafe("Dominos", "Kyiv", "kyiv@dominos.com", "+380441", "Khreshchatyk"),
+                new Cafe("Dominos", "Lviv", "lviv@dominos.com", "+380322", "Rynok Square"),
+                new Cafe("Celentano", "Lviv", "lviv@celentano.com", "+380323", "Svobody Avenue")));
+
+        StepVerifier.create(reactiveCafeService.getCafeChain("Dominos").map(CafeDTO::address))
+                .expectNext("Khreshchatyk", "Rynok Square")
+                .verifyComplete();
+    }
+
+    @Test
+    void getCafeChainNotFound() {
+        StepVerifier.create(reactiveCafeService.getCafeChain("Nonexistent"))
+                .verifyError(EmptyCafeListException.class);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.pizza.service.implementation;
+
+import com.example.pizza.domain.entity.Cafe;
+import com.example.pizza.domain.entity.Pizza;
+import com.example.pizza.exception.exceptions.EmptyPizzaListException;
+import com.example.pizza.repository.CafeRepository;
+import com.example.pizza.repository.PizzaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the reactive menu reads over R2DBC against the embedded H2 database the JPA side writes to.
+ */
+@SpringBootTest
+class ReactivePizzaServiceImplTest {
+
+    @Autowired
+    private ReactivePizzaServiceImpl reactivePizzaService;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @AfterEach
+    void tearDown() {
+        pizzaRepository.deleteAll();
+        cafeRepository.deleteAll();
+    }
+
+    @Test
+    void getAllInCafe() {
+        Cafe cafe = cafeRepository.save(new Cafe("Dominos", "Kyiv", "kyiv@dominos.com", "+380441", "Khreshchatyk"));
+        Cafe other = cafeRepository.save(new Cafe("Dominos", "Lviv", "lviv@dominos.com", "+380322", "Rynok Square"));
+        pizzaRepository.insertAll(List.of(
+                pizza("Margherita", 10, cafe),
+                pizza("Pepperoni", 12.5, cafe),
+                pizza("Hawaiian", 11, other)));
+
+        StepVerifier.create(reactivePizzaService.getAllInCafe("Dominos", "Khreshchatyk"))
+                .assertNext(pizza -> assertEquals("Margherita", pizza.name()))
+                .assertNext(pizza -> {
+                    assertEquals("Pepperoni", pizza.name());
+                    assertEquals(12.5, pizza.price());
+                    assertEquals("Large", pizza.size());
+                    assertEquals(cafe.getId(), pizza.cafeId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllInCafeEmpty() {
+        cafeRepository.save(new Cafe("Dominos", "Kyiv", "kyiv@dominos.com", "+380441", "Khreshchatyk"));
+
+        StepVerifier.create(reactivePizzaService.getAllInCafe("Dominos", "Khreshchatyk"))
+                .verifyError(EmptyPizzaListException.class);
+    }
+
+    private static Pizza pizza(String name, double price, Cafe cafe) {
+        Pizza pizza = new Pizza(name, price, "Large", "Tomato, Mozzarella");
+        pizza.setCafe(cafe);
+        return pizza;
+    }
+}
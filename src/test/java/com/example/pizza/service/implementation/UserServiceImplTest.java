@@ -0,0 +1,111 @@
+package com.example.pizza.service.implementation;
+
+import com.example.pizza.domain.authorization.Role;
+import com.example.pizza.domain.authorization.User;
+import com.example.pizza.metrics.QueryCounter;
+import com.example.pizza.repository.RoleRepository;
+import com.example.pizza.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements of a login against the embedded H2 database, with many users
+ * sharing the same roles.
+ */
+@SpringBootTest
+class UserServiceImplTest {
+
+    private static final int USERS = 200;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @BeforeEach
+    void setUp() {
+        Role admin = role("ROLE_ADMIN");
+        Role user = role("ROLE_USER");
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(user("user" + i, i == 0 ? Set.of(admin, user) : Set.of(user)));
+        }
+        users.add(user("nobody", Set.of()));
+        userRepository.saveAll(users);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void loadUserByUsernameRunsOneStatement() {
+        QueryCounter.reset();
+        UserDetails details = userService.loadUserByUsername("user0");
+
+        assertEquals(1, QueryCounter.statements());
+        assertEquals(0, QueryCounter.entityLoads());
+        assertEquals("user0", details.getUsername());
+        assertEquals("hash-user0", details.getPassword());
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_USER"), authorities(details));
+    }
+
+    @Test
+    void loadUserByUsernameDoesNotDependOnSharedRoles() {
+        QueryCounter.reset();
+        UserDetails details = userService.loadUserByUsername("user" + (USERS - 1));
+
+        assertEquals(1, QueryCounter.statements());
+        assertEquals(0, QueryCounter.entityLoads());
+        assertEquals(Set.of("ROLE_USER"), authorities(details));
+    }
+
+    @Test
+    void loadUserByUsernameWithoutRoles() {
+        assertTrue(userService.loadUserByUsername("nobody").getAuthorities().isEmpty());
+    }
+
+    @Test
+    void loadUserByUsernameNotFound() {
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("missing"));
+    }
+
+    private Role role(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return roleRepository.save(role);
+    }
+
+    private static User user(String username, Set<Role> roles) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash-" + username);
+        user.setRoles(roles);
+        return user;
+    }
+
+    private static Set<String> authorities(UserDetails details) {
+        return details.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.pizza.validation;
+
+import com.example.pizza.domain.entity.Cafe;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Pattern;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential test of the hand-written field checks against the regular expressions they replace.
+ */
+class FieldConstraintsTest {
+
+    /**
+     * Characters of every class the expressions distinguish, plus their neighbours and some that
+     * only a Unicode-aware check would accept.
+     */
+    private static final String ALPHABET = "AZazMm09_.@+- \t\n\u000B\f\r\u001F éЖ ٠@[`{/:";
+
+    /**
+     * All strings of up to this length over the alphabet are checked.
+     */
+    private static final int EXHAUSTIVE_LENGTH = 3;
+
+    private static ValidatorFactory validatorFactory;
+
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void capitalizedWords() {
+        assertSameAsRegex(FieldConstraints.CAPITALIZED_WORDS, FieldConstraints::isCapitalizedWords,
+                "Pizza House", "Main Street\n", "Pizza1", "pizza", " Pizza", "P", "");
+    }
+
+    @Test
+    void cityName() {
+        assertSameAsRegex(FieldConstraints.CITY_NAME, FieldConstraints::isCityName,
+                "Kyiv", "Ky", "Kyi", "K" + "y".repeat(49), "K" + "y".repeat(50), "KYiv", "Kyiv ");
+    }
+
+    @Test
+    void emailAddress() {
+        assertSameAsRegex(FieldConstraints.EMAIL_ADDRESS, FieldConstraints::isEmailAddress,
+                "house@example.com", "first.last_1@Example.co.uk", ".@a", "a@", "@a", "a@1a", "a@a@a",
+                "a@a.", "a b@a", "a@a-b");
+    }
+
+    @Test
+    void phoneNumber() {
+        assertSameAsRegex(FieldConstraints.PHONE_NUMBER, FieldConstraints::isPhoneNumber,
+                "+380441234567", "+", "380441234567", "++1", "+1 2", "+١");
+    }
+
+    @Test
+    void messagesMatchPatternConstraint() {
+        Cafe cafe = new Cafe("pizza house", "K", "not an email", "0441234567", "main street 1");
+        RegexCafe regexCafe = new RegexCafe("pizza house", "K", "not an email", "0441234567", "main street 1");
+
+        assertEquals(messages(validator.validate(regexCafe)), messages(validator.validate(cafe)));
+    }
+
+    private static void assertSameAsRegex(String regex, Predicate<CharSequence> check, String... examples) {
+        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(regex);
+        List<String> inputs = new ArrayList<>(List.of(examples));
+        addAllStrings(inputs, "", EXHAUSTIVE_LENGTH);
+        addRandomStrings(inputs, regex.hashCode());
+        int accepted = 0;
+        for (String input : inputs) {
+            boolean expected = pattern.matcher(input).matches();
+            assertEquals(expected, check.test(input), () -> "Disagreement on \"" + escape(input) + "\"");
+            if (expected) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted > 0, "No accepted input was checked");
+    }
+
+    private static void addAllStrings(List<String> inputs, String prefix, int remaining) {
+        inputs.add(prefix);
+        if (remaining == 0) {
+            return;
+        }
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            addAllStrings(inputs, prefix + ALPHABET.charAt(i), remaining - 1);
+        }
+    }
+
+    /**
+     * Longer strings built mostly from the characters the expressions accept, so that many of them
+     * are valid or fail late.
+     */
+    private static void addRandomStrings(List<String> inputs, long seed) {
+        Random random = new Random(seed);
+        String common = "AZazMm09_.@+ ";
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(60);
+            for (int i = 0; i < length; i++) {
+                String source = random.nextInt(10) == 0 ? ALPHABET : common;
+                input.append(source.charAt(random.nextInt(source.length())));
+            }
+            inputs.add(input.toString());
+        }
+        inputs.add("K" + "y".repeat(48));
+        inputs.add("K" + "y".repeat(51));
+    }
+
+    private static Map<String, String> messages(Set<? extends ConstraintViolation<?>> violations) {
+        Map<String, String> messages = new TreeMap<>();
+        for (ConstraintViolation<?> violation : violations) {
+            messages.merge(violation.getPropertyPath().toString(), violation.getMessage(), (a, b) -> a + "; " + b);
+        }
+        return messages;
+    }
+
+    private static String escape(String input) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : input.toCharArray()) {
+            escaped.append(c >= ' ' && c < 0x7F ? String.valueOf(c) : String.format("\\u%04X", (int) c));
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * The constraints of the cafe fields as they were declared before the hand-written checks.
+     */
+    private record RegexCafe(
+            @Pattern(regexp = "^[A-Z][a-zA-Z\\s]*$") String name,
+            @Pattern(regexp = "[A-Z][a-z]{2,49}") String city,
+            @Pattern(regexp = "[\\w.]+@[a-zA-Z]+[\\w.]*", message = "Invalid email address format.") String email,
+            @Pattern(regexp = "\\+\\d+", message = "Phone must start with '+' followed by digits") String phone,
+            @Pattern(regexp = "^[A-Z][a-zA-Z\\s]*$", message = "Invalid address format") String address) {
+    }
+}